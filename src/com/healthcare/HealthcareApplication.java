@@ -15,17 +15,18 @@ public class HealthcareApplication {
             String dataDirectory = System.getProperty("user.dir") + File.separator + "data";
             File dataDir = new File(dataDirectory);
 
+            // Show the window straight away; the CSVs are parsed in the background
+            MainView mainView = new MainView(controller);
+            mainView.setVisible(true);
+
             if (dataDir.exists()) {
-                controller.loadData(dataDirectory);
+                mainView.loadDataInBackground(dataDirectory, false);
             } else {
                 JOptionPane.showMessageDialog(null,
                         "Data folder not found: " + dataDirectory + "\nCSV data may not load.",
                         "Warning",
                         JOptionPane.WARNING_MESSAGE);
             }
-
-            MainView mainView = new MainView(controller);
-            mainView.setVisible(true);
         });
     }
 }
@@ -1,8 +1,15 @@
 package com.healthcare.controller;
 
+import com.healthcare.data.AppointmentColumns;
+import com.healthcare.data.DataChangeListener;
 import com.healthcare.data.DataManager;
+import com.healthcare.data.EntityType;
+import com.healthcare.data.LoadProgressListener;
+import com.healthcare.data.Page;
+import com.healthcare.data.PrescriptionColumns;
 import com.healthcare.model.*;
 import com.healthcare.referral.ReferralManager;
+import java.time.LocalDate;
 import java.util.List;
 
 public class HealthcareController {
@@ -17,6 +24,41 @@ public class HealthcareController {
 
     public void loadData(String dataDirectory) {
         dataManager.loadAllData(dataDirectory);
+        referralManager.setAuditDirectory(dataDirectory);
+        referralManager.loadTemplates(dataDirectory);
+    }
+
+    public void loadData(String dataDirectory, LoadProgressListener progress) {
+        dataManager.loadAllData(dataDirectory, progress);
+        referralManager.setAuditDirectory(dataDirectory);
+        referralManager.loadTemplates(dataDirectory);
+    }
+
+    // Positional reads for the unsorted tables (see DataManager.getRowAt)
+    public int getRowCount(EntityType entityType) {
+        return dataManager.getRowCount(entityType);
+    }
+
+    public <T> T getRowAt(EntityType entityType, int position) {
+        return dataManager.getRowAt(entityType, position);
+    }
+
+    // Paged, sorted reads (see DataManager.page)
+    public <T> Page<T> page(EntityType entityType, String sortKey, boolean descending, String cursor, int limit) {
+        return dataManager.page(entityType, sortKey, descending, cursor, limit);
+    }
+
+    public List<String> getSortKeys(EntityType entityType) {
+        return dataManager.getSortKeys(entityType);
+    }
+
+    // Columnar views for reporting (see DataManager.getAppointmentColumns)
+    public AppointmentColumns getAppointmentColumns() {
+        return dataManager.getAppointmentColumns();
+    }
+
+    public PrescriptionColumns getPrescriptionColumns() {
+        return dataManager.getPrescriptionColumns();
     }
 
     // Patient operations
@@ -24,10 +66,18 @@ public class HealthcareController {
         return dataManager.getPatients();
     }
 
+    public List<Patient> searchPatients(String query) {
+        return dataManager.searchPatients(query);
+    }
+
     public void addPatient(Patient patient) {
         dataManager.addPatient(patient);
     }
 
+    public boolean updatePatient(Patient patient) {
+        return dataManager.updatePatient(patient);
+    }
+
     public boolean deletePatient(String patientID) {
         return dataManager.deletePatient(patientID);
     }
@@ -41,10 +91,18 @@ public class HealthcareController {
         return dataManager.getClinicians();
     }
 
+    public List<Clinician> searchClinicians(String query) {
+        return dataManager.searchClinicians(query);
+    }
+
     public void addClinician(Clinician clinician) {
         dataManager.addClinician(clinician);
     }
 
+    public boolean updateClinician(Clinician clinician) {
+        return dataManager.updateClinician(clinician);
+    }
+
     public boolean deleteClinician(String clinicianID) {
         return dataManager.deleteClinician(clinicianID);
     }
@@ -58,10 +116,18 @@ public class HealthcareController {
         return dataManager.getFacilities();
     }
 
+    public List<Facility> searchFacilities(String query) {
+        return dataManager.searchFacilities(query);
+    }
+
     public void addFacility(Facility facility) {
         dataManager.addFacility(facility);
     }
 
+    public boolean updateFacility(Facility facility) {
+        return dataManager.updateFacility(facility);
+    }
+
     public boolean deleteFacility(String facilityID) {
         return dataManager.deleteFacility(facilityID);
     }
@@ -75,39 +141,85 @@ public class HealthcareController {
         return dataManager.getAppointments();
     }
 
+    public List<Appointment> getAppointmentsBetween(LocalDate from, LocalDate to) {
+        return dataManager.getAppointmentsBetween(from, to);
+    }
+
+    public List<Appointment> searchAppointments(String query) {
+        return dataManager.searchAppointments(query);
+    }
+
     public void addAppointment(Appointment appointment) {
         dataManager.addAppointment(appointment);
     }
 
+    public boolean updateAppointment(Appointment appointment) {
+        return dataManager.updateAppointment(appointment);
+    }
+
     public boolean deleteAppointment(String appointmentID) {
         return dataManager.deleteAppointment(appointmentID);
     }
 
+    public Appointment findAppointment(String appointmentID) {
+        return dataManager.findAppointment(appointmentID);
+    }
+
     // Prescription operations
     public List<Prescription> getAllPrescriptions() {
         return dataManager.getPrescriptions();
     }
 
+    public List<Prescription> searchPrescriptions(String query) {
+        return dataManager.searchPrescriptions(query);
+    }
+
     public void addPrescription(Prescription prescription) {
         dataManager.addPrescription(prescription);
     }
 
+    public boolean updatePrescription(Prescription prescription) {
+        return dataManager.updatePrescription(prescription);
+    }
+
     public boolean deletePrescription(String prescriptionID) {
         return dataManager.deletePrescription(prescriptionID);
     }
 
+    public Prescription findPrescription(String prescriptionID) {
+        return dataManager.findPrescription(prescriptionID);
+    }
+
     // Referral operations
     public List<Referral> getAllReferrals() {
         return dataManager.getReferrals();
     }
 
+    public List<Referral> searchReferrals(String query) {
+        return dataManager.searchReferrals(query);
+    }
+
     public void addReferral(Referral referral) {
         dataManager.addReferral(referral);
         referralManager.addToQueue(referral);
     }
 
+    // In-place update; the referral is queued again if its email or EHR update would change
+    public boolean updateReferral(Referral referral) {
+        Referral old = dataManager.findReferral(referral.getReferralID());
+        if (!dataManager.updateReferral(referral)) return false;
+        referralManager.referralUpdated(old, referral);
+        return true;
+    }
+
     public boolean deleteReferral(String referralID) {
-        return dataManager.deleteReferral(referralID);
+        if (!dataManager.deleteReferral(referralID)) return false;
+        referralManager.removeReferral(referralID);
+        return true;
+    }
+
+    public Referral findReferral(String referralID) {
+        return dataManager.findReferral(referralID);
     }
 
     public void generateReferralFile(Referral referral, String outputPath) {
@@ -119,14 +231,80 @@ public class HealthcareController {
         return dataManager.getStaff();
     }
 
+    public List<Staff> searchStaff(String query) {
+        return dataManager.searchStaff(query);
+    }
+
     public void addStaff(Staff staff) {
         dataManager.addStaff(staff);
     }
 
+    public boolean updateStaff(Staff staff) {
+        return dataManager.updateStaff(staff);
+    }
+
     public boolean deleteStaff(String staffID) {
         return dataManager.deleteStaff(staffID);
     }
 
+    public Staff findStaff(String staffID) {
+        return dataManager.findStaff(staffID);
+    }
+
+    // Indexed relationship queries (no list scans)
+    public List<Appointment> getAppointmentsForPatient(String patientID) {
+        return dataManager.getAppointmentsForPatient(patientID);
+    }
+
+    public List<Appointment> getAppointmentsForClinician(String clinicianID) {
+        return dataManager.getAppointmentsForClinician(clinicianID);
+    }
+
+    public List<Appointment> getAppointmentsForFacility(String facilityID) {
+        return dataManager.getAppointmentsForFacility(facilityID);
+    }
+
+    public List<Prescription> getPrescriptionsForPatient(String patientID) {
+        return dataManager.getPrescriptionsForPatient(patientID);
+    }
+
+    public List<Prescription> getPrescriptionsForClinician(String clinicianID) {
+        return dataManager.getPrescriptionsForClinician(clinicianID);
+    }
+
+    public List<Prescription> getPrescriptionsForAppointment(String appointmentID) {
+        return dataManager.getPrescriptionsForAppointment(appointmentID);
+    }
+
+    public List<Referral> getReferralsForPatient(String patientID) {
+        return dataManager.getReferralsForPatient(patientID);
+    }
+
+    public List<Referral> getReferralsFromClinician(String clinicianID) {
+        return dataManager.getReferralsFromClinician(clinicianID);
+    }
+
+    public List<Referral> getReferralsToClinician(String clinicianID) {
+        return dataManager.getReferralsToClinician(clinicianID);
+    }
+
+    public List<Referral> getReferralsFromFacility(String facilityID) {
+        return dataManager.getReferralsFromFacility(facilityID);
+    }
+
+    public List<Referral> getReferralsToFacility(String facilityID) {
+        return dataManager.getReferralsToFacility(facilityID);
+    }
+
+    // Change notifications (one event per add, update or delete)
+    public void addDataChangeListener(DataChangeListener listener) {
+        dataManager.addDataChangeListener(listener);
+    }
+
+    public void removeDataChangeListener(DataChangeListener listener) {
+        dataManager.removeDataChangeListener(listener);
+    }
+
     // Get data manager for direct access if needed
     public DataManager getDataManager() {
         return dataManager;
@@ -0,0 +1,166 @@
+package com.healthcare.data;
+
+import com.healthcare.model.Appointment;
+import com.healthcare.model.CompactFields;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Column-wise copy of the appointment table for analytics scans: one primitive array per
+ * field instead of one object per row, so a scan reads a few contiguous arrays rather than
+ * chasing a pointer per row. Dates are epoch days, times minutes of the day, and status,
+ * type and clinician are int codes into small dictionaries.
+ *
+ * Built from one immutable snapshot of the store and never changed; DataManager builds a new
+ * one on request after the table changes. row() hands back the Appointment object itself
+ * when a caller needs the rest of its fields.
+ */
+public final class AppointmentColumns {
+    private final List<Appointment> rows;
+    private final int[] day;
+    private final short[] minute;
+    private final int[] duration;
+    private final int[] status;
+    private final int[] type;
+    private final int[] clinician;
+    private final ColumnCodes statuses = new ColumnCodes();
+    private final ColumnCodes types = new ColumnCodes();
+    private final ColumnCodes clinicians = new ColumnCodes();
+
+    AppointmentColumns(List<Appointment> rows) {
+        int n = rows.size();
+        this.rows = rows;
+        day = new int[n];
+        minute = new short[n];
+        duration = new int[n];
+        status = new int[n];
+        type = new int[n];
+        clinician = new int[n];
+        for (int i = 0; i < n; i++) {
+            Appointment a = rows.get(i);
+            day[i] = a.getDateDay();
+            minute[i] = (short) a.getTimeMinutes();
+            duration[i] = a.getDurationMinutesValue();
+            status[i] = statuses.code(a.getStatus());
+            type[i] = types.code(a.getAppointmentType());
+            clinician[i] = clinicians.code(a.getClinicianID());
+        }
+    }
+
+    /**
+     * True if this was built from exactly this snapshot list
+     */
+    boolean isOf(List<Appointment> snapshot) {
+        return rows == snapshot;
+    }
+
+    public int size() {
+        return day.length;
+    }
+
+    /** Epoch day, or CompactFields.NO_DAY */
+    public int day(int row) {
+        return day[row];
+    }
+
+    /** Minutes since midnight, or CompactFields.NO_MINUTE */
+    public int minute(int row) {
+        return minute[row];
+    }
+
+    /** Duration in minutes, or CompactFields.NO_NUMBER */
+    public int durationMinutes(int row) {
+        return duration[row];
+    }
+
+    public int statusCode(int row) {
+        return status[row];
+    }
+
+    public String status(int code) {
+        return statuses.value(code);
+    }
+
+    public int typeCode(int row) {
+        return type[row];
+    }
+
+    public String type(int code) {
+        return types.value(code);
+    }
+
+    public int clinicianCode(int row) {
+        return clinician[row];
+    }
+
+    public String clinician(int code) {
+        return clinicians.value(code);
+    }
+
+    /**
+     * The full Appointment for a row
+     */
+    public Appointment row(int row) {
+        return rows.get(row);
+    }
+
+    /**
+     * Appointments per status for each day that has any, in date order.
+     * One pass over the day and status arrays into a flat day-by-status count table.
+     */
+    public Map<LocalDate, Map<String, Integer>> countByStatusPerDay() {
+        int first = Integer.MAX_VALUE;
+        int last = Integer.MIN_VALUE;
+        for (int d : day) {
+            if (d == CompactFields.NO_DAY) continue;
+            if (d < first) first = d;
+            if (d > last) last = d;
+        }
+
+        Map<LocalDate, Map<String, Integer>> result = new TreeMap<>();
+        if (first > last) return result;
+
+        int width = statuses.size() + 1; // slot 0 for rows without a status
+        int[] counts = new int[(last - first + 1) * width];
+        for (int i = 0; i < day.length; i++) {
+            if (day[i] != CompactFields.NO_DAY) {
+                counts[(day[i] - first) * width + status[i] + 1]++;
+            }
+        }
+
+        for (int d = 0; d <= last - first; d++) {
+            Map<String, Integer> perStatus = null;
+            for (int s = 0; s < width; s++) {
+                int count = counts[d * width + s];
+                if (count == 0) continue;
+                if (perStatus == null) perStatus = new LinkedHashMap<>();
+                perStatus.put(String.valueOf(statuses.value(s - 1)), count);
+            }
+            if (perStatus != null) {
+                result.put(LocalDate.ofEpochDay(first + d), perStatus);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Total booked minutes per clinician ID (rows without a plain duration count as 0)
+     */
+    public Map<String, Long> bookedMinutesPerClinician() {
+        long[] totals = new long[clinicians.size()];
+        for (int i = 0; i < duration.length; i++) {
+            if (clinician[i] != ColumnCodes.NULL_CODE && duration[i] != CompactFields.NO_NUMBER) {
+                totals[clinician[i]] += duration[i];
+            }
+        }
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int c = 0; c < totals.length; c++) {
+            result.put(clinicians.value(c), totals[c]);
+        }
+        return result;
+    }
+}
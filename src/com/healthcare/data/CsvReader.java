@@ -0,0 +1,69 @@
+package com.healthcare.data;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+
+/**
+ * Streams CSV records out of a Reader through a single reusable char buffer and tokenizer.
+ * The row returned by row() is only valid until the next call to next().
+ */
+final class CsvReader implements Closeable {
+    private static final int INITIAL_BUFFER = 64 * 1024;
+
+    private final Reader in;
+    private final CsvTokenizer tokenizer = new CsvTokenizer();
+    private char[] buf = new char[INITIAL_BUFFER];
+    private int pos;
+    private int len;
+    private boolean eof;
+
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Advance to the next record. Returns false once the input is exhausted.
+     */
+    boolean next() throws IOException {
+        while (true) {
+            if (pos >= len && eof) return false;
+
+            int end = tokenizer.tokenize(buf, pos, len, eof);
+            if (end >= 0) {
+                pos = end;
+                return true;
+            }
+            fill();
+        }
+    }
+
+    CsvTokenizer row() {
+        return tokenizer;
+    }
+
+    private void fill() throws IOException {
+        if (pos > 0) {
+            System.arraycopy(buf, pos, buf, 0, len - pos);
+            len -= pos;
+            pos = 0;
+        }
+        if (len == buf.length) {
+            char[] bigger = new char[buf.length * 2];
+            System.arraycopy(buf, 0, bigger, 0, len);
+            buf = bigger;
+        }
+
+        int n = in.read(buf, len, buf.length - len);
+        if (n < 0) {
+            eof = true;
+        } else {
+            len += n;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
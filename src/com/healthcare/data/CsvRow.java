@@ -0,0 +1,10 @@
+package com.healthcare.data;
+
+/**
+ * One parsed CSV record. Field values are only turned into Strings when asked for.
+ */
+interface CsvRow {
+    int fieldCount();
+
+    String field(int index);
+}
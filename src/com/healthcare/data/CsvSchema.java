@@ -0,0 +1,245 @@
+package com.healthcare.data;
+
+import com.healthcare.model.*;
+
+import java.util.function.Function;
+
+/**
+ * Column layout of one entity CSV file: how a row is turned into a model object and
+ * how a model object is turned back into values in header order.
+ */
+final class CsvSchema<T> {
+
+    static final CsvSchema<Patient> PATIENTS = new CsvSchema<>(EntityType.PATIENT,
+            "patient_id,first_name,last_name,date_of_birth,nhs_number,gender,phone_number,email,address,postcode,emergency_contact_name,emergency_contact_phone,registration_date,gp_surgery_id",
+            row -> new Patient(
+                    row.field(0),  // patient_id
+                    row.field(1),  // first_name
+                    row.field(2),  // last_name
+                    row.field(3),  // date_of_birth
+                    row.field(5),  // gender
+                    row.field(4),  // nhs_number
+                    row.field(7),  // email
+                    row.field(6),  // phone_number
+                    row.field(8),  // address
+                    row.field(9),  // postcode
+                    row.field(10), // emergency_contact_name
+                    row.field(11), // emergency_contact_phone
+                    row.field(12), // registration_date
+                    row.field(13)  // gp_surgery_id
+            ),
+            p -> new String[]{
+                    p.getPatientID(), p.getFirstName(), p.getLastName(), p.getDateOfBirth(),
+                    p.getNhsNumber(), p.getGender(), p.getPhone(), p.getEmail(), p.getAddress(),
+                    p.getPostcode(), p.getEmergencyContactName(), p.getEmergencyContactPhone(),
+                    p.getRegistrationDate(), p.getGpSurgery()
+            });
+
+    static final CsvSchema<Clinician> CLINICIANS = new CsvSchema<>(EntityType.CLINICIAN,
+            "clinician_id,first_name,last_name,title,speciality,gmc_number,phone_number,email,workplace_id,workplace_type,employment_status,start_date",
+            row -> new Clinician(
+                    row.field(0),  // clinician_id
+                    row.field(1),  // first_name
+                    row.field(2),  // last_name
+                    row.field(3),  // title -> qualification
+                    row.field(4),  // speciality -> specialty
+                    row.field(5),  // gmc_number
+                    row.field(8),  // workplace_id -> workplace
+                    row.field(9),  // workplace_type
+                    row.field(10), // employment_status
+                    row.field(11), // start_date
+                    row.field(7),  // email
+                    row.field(6)   // phone_number
+            ),
+            c -> new String[]{
+                    c.getClinicianID(), c.getFirstName(), c.getLastName(), c.getQualification(),
+                    c.getSpecialty(), c.getGmcNumber(), c.getPhone(), c.getEmail(), c.getWorkplace(),
+                    c.getWorkplaceType(), c.getEmploymentStatus(), c.getStartDate()
+            });
+
+    static final CsvSchema<Facility> FACILITIES = new CsvSchema<>(EntityType.FACILITY,
+            "facility_id,facility_name,facility_type,address,postcode,phone_number,email,opening_hours,manager_name,capacity,specialities_offered",
+            row -> new Facility(
+                    row.field(0),  // facility_id
+                    row.field(1),  // facility_name
+                    row.field(2),  // facility_type
+                    row.field(3),  // address
+                    row.field(4),  // postcode
+                    row.field(5),  // phone_number
+                    row.field(6),  // email
+                    row.field(7),  // opening_hours
+                    row.field(8),  // manager_name
+                    row.field(10), // specialities_offered -> services
+                    row.field(9)   // capacity
+            ),
+            f -> new String[]{
+                    f.getFacilityID(), f.getName(), f.getType(), f.getAddress(), f.getPostcode(),
+                    f.getPhone(), f.getEmail(), f.getOpeningHours(), f.getManagerName(),
+                    f.getCapacity(), f.getServices()
+            });
+
+    static final CsvSchema<Appointment> APPOINTMENTS = new CsvSchema<>(EntityType.APPOINTMENT,
+            "appointment_id,patient_id,clinician_id,facility_id,appointment_date,appointment_time,duration_minutes,appointment_type,status,reason_for_visit,notes,created_date,last_modified",
+            row -> new Appointment(
+                    row.field(0),
+                    row.field(1),
+                    row.field(2),
+                    row.field(3),
+                    row.field(4),
+                    row.field(5),
+                    row.field(6),
+                    row.field(7),
+                    row.field(8),
+                    row.field(9),
+                    row.field(10),
+                    row.field(11),
+                    row.field(12)
+            ),
+            a -> new String[]{
+                    a.getAppointmentID(), a.getPatientID(), a.getClinicianID(), a.getFacilityID(),
+                    a.getDate(), a.getTime(), a.getDurationMinutes(), a.getAppointmentType(),
+                    a.getStatus(), a.getReason(), a.getNotes(), a.getCreatedDate(), a.getLastModified()
+            });
+
+    static final CsvSchema<Prescription> PRESCRIPTIONS = new CsvSchema<>(EntityType.PRESCRIPTION,
+            "prescription_id,patient_id,clinician_id,appointment_id,prescription_date,medication_name,dosage,frequency,duration_days,quantity,instructions,pharmacy_name,status,issue_date,collection_date",
+            row -> new Prescription(
+                    row.field(0),   // prescription_id
+                    row.field(1),   // patient_id
+                    row.field(2),   // clinician_id
+                    row.field(3),   // appointment_id
+                    row.field(5),   // medication_name
+                    row.field(6),   // dosage
+                    row.field(7),   // frequency
+                    row.field(8),   // duration_days
+                    row.field(9),   // quantity
+                    row.field(11),  // pharmacy_name
+                    row.field(4),   // prescription_date
+                    row.field(13),  // issue_date
+                    row.field(14),  // collection_date
+                    row.field(12),  // status -> collectionStatus
+                    row.field(10)   // instructions -> notes
+            ),
+            p -> new String[]{
+                    p.getPrescriptionID(), p.getPatientID(), p.getClinicianID(), p.getAppointmentID(),
+                    p.getDatePrescribed(), p.getMedication(), p.getDosage(), p.getFrequency(),
+                    p.getDurationDays(), p.getQuantity(), p.getNotes(), p.getPharmacy(),
+                    p.getCollectionStatus(), p.getIssueDate(), p.getCollectionDate()
+            });
+
+    static final CsvSchema<Referral> REFERRALS = new CsvSchema<>(EntityType.REFERRAL,
+            "referral_id,patient_id,referring_clinician_id,referred_to_clinician_id,referring_facility_id,referred_to_facility_id,referral_date,urgency_level,referral_reason,clinical_summary,requested_investigations,status,appointment_id,notes,created_date,last_updated",
+            row -> new Referral(
+                    row.field(0),
+                    row.field(1),
+                    row.field(2),
+                    row.field(3),
+                    row.field(4),
+                    row.field(5),
+                    row.field(6),
+                    row.field(7),
+                    row.field(8),
+                    row.field(9),
+                    row.field(10),
+                    row.field(12),
+                    row.field(13),
+                    row.field(11),
+                    row.field(14),
+                    row.field(15)
+            ),
+            r -> new String[]{
+                    r.getReferralID(), r.getPatientID(), r.getReferringClinicianID(), r.getReceivingClinicianID(),
+                    r.getReferringFacility(), r.getReceivingFacility(), r.getDate(), r.getUrgency(),
+                    r.getReferralReason(), r.getClinicalSummary(), r.getRequestedInvestigations(),
+                    r.getStatus(), r.getAppointmentID(), r.getNotes(), r.getCreatedDate(), r.getLastUpdated()
+            });
+
+    static final CsvSchema<Staff> STAFF = new CsvSchema<>(EntityType.STAFF,
+            "staff_id,first_name,last_name,role,department,facility_id,phone_number,email,employment_status,start_date,line_manager,access_level",
+            row -> new Staff(
+                    row.field(0),
+                    row.field(1),
+                    row.field(2),
+                    row.field(3),
+                    row.field(4),
+                    row.field(5),
+                    row.field(7),  // email
+                    row.field(6),  // phone
+                    row.field(8),
+                    row.field(9),
+                    row.field(10),
+                    row.field(11)
+            ),
+            s -> new String[]{
+                    s.getStaffID(), s.getFirstName(), s.getLastName(), s.getRole(), s.getDepartment(),
+                    s.getFacilityID(), s.getPhone(), s.getEmail(), s.getEmploymentStatus(),
+                    s.getStartDate(), s.getLineManager(), s.getAccessLevel()
+            });
+
+    private final EntityType type;
+    private final String header;
+    private final int columnCount;
+    private final Function<CsvRow, T> reader;
+    private final Function<T, String[]> writer;
+
+    private CsvSchema(EntityType type, String header, Function<CsvRow, T> reader, Function<T, String[]> writer) {
+        this.type = type;
+        this.header = header;
+        this.columnCount = header.split(",").length;
+        this.reader = reader;
+        this.writer = writer;
+    }
+
+    static CsvSchema<?> of(EntityType type) {
+        switch (type) {
+            case PATIENT: return PATIENTS;
+            case CLINICIAN: return CLINICIANS;
+            case FACILITY: return FACILITIES;
+            case APPOINTMENT: return APPOINTMENTS;
+            case PRESCRIPTION: return PRESCRIPTIONS;
+            case REFERRAL: return REFERRALS;
+            case STAFF: return STAFF;
+            default: throw new IllegalArgumentException("Unknown entity type: " + type);
+        }
+    }
+
+    EntityType type() {
+        return type;
+    }
+
+    String header() {
+        return header;
+    }
+
+    int columnCount() {
+        return columnCount;
+    }
+
+    T read(CsvRow row) {
+        return reader.apply(row);
+    }
+
+    /**
+     * Field values in header column order
+     */
+    String[] values(T entity) {
+        return writer.apply(entity);
+    }
+
+    /**
+     * Rebuild an entity from values previously produced by values()
+     */
+    T fromValues(String[] values) {
+        return reader.apply(new CsvRow() {
+            @Override
+            public int fieldCount() {
+                return values.length;
+            }
+
+            @Override
+            public String field(int index) {
+                return values[index];
+            }
+        });
+    }
+}
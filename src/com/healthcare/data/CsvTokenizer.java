@@ -0,0 +1,132 @@
+package com.healthcare.data;
+
+import java.util.Arrays;
+
+/**
+ * Reusable CSV tokenizer that scans a char buffer and records field offsets into it.
+ *
+ * Quote handling matches the old line parser: quotes are stripped, commas inside quotes
+ * are literal and whitespace around a field is trimmed. Whitespace inside quotes is kept,
+ * so values CsvWriter quoted for their leading or trailing spaces read back unchanged.
+ * In addition a doubled quote inside a quoted section ("") is read as a literal quote,
+ * and a quoted field may span several lines.
+ * Strings are only created when field(i) is called.
+ */
+final class CsvTokenizer implements CsvRow {
+    private char[] buf;
+    private int[] starts = new int[32];
+    private int[] ends = new int[32];
+    private boolean[] quoted = new boolean[32];
+    private int count;
+    private final StringBuilder scratch = new StringBuilder();
+
+    /**
+     * Tokenize the record starting at buf[from]. Returns the index just after the
+     * record's line terminator, or -1 if the record is not complete before limit
+     * and more input may follow (eof == false).
+     */
+    int tokenize(char[] buf, int from, int limit, boolean eof) {
+        this.buf = buf;
+        count = 0;
+
+        int fieldStart = from;
+        boolean inQuotes = false;
+        boolean hasQuote = false;
+
+        for (int i = from; i < limit; i++) {
+            char c = buf[i];
+
+            if (c == '"') {
+                if (inQuotes) {
+                    if (i + 1 == limit && !eof) return -1; // cannot tell "" from closing quote yet
+                    if (i + 1 < limit && buf[i + 1] == '"') {
+                        i++; // escaped quote
+                        continue;
+                    }
+                }
+                inQuotes = !inQuotes;
+                hasQuote = true;
+            } else if (!inQuotes) {
+                if (c == ',') {
+                    addField(fieldStart, i, hasQuote);
+                    fieldStart = i + 1;
+                    hasQuote = false;
+                } else if (c == '\n') {
+                    addField(fieldStart, i, hasQuote);
+                    return i + 1;
+                }
+            }
+        }
+
+        if (!eof) return -1;
+        addField(fieldStart, limit, hasQuote);
+        return limit;
+    }
+
+    private void addField(int start, int end, boolean hasQuote) {
+        if (count == starts.length) {
+            int size = count * 2;
+            starts = Arrays.copyOf(starts, size);
+            ends = Arrays.copyOf(ends, size);
+            quoted = Arrays.copyOf(quoted, size);
+        }
+        starts[count] = start;
+        ends[count] = end;
+        quoted[count] = hasQuote;
+        count++;
+    }
+
+    /**
+     * True for an empty line (a single unquoted field containing only whitespace)
+     */
+    boolean isBlank() {
+        if (count != 1 || quoted[0]) return false;
+        for (int i = starts[0]; i < ends[0]; i++) {
+            if (buf[i] > ' ') return false;
+        }
+        return true;
+    }
+
+    @Override
+    public int fieldCount() {
+        return count;
+    }
+
+    @Override
+    public String field(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Field " + index + " of " + count);
+        }
+        int start = starts[index];
+        int end = ends[index];
+
+        if (!quoted[index]) {
+            while (start < end && buf[start] <= ' ') start++;
+            while (end > start && buf[end - 1] <= ' ') end--;
+            return new String(buf, start, end - start);
+        }
+
+        // Slow path: drop structural quotes and unescape "", trimming only unquoted whitespace
+        scratch.setLength(0);
+        int from = -1; // first and just past the last char to keep
+        int to = 0;
+        boolean inQuotes = false;
+        for (int i = start; i < end; i++) {
+            char c = buf[i];
+            if (c == '"') {
+                if (inQuotes && i + 1 < end && buf[i + 1] == '"') {
+                    i++; // escaped quote
+                } else {
+                    inQuotes = !inQuotes;
+                    continue;
+                }
+            }
+            if (inQuotes || c > ' ') {
+                if (from < 0) from = scratch.length();
+                to = scratch.length() + 1;
+            }
+            scratch.append(c);
+        }
+        return from < 0 ? "" : scratch.substring(from, to);
+    }
+}
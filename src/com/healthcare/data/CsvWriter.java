@@ -0,0 +1,84 @@
+package com.healthcare.data;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+
+/**
+ * Streams an entity list back to its CSV file in header column order.
+ * The rows go to a temp file in the same directory which is then renamed over the
+ * target once it is synced, so a crash mid-write never leaves a truncated CSV behind.
+ */
+final class CsvWriter {
+
+    private CsvWriter() {
+    }
+
+    static <T> void write(File target, CsvSchema<T> schema, List<T> rows) throws IOException {
+        File dir = target.getAbsoluteFile().getParentFile();
+        // Not createTempFile: its owner-only permissions would end up on the renamed CSV
+        Path temp = Files.createFile(dir.toPath().resolve(
+                target.getName() + "." + Long.toHexString(System.nanoTime()) + ".tmp"));
+
+        try {
+            try (FileOutputStream file = new FileOutputStream(temp.toFile());
+                 Writer out = new BufferedWriter(new OutputStreamWriter(file, StandardCharsets.UTF_8), 64 * 1024)) {
+                out.write(schema.header());
+                for (T row : rows) {
+                    out.write('\n');
+                    String[] values = schema.values(row);
+                    for (int i = 0; i < values.length; i++) {
+                        if (i > 0) out.write(',');
+                        writeField(out, values[i]);
+                    }
+                }
+                out.flush();
+                file.getFD().sync();
+            }
+
+            try {
+                Files.move(temp, target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Quote a value only when the tokenizer would otherwise split or trim it (it keeps
+     * whitespace inside quotes)
+     */
+    private static void writeField(Writer out, String value) throws IOException {
+        if (value == null || value.isEmpty()) return;
+
+        boolean quote = value.charAt(0) <= ' ' || value.charAt(value.length() - 1) <= ' ';
+        for (int i = 0; i < value.length() && !quote; i++) {
+            char c = value.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+
+        if (!quote) {
+            out.write(value);
+            return;
+        }
+
+        out.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') out.write('"');
+            out.write(c);
+        }
+        out.write('"');
+    }
+}
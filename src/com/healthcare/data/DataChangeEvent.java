@@ -0,0 +1,54 @@
+package com.healthcare.data;
+
+/**
+ * One change to one entity type: a single row added, updated or deleted, or the whole
+ * list reloaded. For row changes, getRow() is the row's position in the entity list
+ * (for DELETED, the position it had before it was removed; later rows move up by one).
+ */
+public final class DataChangeEvent {
+    public enum Kind {
+        ADDED,
+        UPDATED,
+        DELETED,
+        RELOADED
+    }
+
+    private final EntityType entityType;
+    private final Kind kind;
+    private final String id;
+    private final int row;
+
+    public DataChangeEvent(EntityType entityType, Kind kind, String id, int row) {
+        this.entityType = entityType;
+        this.kind = kind;
+        this.id = id;
+        this.row = row;
+    }
+
+    public EntityType getEntityType() {
+        return entityType;
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    /**
+     * Primary key of the changed row, or null for RELOADED
+     */
+    public String getId() {
+        return id;
+    }
+
+    /**
+     * Position of the changed row, or -1 for RELOADED
+     */
+    public int getRow() {
+        return row;
+    }
+
+    @Override
+    public String toString() {
+        return kind + " " + entityType.getLabel() + (id == null ? "" : " " + id + " at row " + row);
+    }
+}
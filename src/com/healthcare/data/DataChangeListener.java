@@ -0,0 +1,9 @@
+package com.healthcare.data;
+
+/**
+ * Notified after every add, update and delete made through DataManager, and after each load.
+ * Called on the thread that made the change, which is not necessarily the Swing EDT.
+ */
+public interface DataChangeListener {
+    void dataChanged(DataChangeEvent event);
+}
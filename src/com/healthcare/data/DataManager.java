@@ -4,315 +4,854 @@ import com.healthcare.model.*;
 
 import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
 
 /**
  * Data Manager class to load and manage all healthcare data
  * Uses BufferedReader for CSV parsing
  */
 public class DataManager {
-    private List<Patient> patients;
-    private List<Clinician> clinicians;
-    private List<Facility> facilities;
-    private List<Appointment> appointments;
-    private List<Prescription> prescriptions;
-    private List<Referral> referrals;
-    private List<Staff> staff;
+    private static final int LOAD_FILE_COUNT = 7;
+    // Files at least this large are parsed in parallel chunks through MappedCsvReader
+    private static final long MAPPED_READ_THRESHOLD = 16L * 1024 * 1024;
+    private static final long DEFAULT_WRITE_BEHIND_INTERVAL_MILLIS = 2000;
+
+    private final EntityStore<Patient> patients = new EntityStore<>(Patient::getPatientID);
+    private final EntityStore<Clinician> clinicians = new EntityStore<>(Clinician::getClinicianID);
+    private final EntityStore<Facility> facilities = new EntityStore<>(Facility::getFacilityID);
+    private final EntityStore<Appointment> appointments = new EntityStore<>(Appointment::getAppointmentID);
+    private final EntityStore<Prescription> prescriptions = new EntityStore<>(Prescription::getPrescriptionID);
+    private final EntityStore<Referral> referrals = new EntityStore<>(Referral::getReferralID);
+    private final EntityStore<Staff> staff = new EntityStore<>(Staff::getStaffID);
+
+    // Foreign-key secondary indexes
+    private final SecondaryIndex<Appointment> appointmentsByPatient = appointments.addIndex(Appointment::getPatientID);
+    private final SecondaryIndex<Appointment> appointmentsByClinician = appointments.addIndex(Appointment::getClinicianID);
+    private final SecondaryIndex<Appointment> appointmentsByFacility = appointments.addIndex(Appointment::getFacilityID);
+    private final SecondaryIndex<Prescription> prescriptionsByPatient = prescriptions.addIndex(Prescription::getPatientID);
+    private final SecondaryIndex<Prescription> prescriptionsByClinician = prescriptions.addIndex(Prescription::getClinicianID);
+    private final SecondaryIndex<Prescription> prescriptionsByAppointment = prescriptions.addIndex(Prescription::getAppointmentID);
+    private final SecondaryIndex<Referral> referralsByPatient = referrals.addIndex(Referral::getPatientID);
+    private final SecondaryIndex<Referral> referralsByReferringClinician = referrals.addIndex(Referral::getReferringClinicianID);
+    private final SecondaryIndex<Referral> referralsByReceivingClinician = referrals.addIndex(Referral::getReceivingClinicianID);
+    private final SecondaryIndex<Referral> referralsByReferringFacility = referrals.addIndex(Referral::getReferringFacility);
+    private final SecondaryIndex<Referral> referralsByReceivingFacility = referrals.addIndex(Referral::getReceivingFacility);
+
+    // Word indexes behind the panel search bars; the second list holds low-cardinality
+    // fields that are searched but kept out of the index
+    private final SearchIndex<Patient> patientSearch = patients.addSearchIndex(
+            List.of(Patient::getPatientID, Patient::getFirstName, Patient::getLastName, Patient::getNhsNumber,
+                    Patient::getPostcode),
+            List.of());
+    private final SearchIndex<Clinician> clinicianSearch = clinicians.addSearchIndex(
+            List.of(Clinician::getClinicianID, Clinician::getFirstName, Clinician::getLastName, Clinician::getSpecialty),
+            List.of());
+    private final SearchIndex<Facility> facilitySearch = facilities.addSearchIndex(
+            List.of(Facility::getFacilityID, Facility::getName, Facility::getPostcode),
+            List.of(Facility::getType));
+    private final SearchIndex<Appointment> appointmentSearch = appointments.addSearchIndex(
+            List.of(Appointment::getAppointmentID, Appointment::getPatientID, Appointment::getClinicianID),
+            List.of(Appointment::getDate, Appointment::getStatus));
+    private final SearchIndex<Prescription> prescriptionSearch = prescriptions.addSearchIndex(
+            List.of(Prescription::getPrescriptionID, Prescription::getPatientID, Prescription::getMedication),
+            List.of(Prescription::getCollectionStatus));
+    private final SearchIndex<Referral> referralSearch = referrals.addSearchIndex(
+            List.of(Referral::getReferralID, Referral::getPatientID),
+            List.of(Referral::getUrgency, Referral::getStatus));
+    private final SearchIndex<Staff> staffSearch = staff.addSearchIndex(
+            List.of(Staff::getStaffID, Staff::getFirstName, Staff::getLastName, Staff::getDepartment),
+            List.of(Staff::getRole));
+
+    // Sorted indexes for paged tables, by entity type and sort key name (see page())
+    private final Map<EntityType, Map<String, SortedIndex<?>>> sortedIndexes = new EnumMap<>(EntityType.class);
+
+    // Columnar copies for analytics, built on request and replaced once the table has changed
+    private volatile AppointmentColumns appointmentColumns;
+    private volatile PrescriptionColumns prescriptionColumns;
+
+    private boolean concurrentLoading = true;
+    private boolean snapshotsEnabled = true;
+    private boolean journalEnabled = true;
+    private int journalSyncBatchSize = Journal.DEFAULT_SYNC_BATCH_SIZE;
+    private long journalSyncIntervalMillis = Journal.DEFAULT_SYNC_INTERVAL_MILLIS;
+    private boolean writeBehindEnabled = true;
+    private long writeBehindIntervalMillis = DEFAULT_WRITE_BEHIND_INTERVAL_MILLIS;
+    private Journal journal;
+    private WriteBehindScheduler writeBehind;
+    private String dataDirectory;
+    private final Object flushLock = new Object();
+    private boolean shutdownHookRegistered;
+    private final Map<String, Long> loadTimings = new ConcurrentHashMap<>();
+    private volatile long loadSharedValues; // repeated column values interned by the last loadAllData
+    private volatile long loadSavedBytes;
+    private final Map<EntityType, SnapshotStore.Source> loadedSources = new EnumMap<>(EntityType.class);
+    private final AtomicLong changes = new AtomicLong(); // bumped by every add, update and delete
+    private final List<DataChangeListener> listeners = new CopyOnWriteArrayList<>();
 
     public DataManager() {
-        patients = new ArrayList<>();
-        clinicians = new ArrayList<>();
-        facilities = new ArrayList<>();
-        appointments = new ArrayList<>();
-        prescriptions = new ArrayList<>();
-        referrals = new ArrayList<>();
-        staff = new ArrayList<>();
+        addSortKey(EntityType.PATIENT, patients, "patientID", Patient::getPatientID);
+        addSortKey(EntityType.PATIENT, patients, "firstName", Patient::getFirstName);
+        addSortKey(EntityType.PATIENT, patients, "lastName", p -> p.getLastName() + " " + p.getFirstName());
+        addSortKey(EntityType.PATIENT, patients, "dateOfBirth", Patient::getDateOfBirth);
+        addSortKey(EntityType.PATIENT, patients, "nhsNumber", Patient::getNhsNumber);
+        addSortKey(EntityType.PATIENT, patients, "registrationDate", Patient::getRegistrationDate);
+
+        // Dates and times are ISO (yyyy-MM-dd, HH:mm), so text order is time order
+        addSortKey(EntityType.APPOINTMENT, appointments, "appointmentID", Appointment::getAppointmentID);
+        addSortKey(EntityType.APPOINTMENT, appointments, "patientID", Appointment::getPatientID);
+        addSortKey(EntityType.APPOINTMENT, appointments, "clinicianID", Appointment::getClinicianID);
+        addSortKey(EntityType.APPOINTMENT, appointments, "dateTime", a -> a.getDate() + " " + a.getTime());
+        addSortKey(EntityType.APPOINTMENT, appointments, "status", Appointment::getStatus);
+    }
+
+    private <T> void addSortKey(EntityType type, EntityStore<T> store, String name, Function<T, String> key) {
+        sortedIndexes.computeIfAbsent(type, t -> new LinkedHashMap<>()).put(name, store.addSortedIndex(key));
     }
 
     /**
-     * Load all CSV files from the data directory
+     * Load all data from the data directory.
+     * Entity types whose CSV is unchanged since the last run come from the binary
+     * snapshot; the rest are parsed from CSV, concurrently unless that has been
+     * switched off with setConcurrentLoading(false). The snapshot is then refreshed
+     * in the background. Later edits are written back to the CSV files by the
+     * write-behind scheduler.
+     *
+     * Loading replaces whatever was loaded before: pending edits are first flushed to the
+     * previous directory and its journal closed, then every store is emptied.
      */
     public void loadAllData(String dataDirectory) {
-        String sep = File.separator;
+        loadAllData(dataDirectory, null);
+    }
 
-        loadPatients(dataDirectory + sep + "patients.csv");
-        loadClinicians(dataDirectory + sep + "clinicians.csv");
-        loadFacilities(dataDirectory + sep + "facilities.csv");
-        loadAppointments(dataDirectory + sep + "appointments.csv");
-        loadPrescriptions(dataDirectory + sep + "prescriptions.csv");
-        loadReferrals(dataDirectory + sep + "referrals.csv");
-        loadStaff(dataDirectory + sep + "staff.csv");
+    /**
+     * As loadAllData(String), reporting each entity type to progress (may be null) as soon
+     * as its rows are in the store. Each type also fires a RELOADED DataChangeEvent then,
+     * so tables can fill in while the remaining files are still being parsed.
+     */
+    public void loadAllData(String dataDirectory, LoadProgressListener progress) {
+        long savedBefore = ValueDictionary.totalSavedBytes();
+        long sharedBefore = ValueDictionary.totalSharedCount();
+        clearForLoad();
+        SnapshotStore.Contents snapshot = snapshotsEnabled ? readSnapshot(dataDirectory) : null;
+
+        Map<EntityType, List<?>> loaded = concurrentLoading
+                ? loadConcurrently(dataDirectory, snapshot, progress)
+                : loadSequentially(dataDirectory, snapshot, progress);
+        loadSharedValues = ValueDictionary.totalSharedCount() - sharedBefore;
+        loadSavedBytes = ValueDictionary.totalSavedBytes() - savedBefore;
+
+        long loadedVersion = changes.get();
+
+        if (writeBehindEnabled) {
+            startWriteBehind(dataDirectory);
+        }
+        if (journalEnabled) {
+            openJournal(dataDirectory);
+        }
+
+        if (snapshotsEnabled && loaded != null && !coversAll(snapshot)) {
+            saveSnapshotInBackground(dataDirectory, loaded, loadedVersion);
+        }
     }
 
     /**
-     * Parse CSV line handling quoted fields
+     * Load all CSV files one after another on the calling thread (original behaviour).
+     * Replaces what was loaded before, as loadAllData does, but leaves write-behind and the
+     * journal off.
      */
-    private String[] parseCSVLine(String line) {
-        List<String> fields = new ArrayList<>();
-        boolean inQuotes = false;
-        StringBuilder currentField = new StringBuilder();
+    public void loadAllDataSequentially(String dataDirectory) {
+        clearForLoad();
+        loadSequentially(dataDirectory, null, null);
+    }
 
-        for (int i = 0; i < line.length(); i++) {
-            char c = line.charAt(i);
+    /**
+     * Parse the seven CSV files in parallel on a bounded worker pool.
+     * Each entity list is filled as soon as its file has been parsed; if a file fails,
+     * the types not loaded yet are read by the sequential loader instead.
+     * Replaces what was loaded before and leaves write-behind and the journal off.
+     */
+    public void loadAllDataConcurrently(String dataDirectory) {
+        clearForLoad();
+        loadConcurrently(dataDirectory, null, null);
+    }
 
-            if (c == '"') {
-                inQuotes = !inQuotes;
-            } else if (c == ',' && !inQuotes) {
-                fields.add(currentField.toString().trim());
-                currentField = new StringBuilder();
-            } else {
-                currentField.append(c);
+    /**
+     * Get ready for a full load: write pending edits to the directory they came from, stop
+     * write-behind and close the journal there, then empty every store and its indexes.
+     * Nothing loaded on top of old rows can then be written back to any directory.
+     */
+    private void clearForLoad() {
+        stopWriteBehind();
+        closeJournal();
+        for (EntityType type : EntityType.values()) {
+            store(CsvSchema.of(type)).clear();
+        }
+        loadedSources.clear();
+        changes.incrementAndGet();
+    }
+
+    private Map<EntityType, List<?>> loadSequentially(String dataDirectory, SnapshotStore.Contents snapshot,
+                                                      LoadProgressListener progress) {
+        Map<EntityType, List<?>> loaded = new EnumMap<>(EntityType.class);
+        loadRemaining(dataDirectory, snapshot, progress, loaded);
+        return loaded;
+    }
+
+    private void loadRemaining(String dataDirectory, SnapshotStore.Contents snapshot,
+                               LoadProgressListener progress, Map<EntityType, List<?>> loaded) {
+        for (EntityType type : EntityType.values()) {
+            if (!loaded.containsKey(type)) {
+                install(timedRead(dataDirectory, CsvSchema.of(type), snapshot), progress, loaded);
             }
         }
-        fields.add(currentField.toString().trim());
-        return fields.toArray(new String[0]);
     }
 
-    private boolean fileExists(String filePath, String label) {
-        File f = new File(filePath);
-        if (!f.exists()) {
-            System.err.println("Missing " + label + " file: " + filePath);
-            return false;
+    private Map<EntityType, List<?>> loadConcurrently(String dataDirectory, SnapshotStore.Contents snapshot,
+                                                      LoadProgressListener progress) {
+        int threads = Math.max(1, Math.min(LOAD_FILE_COUNT, Runtime.getRuntime().availableProcessors()));
+        ExecutorService pool = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "csv-loader");
+            t.setDaemon(true);
+            return t;
+        });
+        CompletionService<LoadedRows<?>> done = new ExecutorCompletionService<>(pool);
+        Map<EntityType, List<?>> loaded = new EnumMap<>(EntityType.class);
+
+        try {
+            for (EntityType type : EntityType.values()) {
+                done.submit(() -> timedRead(dataDirectory, CsvSchema.of(type), snapshot));
+            }
+            for (int i = 0; i < LOAD_FILE_COUNT; i++) {
+                install(done.take().get(), progress, loaded);
+            }
+            return loaded;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            System.err.println("Concurrent load interrupted: " + e.getMessage());
+            return null;
+        } catch (ExecutionException | RejectedExecutionException e) {
+            System.err.println("Concurrent load failed, falling back to sequential load: " + e.getMessage());
+            loadRemaining(dataDirectory, snapshot, progress, loaded);
+            return loaded;
+        } finally {
+            pool.shutdownNow();
         }
-        return true;
     }
 
-    public void loadPatients(String filePath) {
-        if (!fileExists(filePath, "patients")) return;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-        	String line = br.readLine(); // header
-            while ((line = br.readLine()) != null && !line.trim().isEmpty()) {
-                String[] fields = parseCSVLine(line);
-
-                // patient_id,first_name,last_name,date_of_birth,nhs_number,gender,phone_number,email,address,postcode,emergency_contact_name,emergency_contact_phone,registration_date,gp_surgery_id
-                if (fields.length >= 14) {
-                    Patient patient = new Patient(
-                            fields[0],  // patient_id
-                            fields[1],  // first_name
-                            fields[2],  // last_name
-                            fields[3],  // date_of_birth
-                            fields[5],  // gender
-                            fields[4],  // nhs_number
-                            fields[7],  // email
-                            fields[6],  // phone_number
-                            fields[8],  // address
-                            fields[9],  // postcode
-                            fields[10], // emergency_contact_name
-                            fields[11], // emergency_contact_phone
-                            fields[12], // registration_date
-                            fields[13]  // gp_surgery_id
-                    );
-                    patients.add(patient);
-                }
+    /**
+     * Rows read for one entity type, with how long reading them took and the stamp of the
+     * CSV they came from (null if the file changed while it was read)
+     */
+    private static final class LoadedRows<T> {
+        final CsvSchema<T> schema;
+        final List<T> rows;
+        final long millis;
+        final SnapshotStore.Source source;
+
+        LoadedRows(CsvSchema<T> schema, List<T> rows, long millis, SnapshotStore.Source source) {
+            this.schema = schema;
+            this.rows = rows;
+            this.millis = millis;
+            this.source = source;
+        }
+    }
+
+    private <T> LoadedRows<T> timedRead(String dataDirectory, CsvSchema<T> schema, SnapshotStore.Contents snapshot) {
+        long start = System.nanoTime();
+        if (snapshot != null && snapshot.has(schema.type())) {
+            List<T> rows = snapshot.rows(schema);
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            loadTimings.put(schema.type().getLabel(), millis);
+            return new LoadedRows<>(schema, rows, millis, snapshot.source(schema.type()));
+        }
+
+        File file = new File(dataDirectory, schema.type().getFileName());
+        long size = file.length();
+        long lastModified = file.lastModified();
+        AtomicLong crc = new AtomicLong(-1); // set once the whole file has been read
+        List<T> rows = readCsv(file.getPath(), schema, snapshotsEnabled ? crc::set : null);
+
+        SnapshotStore.Source source = null;
+        if (crc.get() >= 0) {
+            source = SnapshotStore.Source.of(size, lastModified, crc.get());
+            if (!source.unchanged(file)) {
+                source = null; // rewritten while we parsed it; the rows may match neither version
             }
-        } catch (IOException e) {
-            System.err.println("Error loading patients: " + e.getMessage());
         }
+        return new LoadedRows<>(schema, rows, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), source);
     }
 
-    public void loadClinicians(String filePath) {
-        if (!fileExists(filePath, "clinicians")) return;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line = br.readLine(); // header
-            while ((line = br.readLine()) != null && !line.trim().isEmpty()) {
-                String[] fields = parseCSVLine(line);
-
-                // clinician_id,first_name,last_name,title,speciality,gmc_number,phone_number,email,workplace_id,workplace_type,employment_status,start_date
-                if (fields.length >= 12) {
-                    Clinician clinician = new Clinician(
-                            fields[0],  // clinician_id
-                            fields[1],  // first_name
-                            fields[2],  // last_name
-                            fields[3],  // title -> qualification
-                            fields[4],  // speciality -> specialty
-                            fields[5],  // gmc_number
-                            fields[8],  // workplace_id -> workplace
-                            fields[9],  // workplace_type
-                            fields[10], // employment_status
-                            fields[11], // start_date
-                            fields[7],  // email
-                            fields[6]   // phone_number
-                    );
-                    clinicians.add(clinician);
-                }
+    /**
+     * Put freshly read rows into their store and tell listeners and progress about them
+     */
+    private <T> void install(LoadedRows<T> result, LoadProgressListener progress, Map<EntityType, List<?>> loaded) {
+        EntityType type = result.schema.type();
+        store(result.schema).addAll(result.rows);
+        loaded.put(type, result.rows);
+        if (result.source != null) loadedSources.put(type, result.source);
+        fireReloaded(type);
+        if (progress != null) {
+            try {
+                progress.entityTypeLoaded(type, result.rows.size(), result.millis, loaded.size(), LOAD_FILE_COUNT);
+            } catch (RuntimeException e) {
+                System.err.println("Error in load progress listener: " + e);
             }
-        } catch (IOException e) {
-            System.err.println("Error loading clinicians: " + e.getMessage());
         }
     }
 
-    public void loadFacilities(String filePath) {
-        if (!fileExists(filePath, "facilities")) return;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line = br.readLine(); // header
-            while ((line = br.readLine()) != null && !line.trim().isEmpty()) {
-                String[] fields = parseCSVLine(line);
-
-                // facility_id,facility_name,facility_type,address,postcode,phone_number,email,opening_hours,manager_name,capacity,specialities_offered
-                if (fields.length >= 11) {
-                    Facility facility = new Facility(
-                            fields[0],  // facility_id
-                            fields[1],  // facility_name
-                            fields[2],  // facility_type
-                            fields[3],  // address
-                            fields[4],  // postcode
-                            fields[5],  // phone_number
-                            fields[6],  // email
-                            fields[7],  // opening_hours
-                            fields[8],  // manager_name
-                            fields[10], // specialities_offered -> services
-                            fields[9]   // capacity
-                    );
-                    facilities.add(facility);
-                }
+    private SnapshotStore.Contents readSnapshot(String dataDirectory) {
+        long start = System.nanoTime();
+        try {
+            SnapshotStore.Contents snapshot = SnapshotStore.load(dataDirectory);
+            if (snapshot != null) {
+                loadTimings.put("snapshot", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
             }
+            return snapshot;
         } catch (IOException e) {
-            System.err.println("Error loading facilities: " + e.getMessage());
+            System.err.println("Error reading snapshot: " + e.getMessage());
+            return null;
         }
     }
 
-    public void loadAppointments(String filePath) {
-        if (!fileExists(filePath, "appointments")) return;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line = br.readLine(); // header
-            while ((line = br.readLine()) != null && !line.trim().isEmpty()) {
-                String[] fields = parseCSVLine(line);
-
-                // appointment_id,patient_id,clinician_id,facility_id,appointment_date,appointment_time,duration_minutes,appointment_type,status,reason_for_visit,notes,created_date,last_modified
-                if (fields.length >= 13) {
-                    Appointment appointment = new Appointment(
-                            fields[0],
-                            fields[1],
-                            fields[2],
-                            fields[3],
-                            fields[4],
-                            fields[5],
-                            fields[6],
-                            fields[7],
-                            fields[8],
-                            fields[9],
-                            fields[10],
-                            fields[11],
-                            fields[12]
-                    );
-                    appointments.add(appointment);
+    private static boolean coversAll(SnapshotStore.Contents snapshot) {
+        if (snapshot == null) return false;
+        for (EntityType type : EntityType.values()) {
+            if (!snapshot.has(type)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Save the rows just loaded as the snapshot, on a background thread. Nothing is saved if
+     * anything was added, updated or deleted since the load (journal replay included), and a
+     * snapshot that raced with an edit is removed again, so it only ever holds rows that
+     * match the CSV stamps recorded for them.
+     */
+    private void saveSnapshotInBackground(String dataDirectory, Map<EntityType, List<?>> loaded, long loadedVersion) {
+        Map<EntityType, SnapshotStore.Source> stamps = new EnumMap<>(loadedSources);
+        Thread writer = new Thread(() -> {
+            if (changes.get() != loadedVersion) return;
+            try {
+                SnapshotStore.save(dataDirectory, loaded, stamps);
+                if (changes.get() != loadedVersion) {
+                    Files.deleteIfExists(SnapshotStore.fileFor(dataDirectory).toPath());
                 }
+            } catch (IOException e) {
+                System.err.println("Error saving snapshot: " + e.getMessage());
             }
+        }, "snapshot-writer");
+        writer.start();
+    }
+
+    /**
+     * Turn the binary warm-start snapshot on (default) or off
+     */
+    public void setSnapshotsEnabled(boolean snapshotsEnabled) {
+        this.snapshotsEnabled = snapshotsEnabled;
+    }
+
+    public boolean isSnapshotsEnabled() {
+        return snapshotsEnabled;
+    }
+
+    /**
+     * Replay the write-ahead journal in dataDirectory over the loaded data and keep it
+     * open so that every later add/delete is appended to it. Called by loadAllData.
+     */
+    public synchronized void openJournal(String dataDirectory) {
+        closeJournal();
+        JournalReplayer replayer = new JournalReplayer();
+        try {
+            journal = Journal.open(dataDirectory, journalSyncBatchSize, journalSyncIntervalMillis, replayer);
         } catch (IOException e) {
-            System.err.println("Error loading appointments: " + e.getMessage());
+            System.err.println("Error opening journal: " + e.getMessage());
+            return;
+        } finally {
+            for (EntityType type : replayer.touched) {
+                fireReloaded(type);
+            }
         }
+
+        registerShutdownHook();
     }
 
-    public void loadPrescriptions(String filePath) {
-        if (!fileExists(filePath, "prescriptions")) return;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line = br.readLine(); // header
-            while ((line = br.readLine()) != null && !line.trim().isEmpty()) {
-                String[] fields = parseCSVLine(line);
-
-                // prescription_id,patient_id,clinician_id,appointment_id,prescription_date,medication_name,
-                // dosage,frequency,duration_days,quantity,instructions,pharmacy_name,status,issue_date,collection_date
-                if (fields.length >= 15) {
-                    Prescription prescription = new Prescription(
-                            fields[0],   // prescription_id
-                            fields[1],   // patient_id
-                            fields[2],   // clinician_id
-                            fields[3],   // appointment_id
-                            fields[5],   // medication_name
-                            fields[6],   // dosage
-                            fields[7],   // frequency
-                            fields[8],   // duration_days
-                            fields[9],   // quantity
-                            fields[11],  // pharmacy_name
-                            fields[4],   // prescription_date
-                            fields[13],  // issue_date
-                            fields[14],  // collection_date
-                            fields[12],  // status -> collectionStatus
-                            fields[10]   // instructions -> notes
-                    );
-                    prescriptions.add(prescription);
-                }
-            }
+    private synchronized void registerShutdownHook() {
+        if (!shutdownHookRegistered) {
+            Runtime.getRuntime().addShutdownHook(new Thread(this::close, "data-close"));
+            shutdownHookRegistered = true;
+        }
+    }
+
+    /**
+     * Write any pending edits to the CSV files, then close the journal.
+     * Runs automatically on JVM shutdown.
+     */
+    public void close() {
+        stopWriteBehind();
+        closeJournal();
+    }
+
+    /**
+     * Sync and close the journal; later mutations are kept in memory only
+     */
+    public synchronized void closeJournal() {
+        if (journal == null) return;
+        try {
+            journal.close();
         } catch (IOException e) {
-            System.err.println("Error loading prescriptions: " + e.getMessage());
+            System.err.println("Error closing journal: " + e.getMessage());
         }
+        journal = null;
     }
 
-    public void loadReferrals(String filePath) {
-        if (!fileExists(filePath, "referrals")) return;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line = br.readLine(); // header
-            while ((line = br.readLine()) != null && !line.trim().isEmpty()) {
-                String[] fields = parseCSVLine(line);
-
-                // referral_id,patient_id,referring_clinician_id,referred_to_clinician_id,
-                // referring_facility_id,referred_to_facility_id,referral_date,urgency_level,
-                // referral_reason,clinical_summary,requested_investigations,status,appointment_id,notes,created_date,last_updated
-                if (fields.length >= 16) {
-                    Referral referral = new Referral(
-                            fields[0],
-                            fields[1],
-                            fields[2],
-                            fields[3],
-                            fields[4],
-                            fields[5],
-                            fields[6],
-                            fields[7],
-                            fields[8],
-                            fields[9],
-                            fields[10],
-                            fields[12],
-                            fields[13],
-                            fields[11],
-                            fields[14],
-                            fields[15]
-                    );
-                    referrals.add(referral);
+    /**
+     * Turn journaling of mutations on (default) or off for the next load
+     */
+    public void setJournalEnabled(boolean journalEnabled) {
+        this.journalEnabled = journalEnabled;
+    }
+
+    public boolean isJournalEnabled() {
+        return journalEnabled;
+    }
+
+    /**
+     * Group-commit settings for the next journal opened: fsync after batchSize records
+     * or intervalMillis, whichever comes first. A batch size of 1 syncs every mutation.
+     */
+    public void setJournalSync(int batchSize, long intervalMillis) {
+        this.journalSyncBatchSize = batchSize;
+        this.journalSyncIntervalMillis = intervalMillis;
+    }
+
+    /**
+     * Start writing edits back to the CSV files in dataDirectory, at most once per
+     * write-behind interval and never on the calling thread. Called by loadAllData.
+     */
+    public void startWriteBehind(String dataDirectory) {
+        stopWriteBehind();
+        synchronized (this) {
+            this.dataDirectory = dataDirectory;
+            writeBehind = new WriteBehindScheduler(writeBehindIntervalMillis, this::flush);
+        }
+        registerShutdownHook();
+    }
+
+    /**
+     * Flush pending edits and stop the write-behind scheduler; later edits stay in memory and the journal
+     */
+    public void stopWriteBehind() {
+        WriteBehindScheduler w;
+        synchronized (this) {
+            w = writeBehind;
+        }
+        if (w == null) return;
+        w.shutdown();
+        synchronized (this) {
+            if (writeBehind == w) writeBehind = null;
+        }
+    }
+
+    /**
+     * Write every entity type edited since the last flush back to its CSV file now.
+     * The row snapshots are taken and the journal is rotated under the DataManager lock, so
+     * the files are written without blocking further edits. The journal checkpoint is
+     * only dropped once every file has been written.
+     */
+    public void flush() {
+        synchronized (flushLock) {
+            String directory;
+            Map<EntityType, List<?>> copies = new EnumMap<>(EntityType.class);
+            Journal rotated = null;
+            WriteBehindScheduler w;
+
+            synchronized (this) {
+                w = writeBehind;
+                directory = dataDirectory;
+                if (w == null) return;
+                for (EntityType type : w.takeDirty()) {
+                    copies.put(type, store(CsvSchema.of(type)).rows());
+                }
+                if (copies.isEmpty()) return;
+                if (journal != null) {
+                    try {
+                        journal.rotate();
+                        rotated = journal;
+                    } catch (IOException e) {
+                        System.err.println("Error rotating journal: " + e.getMessage());
+                    }
                 }
             }
+
+            boolean allWritten = true;
+            for (Map.Entry<EntityType, List<?>> entry : copies.entrySet()) {
+                CsvSchema<?> schema = CsvSchema.of(entry.getKey());
+                if (!writeCopy(directory + File.separator + schema.type().getFileName(), schema, entry.getValue())) {
+                    allWritten = false;
+                    w.markDirty(entry.getKey());
+                }
+            }
+
+            if (allWritten && rotated != null) {
+                try {
+                    rotated.discardCheckpoint();
+                } catch (IOException e) {
+                    System.err.println("Error discarding journal checkpoint: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Turn writing edits back to the CSV files on (default) or off for the next load
+     */
+    public void setWriteBehindEnabled(boolean writeBehindEnabled) {
+        this.writeBehindEnabled = writeBehindEnabled;
+    }
+
+    public boolean isWriteBehindEnabled() {
+        return writeBehindEnabled;
+    }
+
+    /**
+     * Minimum time between two CSV flushes for the next write-behind scheduler started
+     */
+    public void setWriteBehindInterval(long intervalMillis) {
+        this.writeBehindIntervalMillis = intervalMillis;
+    }
+
+    /**
+     * Register a listener for row-level change events (see DataChangeEvent)
+     */
+    public void addDataChangeListener(DataChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeDataChangeListener(DataChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    private void fire(EntityType type, DataChangeEvent.Kind kind, String id, int row) {
+        if (listeners.isEmpty()) return;
+        DataChangeEvent event = new DataChangeEvent(type, kind, id, row);
+        for (DataChangeListener listener : listeners) {
+            try {
+                listener.dataChanged(event);
+            } catch (RuntimeException e) {
+                System.err.println("Error in data change listener: " + e);
+            }
+        }
+    }
+
+    private void fireReloaded(EntityType type) {
+        fire(type, DataChangeEvent.Kind.RELOADED, null, -1);
+    }
+
+    /**
+     * Add, journal, schedule the CSV write-behind and notify listeners.
+     * Callers hold the DataManager lock.
+     */
+    private <T> void add(CsvSchema<T> schema, T row) {
+        EntityStore<T> target = store(schema);
+        target.add(row);
+        changes.incrementAndGet();
+        Journal j = journal;
+        if (j != null) j.logAdd(schema.type(), schema.values(row));
+        markDirty(schema.type());
+        fire(schema.type(), DataChangeEvent.Kind.ADDED, target.id(row), target.size() - 1);
+    }
+
+    /**
+     * Replace the row with the same ID in place; false if there is none
+     */
+    private <T> boolean update(CsvSchema<T> schema, T row) {
+        EntityStore<T> target = store(schema);
+        int position = target.replace(row);
+        if (position < 0) return false;
+        changes.incrementAndGet();
+
+        String id = target.id(row);
+        Journal j = journal;
+        if (j != null) j.logUpdate(schema.type(), id, schema.values(row));
+        markDirty(schema.type());
+        fire(schema.type(), DataChangeEvent.Kind.UPDATED, id, position);
+        return true;
+    }
+
+    private boolean delete(CsvSchema<?> schema, String id) {
+        EntityStore<?> target = store(schema);
+        int position = target.indexOf(id);
+        if (!target.delete(id)) return false;
+        changes.incrementAndGet();
+
+        Journal j = journal;
+        if (j != null) j.logDelete(schema.type(), id);
+        markDirty(schema.type());
+        fire(schema.type(), DataChangeEvent.Kind.DELETED, id, position);
+        return true;
+    }
+
+    private void markDirty(EntityType type) {
+        WriteBehindScheduler w = writeBehind;
+        if (w != null) w.markDirty(type);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> EntityStore<T> store(CsvSchema<T> schema) {
+        switch (schema.type()) {
+            case PATIENT: return (EntityStore<T>) patients;
+            case CLINICIAN: return (EntityStore<T>) clinicians;
+            case FACILITY: return (EntityStore<T>) facilities;
+            case APPOINTMENT: return (EntityStore<T>) appointments;
+            case PRESCRIPTION: return (EntityStore<T>) prescriptions;
+            case REFERRAL: return (EntityStore<T>) referrals;
+            case STAFF: return (EntityStore<T>) staff;
+            default: throw new IllegalArgumentException("Unknown entity type: " + schema.type());
+        }
+    }
+
+    /**
+     * Applies journal records straight to the stores, without journaling them again.
+     * Adds and updates are applied as upserts (in place when the ID already exists) so
+     * a record that already reached the base data is not duplicated. Replayed types are
+     * scheduled for a CSV flush.
+     */
+    private class JournalReplayer implements Journal.Replayer {
+        private final EnumSet<EntityType> touched = EnumSet.noneOf(EntityType.class);
+
+        @Override
+        public void add(EntityType type, String[] values) {
+            upsert(CsvSchema.of(type), null, values);
+        }
+
+        @Override
+        public void delete(EntityType type, String id) {
+            store(CsvSchema.of(type)).delete(id);
+            changes.incrementAndGet();
+            touched.add(type);
+            markDirty(type);
+        }
+
+        @Override
+        public void update(EntityType type, String id, String[] values) {
+            upsert(CsvSchema.of(type), id, values);
+        }
+
+        private <T> void upsert(CsvSchema<T> schema, String id, String[] values) {
+            EntityStore<T> target = store(schema);
+            T row = schema.fromValues(values);
+            if (id != null && !id.equals(target.id(row))) target.delete(id);
+            if (target.replace(row) < 0) target.add(row);
+            changes.incrementAndGet();
+            touched.add(schema.type());
+            markDirty(schema.type());
+        }
+    }
+
+    /**
+     * Switch between the concurrent loader (default) and the single-threaded fallback
+     */
+    public void setConcurrentLoading(boolean concurrentLoading) {
+        this.concurrentLoading = concurrentLoading;
+    }
+
+    public boolean isConcurrentLoading() {
+        return concurrentLoading;
+    }
+
+    /**
+     * Per-file parse time in milliseconds from the most recent load (time to take the rows
+     * from the snapshot for files that were not parsed), keyed by file label, plus the time
+     * to read the snapshot itself, if there was one, under "snapshot"
+     */
+    public Map<String, Long> getLastLoadTimings() {
+        return new LinkedHashMap<>(loadTimings);
+    }
+
+    /**
+     * Column values the most recent loadAllData shared through a ValueDictionary instead of
+     * keeping a copy per row
+     */
+    public long getLastLoadSharedValues() {
+        return loadSharedValues;
+    }
+
+    /**
+     * Approximate bytes of string data the most recent loadAllData saved by sharing values
+     */
+    public long getLastLoadSavedBytes() {
+        return loadSavedBytes;
+    }
+
+    private boolean fileExists(String filePath, String label) {
+        File f = new File(filePath);
+        if (!f.exists()) {
+            System.err.println("Missing " + label + " file: " + filePath);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Read every data row of a CSV file into a new list. Rows with fewer columns
+     * than the schema's header are skipped. Large files go through the memory-mapped chunked
+     * reader, small ones are streamed. Safe to call from worker threads: it only
+     * touches the list it returns.
+     */
+    private <T> List<T> readCsv(String filePath, CsvSchema<T> schema) {
+        return readCsv(filePath, schema, null);
+    }
+
+    /**
+     * As readCsv(filePath, schema), also passing the CRC32 of the file's bytes to checksum
+     * (if not null) once they have all been read without error
+     */
+    private <T> List<T> readCsv(String filePath, CsvSchema<T> schema, LongConsumer checksum) {
+        String label = schema.type().getLabel();
+        int minFields = schema.columnCount();
+        Function<CsvRow, T> mapper = schema::read;
+        List<T> rows = new ArrayList<>();
+        if (!fileExists(filePath, label)) return rows;
+
+        long start = System.nanoTime();
+        try {
+            if (new File(filePath).length() >= MAPPED_READ_THRESHOLD) {
+                rows = MappedCsvReader.read(Paths.get(filePath), minFields, mapper,
+                        MappedCsvReader.DEFAULT_CHUNK_SIZE, checksum);
+            } else {
+                readStreaming(filePath, minFields, mapper, rows, checksum);
+            }
         } catch (IOException e) {
-            System.err.println("Error loading referrals: " + e.getMessage());
+            System.err.println("Error loading " + label + ": " + e.getMessage());
         }
+
+        loadTimings.put(label, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)); // see getLastLoadTimings
+        return rows;
     }
 
-    public void loadStaff(String filePath) {
-        if (!fileExists(filePath, "staff")) return;
-
-        try (BufferedReader br = new BufferedReader(new FileReader(filePath))) {
-            String line = br.readLine(); // header
-            while ((line = br.readLine()) != null && !line.trim().isEmpty()) {
-                String[] fields = parseCSVLine(line);
-
-                // staff_id,first_name,last_name,role,department,facility_id,phone_number,email,employment_status,start_date,line_manager,access_level
-                if (fields.length >= 12) {
-                    Staff staffMember = new Staff(
-                            fields[0],
-                            fields[1],
-                            fields[2],
-                            fields[3],
-                            fields[4],
-                            fields[5],
-                            fields[7],  // email
-                            fields[6],  // phone
-                            fields[8],
-                            fields[9],
-                            fields[10],
-                            fields[11]
-                    );
-                    staff.add(staffMember);
+    /**
+     * Read a file too small to be worth mapping. Decoded as UTF-8 like the mapped reader and
+     * CsvWriter, whatever the platform charset, with malformed bytes replaced as there.
+     * The bytes are checksummed on their way to the decoder.
+     */
+    private <T> void readStreaming(String filePath, int minFields, Function<CsvRow, T> mapper, List<T> rows,
+                                   LongConsumer checksum) throws IOException {
+        CheckedInputStream in = new CheckedInputStream(new FileInputStream(filePath), new CRC32());
+        try (CsvReader csv = new CsvReader(new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)))) {
+            csv.next(); // header
+            while (csv.next() && !csv.row().isBlank()) {
+                CsvTokenizer row = csv.row();
+                if (row.fieldCount() >= minFields) {
+                    rows.add(mapper.apply(row));
+                }
+            }
+            if (checksum != null) {
+                byte[] rest = new byte[8192]; // anything after a blank line
+                while (in.read(rest) >= 0) {
+                    // checksummed by the stream
                 }
+                checksum.accept(in.getChecksum().getValue());
             }
+        }
+    }
+
+    public void loadPatients(String filePath) {
+        patients.addAll(readCsv(filePath, CsvSchema.PATIENTS));
+        fireReloaded(EntityType.PATIENT);
+    }
+
+    public void loadClinicians(String filePath) {
+        clinicians.addAll(readCsv(filePath, CsvSchema.CLINICIANS));
+        fireReloaded(EntityType.CLINICIAN);
+    }
+
+    public void loadFacilities(String filePath) {
+        facilities.addAll(readCsv(filePath, CsvSchema.FACILITIES));
+        fireReloaded(EntityType.FACILITY);
+    }
+
+    public void loadAppointments(String filePath) {
+        appointments.addAll(readCsv(filePath, CsvSchema.APPOINTMENTS));
+        fireReloaded(EntityType.APPOINTMENT);
+    }
+
+    public void loadPrescriptions(String filePath) {
+        prescriptions.addAll(readCsv(filePath, CsvSchema.PRESCRIPTIONS));
+        fireReloaded(EntityType.PRESCRIPTION);
+    }
+
+    public void loadReferrals(String filePath) {
+        referrals.addAll(readCsv(filePath, CsvSchema.REFERRALS));
+        fireReloaded(EntityType.REFERRAL);
+    }
+
+    public void loadStaff(String filePath) {
+        staff.addAll(readCsv(filePath, CsvSchema.STAFF));
+        fireReloaded(EntityType.STAFF);
+    }
+
+    /**
+     * Write all seven entity lists to their CSV files in dataDirectory now, on the calling thread
+     */
+    public void saveAllData(String dataDirectory) {
+        for (EntityType type : EntityType.values()) {
+            save(dataDirectory + File.separator + type.getFileName(), CsvSchema.of(type));
+        }
+    }
+
+    public void savePatients(String filePath) { save(filePath, CsvSchema.PATIENTS); }
+    public void saveClinicians(String filePath) { save(filePath, CsvSchema.CLINICIANS); }
+    public void saveFacilities(String filePath) { save(filePath, CsvSchema.FACILITIES); }
+    public void saveAppointments(String filePath) { save(filePath, CsvSchema.APPOINTMENTS); }
+    public void savePrescriptions(String filePath) { save(filePath, CsvSchema.PRESCRIPTIONS); }
+    public void saveReferrals(String filePath) { save(filePath, CsvSchema.REFERRALS); }
+    public void saveStaff(String filePath) { save(filePath, CsvSchema.STAFF); }
+
+    private <T> void save(String filePath, CsvSchema<T> schema) {
+        writeCsv(filePath, schema, store(schema).rows());
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> boolean writeCopy(String filePath, CsvSchema<T> schema, List<?> rows) {
+        return writeCsv(filePath, schema, (List<T>) rows);
+    }
+
+    /**
+     * Stream rows to filePath in header column order through a temp file and an atomic rename
+     */
+    private <T> boolean writeCsv(String filePath, CsvSchema<T> schema, List<T> rows) {
+        try {
+            CsvWriter.write(new File(filePath), schema, rows);
+            return true;
         } catch (IOException e) {
-            System.err.println("Error loading staff: " + e.getMessage());
+            System.err.println("Error saving " + schema.type().getLabel() + ": " + e.getMessage());
+            return false;
         }
     }
 
@@ -321,43 +860,157 @@ public class DataManager {
         return br.readLine();
     }
 
-    // Getters
-    public List<Patient> getPatients() { return patients; }
-    public List<Clinician> getClinicians() { return clinicians; }
-    public List<Facility> getFacilities() { return facilities; }
-    public List<Appointment> getAppointments() { return appointments; }
-    public List<Prescription> getPrescriptions() { return prescriptions; }
-    public List<Referral> getReferrals() { return referrals; }
-    public List<Staff> getStaff() { return staff; }
-
-    // Add methods
-    public void addPatient(Patient patient) { patients.add(patient); }
-    public void addClinician(Clinician clinician) { clinicians.add(clinician); }
-    public void addFacility(Facility facility) { facilities.add(facility); }
-    public void addAppointment(Appointment appointment) { appointments.add(appointment); }
-    public void addPrescription(Prescription prescription) { prescriptions.add(prescription); }
-    public void addReferral(Referral referral) { referrals.add(referral); }
-    public void addStaff(Staff staffMember) { staff.add(staffMember); }
-
-    // Delete methods
-    public boolean deletePatient(String patientID) { return patients.removeIf(p -> p.getPatientID().equals(patientID)); }
-    public boolean deleteClinician(String clinicianID) { return clinicians.removeIf(c -> c.getClinicianID().equals(clinicianID)); }
-    public boolean deleteFacility(String facilityID) { return facilities.removeIf(f -> f.getFacilityID().equals(facilityID)); }
-    public boolean deleteAppointment(String appointmentID) { return appointments.removeIf(a -> a.getAppointmentID().equals(appointmentID)); }
-    public boolean deletePrescription(String prescriptionID) { return prescriptions.removeIf(p -> p.getPrescriptionID().equals(prescriptionID)); }
-    public boolean deleteReferral(String referralID) { return referrals.removeIf(r -> r.getReferralID().equals(referralID)); }
-    public boolean deleteStaff(String staffID) { return staff.removeIf(s -> s.getStaffID().equals(staffID)); }
-
-    // Find methods
-    public Patient findPatient(String patientID) {
-        return patients.stream().filter(p -> p.getPatientID().equals(patientID)).findFirst().orElse(null);
-    }
-
-    public Clinician findClinician(String clinicianID) {
-        return clinicians.stream().filter(c -> c.getClinicianID().equals(clinicianID)).findFirst().orElse(null);
-    }
-
-    public Facility findFacility(String facilityID) {
-        return facilities.stream().filter(f -> f.getFacilityID().equals(facilityID)).findFirst().orElse(null);
+    // Getters (immutable snapshots in load/insertion order; safe to iterate while other threads edit)
+    public List<Patient> getPatients() { return patients.rows(); }
+    public List<Clinician> getClinicians() { return clinicians.rows(); }
+    public List<Facility> getFacilities() { return facilities.rows(); }
+    public List<Appointment> getAppointments() { return appointments.rows(); }
+    public List<Prescription> getPrescriptions() { return prescriptions.rows(); }
+    public List<Referral> getReferrals() { return referrals.rows(); }
+    public List<Staff> getStaff() { return staff.rows(); }
+
+    // Add methods (journaled when a journal is open, written back to CSV by the write-behind, one change event each)
+    public synchronized void addPatient(Patient patient) { add(CsvSchema.PATIENTS, patient); }
+    public synchronized void addClinician(Clinician clinician) { add(CsvSchema.CLINICIANS, clinician); }
+    public synchronized void addFacility(Facility facility) { add(CsvSchema.FACILITIES, facility); }
+    public synchronized void addAppointment(Appointment appointment) { add(CsvSchema.APPOINTMENTS, appointment); }
+    public synchronized void addPrescription(Prescription prescription) { add(CsvSchema.PRESCRIPTIONS, prescription); }
+    public synchronized void addReferral(Referral referral) { add(CsvSchema.REFERRALS, referral); }
+    public synchronized void addStaff(Staff staffMember) { add(CsvSchema.STAFF, staffMember); }
+
+    // Delete methods (primary-key index lookup, journaled and written back like adds)
+    public synchronized boolean deletePatient(String patientID) { return delete(CsvSchema.PATIENTS, patientID); }
+    public synchronized boolean deleteClinician(String clinicianID) { return delete(CsvSchema.CLINICIANS, clinicianID); }
+    public synchronized boolean deleteFacility(String facilityID) { return delete(CsvSchema.FACILITIES, facilityID); }
+    public synchronized boolean deleteAppointment(String appointmentID) { return delete(CsvSchema.APPOINTMENTS, appointmentID); }
+    public synchronized boolean deletePrescription(String prescriptionID) { return delete(CsvSchema.PRESCRIPTIONS, prescriptionID); }
+    public synchronized boolean deleteReferral(String referralID) { return delete(CsvSchema.REFERRALS, referralID); }
+    public synchronized boolean deleteStaff(String staffID) { return delete(CsvSchema.STAFF, staffID); }
+
+    // Update methods (replace the row with the same ID in place; false if there is none)
+    public synchronized boolean updatePatient(Patient patient) { return update(CsvSchema.PATIENTS, patient); }
+    public synchronized boolean updateClinician(Clinician clinician) { return update(CsvSchema.CLINICIANS, clinician); }
+    public synchronized boolean updateFacility(Facility facility) { return update(CsvSchema.FACILITIES, facility); }
+    public synchronized boolean updateAppointment(Appointment appointment) { return update(CsvSchema.APPOINTMENTS, appointment); }
+    public synchronized boolean updatePrescription(Prescription prescription) { return update(CsvSchema.PRESCRIPTIONS, prescription); }
+    public synchronized boolean updateReferral(Referral referral) { return update(CsvSchema.REFERRALS, referral); }
+    public synchronized boolean updateStaff(Staff staffMember) { return update(CsvSchema.STAFF, staffMember); }
+
+    // Find methods (primary-key index lookup)
+    public Patient findPatient(String patientID) { return patients.find(patientID); }
+    public Clinician findClinician(String clinicianID) { return clinicians.find(clinicianID); }
+    public Facility findFacility(String facilityID) { return facilities.find(facilityID); }
+    public Appointment findAppointment(String appointmentID) { return appointments.find(appointmentID); }
+    public Prescription findPrescription(String prescriptionID) { return prescriptions.find(prescriptionID); }
+    public Referral findReferral(String referralID) { return referrals.find(referralID); }
+    public Staff findStaff(String staffID) { return staff.find(staffID); }
+
+    // Foreign-key queries (secondary index lookups, read-only copies in insertion order)
+    public List<Appointment> getAppointmentsForPatient(String patientID) { return appointmentsByPatient.get(patientID); }
+    public List<Appointment> getAppointmentsForClinician(String clinicianID) { return appointmentsByClinician.get(clinicianID); }
+    public List<Appointment> getAppointmentsForFacility(String facilityID) { return appointmentsByFacility.get(facilityID); }
+
+    /**
+     * Appointments dated from..to inclusive, in list order. Compares the stored epoch days,
+     * so no date text is parsed; appointments without an ISO date are left out.
+     */
+    public List<Appointment> getAppointmentsBetween(LocalDate from, LocalDate to) {
+        int first = (int) from.toEpochDay();
+        int last = (int) to.toEpochDay();
+        List<Appointment> result = new ArrayList<>();
+        for (Appointment appointment : appointments.rows()) {
+            int day = appointment.getDateDay();
+            if (day != CompactFields.NO_DAY && day >= first && day <= last) {
+                result.add(appointment);
+            }
+        }
+        return result;
+    }
+
+    public List<Prescription> getPrescriptionsForPatient(String patientID) { return prescriptionsByPatient.get(patientID); }
+    public List<Prescription> getPrescriptionsForClinician(String clinicianID) { return prescriptionsByClinician.get(clinicianID); }
+    public List<Prescription> getPrescriptionsForAppointment(String appointmentID) { return prescriptionsByAppointment.get(appointmentID); }
+
+    public List<Referral> getReferralsForPatient(String patientID) { return referralsByPatient.get(patientID); }
+    public List<Referral> getReferralsFromClinician(String clinicianID) { return referralsByReferringClinician.get(clinicianID); }
+    public List<Referral> getReferralsToClinician(String clinicianID) { return referralsByReceivingClinician.get(clinicianID); }
+    public List<Referral> getReferralsFromFacility(String facilityID) { return referralsByReferringFacility.get(facilityID); }
+    public List<Referral> getReferralsToFacility(String facilityID) { return referralsByReceivingFacility.get(facilityID); }
+
+    /**
+     * Column-wise view of the appointments for scans such as counts per status per day.
+     * Built in one pass over the current snapshot the first time it is asked for after a change.
+     */
+    public AppointmentColumns getAppointmentColumns() {
+        List<Appointment> rows = appointments.rows();
+        AppointmentColumns columns = appointmentColumns;
+        if (columns == null || !columns.isOf(rows)) {
+            columns = new AppointmentColumns(rows);
+            appointmentColumns = columns;
+        }
+        return columns;
+    }
+
+    /**
+     * Column-wise view of the prescriptions (see getAppointmentColumns)
+     */
+    public PrescriptionColumns getPrescriptionColumns() {
+        List<Prescription> rows = prescriptions.rows();
+        PrescriptionColumns columns = prescriptionColumns;
+        if (columns == null || !columns.isOf(rows)) {
+            columns = new PrescriptionColumns(rows);
+            prescriptionColumns = columns;
+        }
+        return columns;
+    }
+
+    // Search bar queries: every word of the query must start a word of one of the indexed
+    // fields (see the *Search indexes above). Results are in list order; a blank query returns everything.
+    public List<Patient> searchPatients(String query) { return patients.search(patientSearch, query); }
+    public List<Clinician> searchClinicians(String query) { return clinicians.search(clinicianSearch, query); }
+    public List<Facility> searchFacilities(String query) { return facilities.search(facilitySearch, query); }
+    public List<Appointment> searchAppointments(String query) { return appointments.search(appointmentSearch, query); }
+    public List<Prescription> searchPrescriptions(String query) { return prescriptions.search(prescriptionSearch, query); }
+    public List<Referral> searchReferrals(String query) { return referrals.search(referralSearch, query); }
+    public List<Staff> searchStaff(String query) { return staff.search(staffSearch, query); }
+
+    /**
+     * Number of rows of an entity type
+     */
+    public int getRowCount(EntityType type) {
+        return store(CsvSchema.of(type)).size();
+    }
+
+    /**
+     * Row of an entity type at position, in the order of the getters, or null if there is no
+     * such position (any more). Copies nothing, unlike the getters after a change, and only
+     * takes a lock if a write overlaps it. T must match the entity type.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T getRowAt(EntityType type, int position) {
+        return (T) store(CsvSchema.of(type)).get(position);
+    }
+
+    /**
+     * Up to limit rows of an entity type in sortKey order, starting after cursor (null for the
+     * first page). Pass the returned page's getNextCursor() to read on. Walks the sorted index,
+     * so no list is copied or sorted. T must match the entity type.
+     *
+     * @throws IllegalArgumentException if sortKey is not indexed for the type (see getSortKeys)
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Page<T> page(EntityType type, String sortKey, boolean descending, String cursor, int limit) {
+        SortedIndex<?> index = sortedIndexes.getOrDefault(type, Map.of()).get(sortKey);
+        if (index == null) {
+            throw new IllegalArgumentException("No sort key " + sortKey + " for " + type.getLabel());
+        }
+        return (Page<T>) index.page(descending, cursor, Math.max(1, limit));
+    }
+
+    /**
+     * Sort key names page() accepts for an entity type (empty if the type has none)
+     */
+    public List<String> getSortKeys(EntityType type) {
+        return List.copyOf(sortedIndexes.getOrDefault(type, Map.of()).keySet());
     }
 }
@@ -0,0 +1,387 @@
+package com.healthcare.data;
+
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * Rows of one entity type, with a primary-key index from ID to row position
+ * and any number of multi-valued secondary indexes (for example appointments by patient ID)
+ * word indexes for the search bars and sorted indexes for paged tables.
+ *
+ * find() is a single hash lookup, on a packed long key for IDs like P001 (see IdSlots). replace() swaps a row in place at the position of its ID.
+ * Rows stay in insertion order. delete() only empties the row's slot, and LiveSlots turns
+ * slots into positions among the remaining rows; the gaps are closed in one pass once they
+ * make up a quarter of the slots, so a delete costs O(log n) amortized rather than a shift
+ * of every later row and its index entry.
+ * If the same ID was added more than once, find() returns the first row and delete()
+ * removes all of them, as the old list scans did; only such IDs cost a scan of the rows.
+ *
+ * Thread-safe: writers take a StampedLock write lock; find() and get(position) are
+ * optimistic reads that only fall back to the read lock if a write overlapped them, so the
+ * Swing tables can read just the rows on screen. rows() hands out an immutable snapshot that
+ * is copied once after each change and then shared, so readers iterating it never hold a
+ * lock and never block writers.
+ */
+final class EntityStore<T> {
+    private final Function<T, String> idOf;
+    private final ArrayList<T> rows = new ArrayList<>(); // null where a row was deleted
+    private final LiveSlots live = new LiveSlots();
+    private final IdSlots slots = new IdSlots();
+    private final Set<String> duplicated = new HashSet<>(); // IDs added again while already present
+    private final List<RowIndex<T>> indexes = new ArrayList<>();
+    private final StampedLock lock = new StampedLock();
+    private volatile List<T> snapshot = Collections.emptyList();
+
+    private final Collection<T> liveRows = new AbstractCollection<T>() { // rows without the gaps
+        @Override
+        public Iterator<T> iterator() {
+            return new Iterator<T>() {
+                private int next = skipGaps(0);
+
+                @Override
+                public boolean hasNext() {
+                    return next < rows.size();
+                }
+
+                @Override
+                public T next() {
+                    if (next >= rows.size()) throw new NoSuchElementException();
+                    T row = rows.get(next);
+                    next = skipGaps(next + 1);
+                    return row;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return live.live();
+        }
+    };
+
+    EntityStore(Function<T, String> idOf) {
+        this.idOf = idOf;
+    }
+
+    /**
+     * Register a secondary index on a (usually foreign-key) field. Rows already in the
+     * store are indexed straight away.
+     */
+    SecondaryIndex<T> addIndex(Function<T, String> key) {
+        return register(new SecondaryIndex<>(key, lock));
+    }
+
+    /**
+     * Register a word index over the indexed text fields, queried through search(). The
+     * scanned fields are searched too but kept out of the index (see SearchIndex).
+     */
+    SearchIndex<T> addSearchIndex(List<Function<T, String>> indexed, List<Function<T, String>> scanned) {
+        return register(new SearchIndex<>(List.copyOf(indexed), List.copyOf(scanned)));
+    }
+
+    /**
+     * Register an ordered index on key for paging through page()
+     */
+    SortedIndex<T> addSortedIndex(Function<T, String> key) {
+        return register(new SortedIndex<>(key, idOf, lock));
+    }
+
+    private int skipGaps(int slot) {
+        while (slot < rows.size() && rows.get(slot) == null) slot++;
+        return slot;
+    }
+
+    private <I extends RowIndex<T>> I register(I index) {
+        long stamp = lock.writeLock();
+        try {
+            for (T row : liveRows) {
+                index.add(row);
+            }
+            indexes.add(index);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+        return index;
+    }
+
+    void add(T row) {
+        long stamp = lock.writeLock();
+        try {
+            append(row);
+            snapshot = null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    void addAll(Collection<? extends T> newRows) {
+        long stamp = lock.writeLock();
+        try {
+            rows.ensureCapacity(rows.size() + newRows.size());
+            for (T row : newRows) {
+                append(row);
+            }
+            snapshot = null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Drop every row and index entry, keeping the registered indexes
+     */
+    void clear() {
+        long stamp = lock.writeLock();
+        try {
+            rows.clear();
+            rows.trimToSize();
+            live.reset(0);
+            slots.clear();
+            duplicated.clear();
+            for (RowIndex<T> index : indexes) {
+                index.clear();
+            }
+            snapshot = null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private void append(T row) {
+        rows.add(row);
+        live.append();
+        String id = idOf.apply(row);
+        if (id != null && !slots.putIfAbsent(id, rows.size() - 1)) {
+            duplicated.add(id);
+        }
+        for (RowIndex<T> index : indexes) {
+            index.add(row);
+        }
+    }
+
+    /**
+     * Rows matching query in index, in store order. A blank query returns every row.
+     */
+    List<T> search(SearchIndex<T> index, String query) {
+        if (SearchIndex.split(query).isEmpty()) return rows();
+
+        long stamp = lock.readLock();
+        try {
+            List<T> matches = new ArrayList<>(index.match(query, liveRows));
+            if (matches.size() > 1) {
+                matches.sort(Comparator.comparingInt(this::slotOf));
+            }
+            return Collections.unmodifiableList(matches);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private int slotOf(T row) {
+        String id = idOf.apply(row);
+        int slot = id == null ? IdSlots.MISSING : slots.get(id);
+        return slot == IdSlots.MISSING ? Integer.MAX_VALUE : slot;
+    }
+
+    String id(T row) {
+        return idOf.apply(row);
+    }
+
+    T find(String id) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T row = lookup(id);
+                if (lock.validate(stamp)) return row;
+            } catch (RuntimeException e) {
+                // torn read of a map or list being resized; retry under the read lock
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return lookup(id);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private T lookup(String id) {
+        int slot = slots.get(id);
+        return slot == IdSlots.MISSING ? null : rows.get(slot);
+    }
+
+    /**
+     * Position of the row with this ID, or -1
+     */
+    int indexOf(String id) {
+        long stamp = lock.readLock();
+        try {
+            int slot = slots.get(id);
+            return slot == IdSlots.MISSING ? -1 : live.positionOf(slot);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Put row in place of the stored row with the same ID, keeping its position.
+     * Returns that position, or -1 (and changes nothing) if no row has the ID.
+     */
+    int replace(T row) {
+        String id = idOf.apply(row);
+        if (id == null) return -1;
+
+        long stamp = lock.writeLock();
+        try {
+            int slot = slots.get(id);
+            if (slot == IdSlots.MISSING) return -1;
+
+            T old = rows.set(slot, row);
+            for (RowIndex<T> index : indexes) {
+                index.replace(old, row);
+            }
+            snapshot = null;
+            return live.positionOf(slot);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    boolean delete(String id) {
+        long stamp = lock.writeLock();
+        try {
+            boolean deleted = remove(id);
+            if (deleted) snapshot = null;
+            return deleted;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    private boolean remove(String id) {
+        int slot = slots.remove(id);
+        if (slot == IdSlots.MISSING) return false;
+
+        removeAt(slot);
+        if (duplicated.remove(id)) { // later copies of the key
+            for (int i = slot + 1; i < rows.size(); i++) {
+                T row = rows.get(i);
+                if (row != null && id.equals(idOf.apply(row))) removeAt(i);
+            }
+        }
+        if ((rows.size() - live.live()) * 4 > rows.size() && rows.size() >= 64) compact();
+        return true;
+    }
+
+    /**
+     * Empty the slot of a deleted row
+     */
+    private void removeAt(int slot) {
+        unindex(rows.set(slot, null));
+        live.kill(slot);
+    }
+
+    /**
+     * Close the gaps left by deletes, keeping the row order, and renumber the slots
+     */
+    private void compact() {
+        int kept = 0;
+        for (int i = 0; i < rows.size(); i++) {
+            T row = rows.get(i);
+            if (row == null) continue;
+            if (kept != i) {
+                rows.set(kept, row);
+                String id = idOf.apply(row);
+                if (id != null && slots.get(id) == i) { // not a later duplicate
+                    slots.put(id, kept);
+                }
+            }
+            kept++;
+        }
+        rows.subList(kept, rows.size()).clear();
+        live.reset(kept);
+    }
+
+    private void unindex(T row) {
+        for (RowIndex<T> index : indexes) {
+            index.remove(row);
+        }
+    }
+
+    int size() {
+        long stamp = lock.readLock();
+        try {
+            return live.live();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Row at position in store order, or null if there is none. Like find(), an optimistic
+     * read that copies nothing, for tables that read only the rows they show.
+     */
+    T get(int position) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            try {
+                T row = rowAt(position);
+                if (lock.validate(stamp)) return row;
+            } catch (RuntimeException e) {
+                // torn read of a list or tree being resized; retry under the read lock
+            }
+        }
+
+        stamp = lock.readLock();
+        try {
+            return rowAt(position);
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private T rowAt(int position) {
+        if (position < 0 || position >= live.live()) return null;
+        return rows.get(live.slotAt(position));
+    }
+
+    /**
+     * Immutable snapshot of the rows in store order, as of the last change
+     */
+    List<T> rows() {
+        List<T> current = snapshot;
+        if (current != null) return current;
+
+        long stamp = lock.readLock();
+        try {
+            current = snapshot;
+            if (current == null) {
+                current = Collections.unmodifiableList(copyRows());
+                snapshot = current; // writers clear it under the write lock, which we exclude
+            }
+            return current;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private List<T> copyRows() {
+        if (live.live() == rows.size()) return new ArrayList<>(rows);
+        List<T> copy = new ArrayList<>(live.live());
+        for (T row : rows) {
+            if (row != null) copy.add(row);
+        }
+        return copy;
+    }
+}
@@ -0,0 +1,30 @@
+package com.healthcare.data;
+
+/**
+ * The seven entity types held by DataManager, with the CSV file each is loaded from
+ */
+public enum EntityType {
+    PATIENT("patients", "patients.csv"),
+    CLINICIAN("clinicians", "clinicians.csv"),
+    FACILITY("facilities", "facilities.csv"),
+    APPOINTMENT("appointments", "appointments.csv"),
+    PRESCRIPTION("prescriptions", "prescriptions.csv"),
+    REFERRAL("referrals", "referrals.csv"),
+    STAFF("staff", "staff.csv");
+
+    private final String label;
+    private final String fileName;
+
+    EntityType(String label, String fileName) {
+        this.label = label;
+        this.fileName = fileName;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+}
@@ -0,0 +1,54 @@
+package com.healthcare.data;
+
+/**
+ * Packs identifiers of the form letters+digits (P001, RX001, ST012) into a long so the
+ * indexes can hash and compare them as primitives. The prefix is 1-3 upper-case letters,
+ * five bits each; the digit count is kept as well, so "P001" and "P1" stay different keys.
+ * Anything else (lower case, more than 12 digits, punctuation) does not encode and the
+ * caller falls back to the String.
+ */
+final class IdCodec {
+    static final long NO_CODE = -1;
+
+    private static final int MAX_LETTERS = 3;
+    private static final int MAX_DIGITS = 12; // 10^12 < 2^40
+
+    private IdCodec() {
+    }
+
+    /**
+     * Packed form of id, or NO_CODE
+     */
+    static long encode(String id) {
+        if (id == null) return NO_CODE;
+        int length = id.length();
+
+        long letters = 0;
+        int i = 0;
+        while (i < length && i < MAX_LETTERS) {
+            char c = id.charAt(i);
+            if (c < 'A' || c > 'Z') break;
+            letters = (letters << 5) | (c - 'A' + 1);
+            i++;
+        }
+        int digits = length - i;
+        if (i == 0 || digits < 1 || digits > MAX_DIGITS) return NO_CODE;
+
+        long number = 0;
+        for (; i < length; i++) {
+            char c = id.charAt(i);
+            if (c < '0' || c > '9') return NO_CODE;
+            number = number * 10 + (c - '0');
+        }
+        // 15 bits of letters, 4 bits of digit count, 40 bits of number: 59 bits, never negative
+        return (letters << 44) | ((long) (digits - 1) << 40) | number;
+    }
+
+    /**
+     * Spread a packed key over a power-of-two table
+     */
+    static int hash(long key, int mask) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,46 @@
+package com.healthcare.data;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Map keyed by an ID String, stored in a LongObjectMap when IdCodec can pack the ID and in a
+ * HashMap otherwise. Used for the foreign-key buckets of SecondaryIndex.
+ */
+final class IdMap<V> {
+    private final LongObjectMap<V> packed = new LongObjectMap<>();
+    private final Map<String, V> other = new HashMap<>();
+
+    V get(String id) {
+        long code = IdCodec.encode(id);
+        return code != IdCodec.NO_CODE ? packed.get(code) : other.get(id);
+    }
+
+    V computeIfAbsent(String id, Supplier<V> create) {
+        long code = IdCodec.encode(id);
+        if (code == IdCodec.NO_CODE) {
+            return other.computeIfAbsent(id, k -> create.get());
+        }
+        V value = packed.get(code);
+        if (value == null) {
+            value = create.get();
+            packed.put(code, value);
+        }
+        return value;
+    }
+
+    void clear() {
+        packed.clear();
+        other.clear();
+    }
+
+    void remove(String id) {
+        long code = IdCodec.encode(id);
+        if (code != IdCodec.NO_CODE) {
+            packed.remove(code);
+        } else {
+            other.remove(id);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.healthcare.data;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Primary-key index from ID to row position. IDs that IdCodec can pack live in a LongIntMap;
+ * the rest fall back to a HashMap keyed by the String.
+ */
+final class IdSlots {
+    static final int MISSING = LongIntMap.MISSING;
+
+    private final LongIntMap packed = new LongIntMap();
+    private final Map<String, Integer> other = new HashMap<>();
+
+    int get(String id) {
+        long code = IdCodec.encode(id);
+        if (code != IdCodec.NO_CODE) return packed.get(code);
+        Integer slot = other.get(id);
+        return slot == null ? MISSING : slot;
+    }
+
+    void put(String id, int slot) {
+        long code = IdCodec.encode(id);
+        if (code != IdCodec.NO_CODE) {
+            packed.put(code, slot);
+        } else {
+            other.put(id, slot);
+        }
+    }
+
+    /**
+     * Map the ID to slot unless it is already present; returns whether it was added
+     */
+    boolean putIfAbsent(String id, int slot) {
+        long code = IdCodec.encode(id);
+        if (code != IdCodec.NO_CODE) {
+            return packed.putIfAbsent(code, slot) == MISSING;
+        }
+        return other.putIfAbsent(id, slot) == null;
+    }
+
+    void clear() {
+        packed.clear();
+        other.clear();
+    }
+
+    /**
+     * Remove the ID; returns its slot or MISSING
+     */
+    int remove(String id) {
+        long code = IdCodec.encode(id);
+        if (code != IdCodec.NO_CODE) return packed.remove(code);
+        Integer slot = other.remove(id);
+        return slot == null ? MISSING : slot;
+    }
+}
@@ -0,0 +1,315 @@
+package com.healthcare.data;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead journal of DataManager mutations.
+ *
+ * Each record is: int payloadLength, int crc32(payload), payload. The payload is
+ * byte op, byte entityType, then the ID (DELETE, UPDATE) and/or the entity's values in
+ * CSV header order (ADD, UPDATE), every string as int length + UTF-8 bytes.
+ *
+ * Records are written to the file as soon as they are appended; the fsync is batched
+ * (group commit): it happens once syncBatchSize records are pending, or at the latest
+ * syncIntervalMillis after the first pending record. A batch size of 1 syncs every write.
+ * On replay a torn or corrupt tail is cut off at the last good record.
+ *
+ * rotate() moves the records written so far aside into healthcare.journal.checkpoint
+ * while the CSV files are rewritten; once they are safely on disk the checkpoint is
+ * discarded. If the process dies in between, open() replays the checkpoint first.
+ */
+final class Journal implements AutoCloseable {
+    static final String FILE_NAME = "healthcare.journal";
+    static final String CHECKPOINT_FILE_NAME = FILE_NAME + ".checkpoint";
+
+    static final int DEFAULT_SYNC_BATCH_SIZE = 32;
+    static final long DEFAULT_SYNC_INTERVAL_MILLIS = 200;
+
+    private static final byte OP_ADD = 1;
+    private static final byte OP_DELETE = 2;
+    private static final byte OP_UPDATE = 3;
+
+    /**
+     * Receives journal records during replay
+     */
+    interface Replayer {
+        void add(EntityType type, String[] values);
+
+        void delete(EntityType type, String id);
+
+        void update(EntityType type, String id, String[] values);
+    }
+
+    private final File file;
+    private final File checkpointFile;
+    private FileChannel channel;
+    private final int syncBatchSize;
+    private final ScheduledExecutorService syncer;
+    private int pending;
+    private boolean closed;
+
+    private Journal(File file, FileChannel channel, int syncBatchSize, long syncIntervalMillis) {
+        this.file = file;
+        this.checkpointFile = new File(file.getParentFile(), CHECKPOINT_FILE_NAME);
+        this.channel = channel;
+        this.syncBatchSize = Math.max(1, syncBatchSize);
+        this.syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "journal-sync");
+            t.setDaemon(true);
+            return t;
+        });
+        if (this.syncBatchSize > 1) {
+            syncer.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMillis, syncIntervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    static File fileFor(String dataDirectory) {
+        return new File(dataDirectory, FILE_NAME);
+    }
+
+    /**
+     * Replay every intact record of the checkpoint and the journal in dataDirectory,
+     * then open the journal for appending
+     */
+    static Journal open(String dataDirectory, int syncBatchSize, long syncIntervalMillis,
+                        Replayer replayer) throws IOException {
+        File checkpoint = new File(dataDirectory, CHECKPOINT_FILE_NAME);
+        if (checkpoint.exists()) {
+            try (FileChannel in = FileChannel.open(checkpoint.toPath(), StandardOpenOption.READ)) {
+                replay(in, replayer);
+            }
+        }
+
+        File file = fileFor(dataDirectory);
+        FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            long good = replay(channel, replayer);
+            if (good < channel.size()) {
+                System.err.println("Journal " + file + ": dropping " + (channel.size() - good) + " bytes of damaged tail");
+                channel.truncate(good);
+                channel.force(true);
+            }
+            channel.position(good);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return new Journal(file, channel, syncBatchSize, syncIntervalMillis);
+    }
+
+    /**
+     * Returns the offset just after the last intact record
+     */
+    private static long replay(FileChannel channel, Replayer replayer) throws IOException {
+        long size = channel.size();
+        if (size == 0) return 0;
+
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("Journal too large to replay: " + size + " bytes");
+        }
+        ByteBuffer in = ByteBuffer.allocate((int) size);
+        while (in.hasRemaining() && channel.read(in, in.position()) > 0) {
+            // keep reading
+        }
+        in.flip();
+        CRC32 crc = new CRC32();
+        long good = 0;
+
+        while (in.remaining() >= 8) {
+            int length = in.getInt();
+            int expected = in.getInt();
+            if (length <= 0 || length > in.remaining()) break;
+
+            ByteBuffer payload = in.slice();
+            payload.limit(length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != expected) break;
+
+            try {
+                apply(payload, replayer);
+            } catch (RuntimeException e) {
+                System.err.println("Skipping unreadable journal record at " + good + ": " + e);
+            }
+            in.position(in.position() + length);
+            good = in.position();
+        }
+        return good;
+    }
+
+    private static void apply(ByteBuffer payload, Replayer replayer) {
+        byte op = payload.get();
+        EntityType type = EntityType.values()[payload.get()];
+        switch (op) {
+            case OP_ADD:
+                replayer.add(type, readValues(payload));
+                break;
+            case OP_DELETE:
+                replayer.delete(type, readString(payload));
+                break;
+            case OP_UPDATE: {
+                String id = readString(payload);
+                replayer.update(type, id, readValues(payload));
+                break;
+            }
+            default:
+                throw new IllegalStateException("Unknown journal op " + op);
+        }
+    }
+
+    void logAdd(EntityType type, String[] values) {
+        append(encode(OP_ADD, type, null, values));
+    }
+
+    void logDelete(EntityType type, String id) {
+        append(encode(OP_DELETE, type, id, null));
+    }
+
+    void logUpdate(EntityType type, String id, String[] values) {
+        append(encode(OP_UPDATE, type, id, values));
+    }
+
+    private synchronized void append(ByteBuffer payload) {
+        if (closed) return;
+
+        CRC32 crc = new CRC32();
+        crc.update(payload.duplicate());
+        ByteBuffer record = ByteBuffer.allocate(8 + payload.remaining());
+        record.putInt(payload.remaining()).putInt((int) crc.getValue()).put(payload).flip();
+
+        try {
+            while (record.hasRemaining()) {
+                channel.write(record);
+            }
+            if (++pending >= syncBatchSize) {
+                sync();
+            }
+        } catch (IOException e) {
+            System.err.println("Error writing journal " + file + ": " + e.getMessage());
+        }
+    }
+
+    /**
+     * Force every record written so far to disk
+     */
+    synchronized void sync() throws IOException {
+        if (closed || pending == 0) return;
+        channel.force(false);
+        pending = 0;
+    }
+
+    /**
+     * Move every record written so far into the checkpoint file (appending if an earlier
+     * checkpoint was never discarded) and continue with an empty journal
+     */
+    synchronized void rotate() throws IOException {
+        if (closed) return;
+        channel.force(false);
+        pending = 0;
+        if (channel.size() == 0) return;
+
+        channel.close();
+        try {
+            if (checkpointFile.exists()) {
+                try (FileChannel in = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                     FileChannel out = FileChannel.open(checkpointFile.toPath(), StandardOpenOption.WRITE,
+                             StandardOpenOption.APPEND)) {
+                    long position = 0;
+                    long size = in.size();
+                    while (position < size) {
+                        position += in.transferTo(position, size - position, out);
+                    }
+                    out.force(true);
+                }
+                Files.delete(file.toPath());
+            } else {
+                Files.move(file.toPath(), checkpointFile.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            }
+        } finally {
+            // Keep appending to whatever is left at the journal path if the move failed
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            channel.position(channel.size());
+        }
+    }
+
+    /**
+     * Drop the checkpoint once the data it covers has been written to the CSV files
+     */
+    void discardCheckpoint() throws IOException {
+        Files.deleteIfExists(checkpointFile.toPath());
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            System.err.println("Error syncing journal " + file + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        try {
+            sync();
+        } finally {
+            closed = true;
+            syncer.shutdownNow();
+            channel.close();
+        }
+    }
+
+    private static ByteBuffer encode(byte op, EntityType type, String id, String[] values) {
+        byte[] idBytes = id == null ? null : id.getBytes(StandardCharsets.UTF_8);
+        byte[][] valueBytes = null;
+        int size = 2;
+        if (idBytes != null) size += 4 + idBytes.length;
+        if (values != null) {
+            valueBytes = new byte[values.length][];
+            size += 4;
+            for (int i = 0; i < values.length; i++) {
+                valueBytes[i] = (values[i] == null ? "" : values[i]).getBytes(StandardCharsets.UTF_8);
+                size += 4 + valueBytes[i].length;
+            }
+        }
+
+        ByteBuffer out = ByteBuffer.allocate(size);
+        out.put(op).put((byte) type.ordinal());
+        if (idBytes != null) out.putInt(idBytes.length).put(idBytes);
+        if (valueBytes != null) {
+            out.putInt(valueBytes.length);
+            for (byte[] v : valueBytes) {
+                out.putInt(v.length).put(v);
+            }
+        }
+        out.flip();
+        return out;
+    }
+
+    private static String[] readValues(ByteBuffer in) {
+        String[] values = new String[in.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = readString(in);
+        }
+        return values;
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
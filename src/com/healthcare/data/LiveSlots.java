@@ -0,0 +1,97 @@
+package com.healthcare.data;
+
+import java.util.Arrays;
+
+/**
+ * Which slots of an EntityStore's row array still hold a row, kept as a Fenwick tree of
+ * 0/1 counts so that a slot and its position among the remaining rows convert into each
+ * other in O(log n). A delete only clears its slot here; the store closes the gaps in
+ * batches (reset) once enough of them have built up.
+ *
+ * Not thread-safe; the owning EntityStore locks around it. slotAt() may run under an
+ * optimistic read, so it reads the tree field once and always terminates.
+ */
+final class LiveSlots {
+    private int[] tree = new int[16]; // 1-based; node i counts slots (i - lowbit(i), i]
+    private int slots;
+    private int live;
+
+    /**
+     * Slots handed out so far, including cleared ones
+     */
+    int slots() {
+        return slots;
+    }
+
+    /**
+     * Slots still holding a row
+     */
+    int live() {
+        return live;
+    }
+
+    /**
+     * Add one live slot at the end
+     */
+    void append() {
+        int i = ++slots;
+        if (i >= tree.length) tree = Arrays.copyOf(tree, tree.length * 2);
+        tree[i] = 1 + prefix(i - 1) - prefix(i - (i & -i));
+        live++;
+    }
+
+    /**
+     * Clear a slot whose row was deleted
+     */
+    void kill(int slot) {
+        for (int i = slot + 1; i <= slots; i += i & -i) {
+            tree[i]--;
+        }
+        live--;
+    }
+
+    /**
+     * Start again with count live slots and no gaps
+     */
+    void reset(int count) {
+        tree = new int[Math.max(16, Integer.highestOneBit(count) * 2)];
+        for (int i = 1; i <= count; i++) {
+            tree[i] = i & -i;
+        }
+        slots = count;
+        live = count;
+    }
+
+    /**
+     * Number of live slots before slot, which is the position of the row in it
+     */
+    int positionOf(int slot) {
+        return prefix(slot);
+    }
+
+    /**
+     * Slot holding the row at position (0 to live() - 1)
+     */
+    int slotAt(int position) {
+        int[] t = tree;
+        int n = Math.min(slots, t.length - 1);
+        int slot = 0;
+        int remaining = position + 1;
+        for (int step = Integer.highestOneBit(Math.max(1, n)); step > 0; step >>= 1) {
+            int next = slot + step;
+            if (next <= n && t[next] < remaining) {
+                slot = next;
+                remaining -= t[next];
+            }
+        }
+        return slot;
+    }
+
+    private int prefix(int count) {
+        int sum = 0;
+        for (int i = count; i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,15 @@
+package com.healthcare.data;
+
+/**
+ * Told about each entity type as DataManager.loadAllData finishes it.
+ * Called on a loader thread, not the Swing EDT.
+ */
+public interface LoadProgressListener {
+    /**
+     * @param rows   rows now in the store for type
+     * @param millis time spent reading them (CSV parse or snapshot decode)
+     * @param done   entity types finished so far, including this one
+     * @param total  entity types in the load
+     */
+    void entityTypeLoaded(EntityType type, int rows, long millis, int done, int total);
+}
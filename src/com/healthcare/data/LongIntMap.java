@@ -0,0 +1,131 @@
+package com.healthcare.data;
+
+/**
+ * Open-addressing hash map from non-negative long keys to ints, with no entry objects and
+ * no boxing. Keys and values are interleaved in one long[] (key at 2i, value at 2i+1) so a
+ * hit touches one cache line. Linear probing; remove() shifts later entries back instead of
+ * leaving tombstones.
+ *
+ * Not thread-safe; the owning EntityStore locks around it. get() may run under an optimistic
+ * read, so it reads the table field once and never loops forever on a half-updated table
+ * (the table is never full).
+ */
+final class LongIntMap {
+    static final int MISSING = -1;
+
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] table;
+    private int size;
+
+    LongIntMap() {
+        table = newTable(16);
+    }
+
+    private static long[] newTable(int capacity) {
+        long[] t = new long[capacity * 2];
+        for (int i = 0; i < t.length; i += 2) {
+            t[i] = EMPTY;
+        }
+        return t;
+    }
+
+    int get(long key) {
+        long[] t = table;
+        int mask = (t.length >> 1) - 1;
+        for (int i = IdCodec.hash(key, mask); ; i = (i + 1) & mask) {
+            long found = t[i << 1];
+            if (found == key) return (int) t[(i << 1) + 1];
+            if (found == EMPTY) return MISSING;
+        }
+    }
+
+    void put(long key, int value) {
+        int i = slot(key);
+        if (table[i << 1] == EMPTY) {
+            table[i << 1] = key;
+            table[(i << 1) + 1] = value;
+            size++;
+            growIfFull();
+        } else {
+            table[(i << 1) + 1] = value;
+        }
+    }
+
+    /**
+     * Put unless the key is already there; returns the existing value or MISSING
+     */
+    int putIfAbsent(long key, int value) {
+        int i = slot(key);
+        if (table[i << 1] != EMPTY) return (int) table[(i << 1) + 1];
+        table[i << 1] = key;
+        table[(i << 1) + 1] = value;
+        size++;
+        growIfFull();
+        return MISSING;
+    }
+
+    /**
+     * Remove the key; returns its value or MISSING
+     */
+    int remove(long key) {
+        int i = slot(key);
+        if (table[i << 1] == EMPTY) return MISSING;
+        int removed = (int) table[(i << 1) + 1];
+
+        int mask = (table.length >> 1) - 1;
+        for (int j = (i + 1) & mask; table[j << 1] != EMPTY; j = (j + 1) & mask) {
+            int home = IdCodec.hash(table[j << 1], mask);
+            // the entry at j may move into the hole at i if i lies on its probe path
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                table[i << 1] = table[j << 1];
+                table[(i << 1) + 1] = table[(j << 1) + 1];
+                i = j;
+            }
+        }
+        table[i << 1] = EMPTY;
+        size--;
+        return removed;
+    }
+
+    /**
+     * Remove every key; a fresh table, so a concurrent optimistic get() never sees it half-cleared
+     */
+    void clear() {
+        table = newTable(16);
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Entry index holding key, or the empty index where it would go
+     */
+    private int slot(long key) {
+        int mask = (table.length >> 1) - 1;
+        int i = IdCodec.hash(key, mask);
+        while (table[i << 1] != EMPTY && table[i << 1] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void growIfFull() {
+        int capacity = table.length >> 1;
+        if (size * 4 < capacity * 3) return;
+
+        long[] old = table;
+        long[] grown = newTable(capacity * 2);
+        int mask = capacity * 2 - 1;
+        for (int i = 0; i < old.length; i += 2) {
+            if (old[i] == EMPTY) continue;
+            int j = IdCodec.hash(old[i], mask);
+            while (grown[j << 1] != EMPTY) j = (j + 1) & mask;
+            grown[j << 1] = old[i];
+            grown[(j << 1) + 1] = old[i + 1];
+        }
+        table = grown;
+    }
+}
@@ -0,0 +1,107 @@
+package com.healthcare.data;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from non-negative long keys to objects: probing and removal as in
+ * LongIntMap, with the keys in a long[] and the values in a parallel Object[].
+ * Not thread-safe; callers hold the owning store's lock.
+ */
+final class LongObjectMap<V> {
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private long[] keys;
+    private Object[] values;
+    private int size;
+
+    LongObjectMap() {
+        keys = new long[16];
+        Arrays.fill(keys, EMPTY);
+        values = new Object[16];
+    }
+
+    @SuppressWarnings("unchecked")
+    V get(long key) {
+        long[] k = keys;
+        Object[] v = values;
+        int mask = k.length - 1;
+        for (int i = IdCodec.hash(key, mask); ; i = (i + 1) & mask) {
+            long found = k[i];
+            if (found == key) return (V) v[i];
+            if (found == EMPTY) return null;
+        }
+    }
+
+    void put(long key, V value) {
+        int i = slot(key);
+        if (keys[i] == EMPTY) {
+            keys[i] = key;
+            size++;
+            values[i] = value;
+            growIfFull();
+        } else {
+            values[i] = value;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    V remove(long key) {
+        int i = slot(key);
+        if (keys[i] == EMPTY) return null;
+        V removed = (V) values[i];
+
+        int mask = keys.length - 1;
+        for (int j = (i + 1) & mask; keys[j] != EMPTY; j = (j + 1) & mask) {
+            int home = IdCodec.hash(keys[j], mask);
+            if (((j - home) & mask) >= ((j - i) & mask)) {
+                keys[i] = keys[j];
+                values[i] = values[j];
+                i = j;
+            }
+        }
+        keys[i] = EMPTY;
+        values[i] = null;
+        size--;
+        return removed;
+    }
+
+    void clear() {
+        keys = new long[16];
+        Arrays.fill(keys, EMPTY);
+        values = new Object[16];
+        size = 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private int slot(long key) {
+        int mask = keys.length - 1;
+        int i = IdCodec.hash(key, mask);
+        while (keys[i] != EMPTY && keys[i] != key) {
+            i = (i + 1) & mask;
+        }
+        return i;
+    }
+
+    private void growIfFull() {
+        if (size * 4 < keys.length * 3) return;
+
+        long[] oldKeys = keys;
+        Object[] oldValues = values;
+        long[] newKeys = new long[oldKeys.length * 2];
+        Arrays.fill(newKeys, EMPTY);
+        Object[] newValues = new Object[newKeys.length];
+        int mask = newKeys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] == EMPTY) continue;
+            int j = IdCodec.hash(oldKeys[i], mask);
+            while (newKeys[j] != EMPTY) j = (j + 1) & mask;
+            newKeys[j] = oldKeys[i];
+            newValues[j] = oldValues[i];
+        }
+        values = newValues;
+        keys = newKeys;
+    }
+}
@@ -0,0 +1,291 @@
+package com.healthcare.data;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Reads a large CSV file through memory-mapped regions and parses newline-aligned
+ * chunks in parallel.
+ *
+ * Chunk boundaries are first placed every chunkSize bytes, then moved forward to the
+ * next line break that is outside quotes. Whether a boundary starts inside a quoted
+ * field is worked out from the number of quote bytes before it (counted per chunk in
+ * parallel), so multi-line quoted values that straddle a boundary stay in one record.
+ * Each chunk is decoded as UTF-8 on its own worker.
+ *
+ * The quote count pass reads every byte anyway, so it also takes a CRC32 of each chunk;
+ * these are combined (as zlib's crc32_combine does) into the CRC32 of the whole file,
+ * which the snapshot records without reading the file a second time.
+ */
+final class MappedCsvReader {
+    static final long DEFAULT_CHUNK_SIZE = 32L * 1024 * 1024;
+
+    private static final int MAX_MAP = Integer.MAX_VALUE;
+    private static ExecutorService chunkPool;
+
+    private MappedCsvReader() {
+    }
+
+    /**
+     * Parse every data row (the header line is skipped). Like the streaming loader,
+     * reading stops at the first blank line.
+     */
+    static <T> List<T> read(Path file, int minFields, Function<CsvRow, T> mapper, long chunkSize) throws IOException {
+        return read(file, minFields, mapper, chunkSize, null);
+    }
+
+    /**
+     * As read(), also passing the CRC32 of the whole file (header and anything after a blank
+     * line included) to checksum, if not null
+     */
+    static <T> List<T> read(Path file, int minFields, Function<CsvRow, T> mapper, long chunkSize,
+                            LongConsumer checksum) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size == 0) {
+                if (checksum != null) checksum.accept(new CRC32().getValue());
+                return new ArrayList<>();
+            }
+
+            long dataStart = nextRecordStart(channel, 0, false, size);
+            int chunks = (int) Math.max(1, (size - dataStart + chunkSize - 1) / chunkSize);
+
+            long[] bounds = new long[chunks + 1];
+            for (int i = 0; i < chunks; i++) {
+                bounds[i] = Math.min(size, dataStart + i * chunkSize);
+            }
+            bounds[chunks] = size;
+
+            // Pass 1: quote parity at each nominal boundary, and the checksum of each chunk
+            List<Callable<Scan>> scans = new ArrayList<>();
+            for (int i = 0; i < chunks; i++) {
+                long from = bounds[i];
+                long to = bounds[i + 1];
+                scans.add(() -> scan(channel, from, to));
+            }
+            List<Scan> scanned = invokeAll(scans);
+
+            if (checksum != null) {
+                long crc = scan(channel, 0, dataStart).crc;
+                for (int i = 0; i < chunks; i++) {
+                    crc = combineCrc(crc, scanned.get(i).crc, bounds[i + 1] - bounds[i]);
+                }
+                checksum.accept(crc);
+            }
+
+            // Pass 2: move each boundary to the next unquoted line break
+            List<Callable<Long>> aligns = new ArrayList<>();
+            long quotesBefore = 0;
+            for (int i = 1; i < chunks; i++) {
+                quotesBefore += scanned.get(i - 1).quotes;
+                long from = bounds[i];
+                boolean inQuotes = (quotesBefore & 1) == 1;
+                aligns.add(() -> nextRecordStart(channel, from, inQuotes, size));
+            }
+            List<Long> aligned = invokeAll(aligns);
+            for (int i = 1; i < chunks; i++) {
+                bounds[i] = Math.max(bounds[i - 1], aligned.get(i - 1));
+            }
+
+            // Pass 3: decode and tokenize each chunk
+            List<Callable<Chunk<T>>> parses = new ArrayList<>();
+            for (int i = 0; i < chunks; i++) {
+                long from = bounds[i];
+                long to = bounds[i + 1];
+                parses.add(() -> parseChunk(channel, from, to, minFields, mapper));
+            }
+
+            List<T> rows = new ArrayList<>();
+            for (Chunk<T> chunk : invokeAll(parses)) {
+                rows.addAll(chunk.rows);
+                if (chunk.stoppedAtBlank) break;
+            }
+            return rows;
+        }
+    }
+
+    /**
+     * Count the quote bytes in [from, to) and take their CRC32
+     */
+    private static Scan scan(FileChannel channel, long from, long to) throws IOException {
+        long quotes = 0;
+        CRC32 crc = new CRC32();
+        long pos = from;
+        while (pos < to) {
+            ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(to - pos, MAX_MAP));
+            int limit = region.limit();
+            for (int i = 0; i < limit; i++) {
+                if (region.get(i) == '"') quotes++;
+            }
+            crc.update(region);
+            pos += limit;
+        }
+        return new Scan(quotes, crc.getValue());
+    }
+
+    /**
+     * CRC32 of two byte runs back to back, given the CRC32 of each and the length of the
+     * second: crc1 is advanced past len2 zero bytes by repeated squaring of the CRC's
+     * shift matrix over GF(2), then crc2 is folded in.
+     */
+    static long combineCrc(long crc1, long crc2, long len2) {
+        if (len2 <= 0) return crc1;
+
+        int[] even = new int[32]; // operator for 2^k zero bits, k even
+        int[] odd = new int[32];
+        odd[0] = 0xEDB88320; // one zero bit
+        int row = 1;
+        for (int n = 1; n < 32; n++) {
+            odd[n] = row;
+            row <<= 1;
+        }
+        gf2Square(even, odd); // two zero bits
+        gf2Square(odd, even); // four zero bits
+
+        int crc = (int) crc1;
+        do {
+            gf2Square(even, odd); // first pass: one zero byte
+            if ((len2 & 1) != 0) crc = gf2Times(even, crc);
+            len2 >>= 1;
+            if (len2 == 0) break;
+
+            gf2Square(odd, even);
+            if ((len2 & 1) != 0) crc = gf2Times(odd, crc);
+            len2 >>= 1;
+        } while (len2 != 0);
+        return (crc ^ (int) crc2) & 0xFFFFFFFFL;
+    }
+
+    private static int gf2Times(int[] matrix, int vector) {
+        int sum = 0;
+        for (int i = 0; vector != 0; i++, vector >>>= 1) {
+            if ((vector & 1) != 0) sum ^= matrix[i];
+        }
+        return sum;
+    }
+
+    private static void gf2Square(int[] square, int[] matrix) {
+        for (int n = 0; n < 32; n++) {
+            square[n] = gf2Times(matrix, matrix[n]);
+        }
+    }
+
+    /**
+     * Offset just after the first line break at or after from that is not inside quotes,
+     * or size if there is none.
+     */
+    private static long nextRecordStart(FileChannel channel, long from, boolean inQuotes, long size) throws IOException {
+        long pos = from;
+        while (pos < size) {
+            ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(size - pos, MAX_MAP));
+            int limit = region.limit();
+            for (int i = 0; i < limit; i++) {
+                byte b = region.get(i);
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == '\n' && !inQuotes) {
+                    return pos + i + 1;
+                }
+            }
+            pos += limit;
+        }
+        return size;
+    }
+
+    private static <T> Chunk<T> parseChunk(FileChannel channel, long from, long to,
+                                           int minFields, Function<CsvRow, T> mapper) throws IOException {
+        Chunk<T> chunk = new Chunk<>();
+        if (to <= from) return chunk;
+        if (to - from > MAX_MAP) {
+            throw new IOException("CSV record too large to map at offset " + from);
+        }
+
+        ByteBuffer region = channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+        CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        CharBuffer chars = decoder.decode(region);
+
+        char[] buf = chars.array();
+        int pos = chars.arrayOffset() + chars.position();
+        int limit = chars.arrayOffset() + chars.limit();
+        CsvTokenizer row = new CsvTokenizer();
+
+        while (pos < limit) {
+            pos = row.tokenize(buf, pos, limit, true);
+            if (row.isBlank()) {
+                chunk.stoppedAtBlank = true;
+                break;
+            }
+            if (row.fieldCount() >= minFields) {
+                chunk.rows.add(mapper.apply(row));
+            }
+        }
+        return chunk;
+    }
+
+    private static <V> List<V> invokeAll(List<Callable<V>> tasks) throws IOException {
+        List<V> results = new ArrayList<>(tasks.size());
+        try {
+            for (Future<V> f : pool().invokeAll(tasks)) {
+                results.add(f.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading CSV chunks", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) throw (IOException) cause;
+            throw new IOException("Failed to parse CSV chunk: " + cause, cause);
+        }
+        return results;
+    }
+
+    /**
+     * Chunk workers get their own pool so that file-level loader threads can wait on
+     * them without starving each other.
+     */
+    private static synchronized ExecutorService pool() {
+        if (chunkPool == null) {
+            int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+            chunkPool = Executors.newFixedThreadPool(threads, r -> {
+                Thread t = new Thread(r, "csv-chunk");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return chunkPool;
+    }
+
+    private static final class Scan {
+        final long quotes;
+        final long crc;
+
+        Scan(long quotes, long crc) {
+            this.quotes = quotes;
+            this.crc = crc;
+        }
+    }
+
+    private static final class Chunk<T> {
+        final List<T> rows = new ArrayList<>();
+        boolean stoppedAtBlank;
+    }
+}
@@ -0,0 +1,50 @@
+package com.healthcare.data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * One page of rows in sort order, with the cursor to pass back for the next page
+ */
+public final class Page<T> {
+    private final List<T> rows;
+    private final List<String> cursors;
+    private final String nextCursor;
+    private final int total;
+
+    Page(List<T> rows, List<String> cursors, String nextCursor, int total) {
+        this.rows = Collections.unmodifiableList(rows);
+        this.cursors = Collections.unmodifiableList(cursors);
+        this.nextCursor = nextCursor;
+        this.total = total;
+    }
+
+    public List<T> getRows() {
+        return rows;
+    }
+
+    /**
+     * Cursor that reads on from just after row i of this page
+     */
+    public String getCursor(int i) {
+        return cursors.get(i);
+    }
+
+    /**
+     * Cursor for the following page, or null if this is the last one
+     */
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public boolean hasMore() {
+        return nextCursor != null;
+    }
+
+    /**
+     * Rows in the whole index when this page was read
+     */
+    public int getTotal() {
+        return total;
+    }
+}
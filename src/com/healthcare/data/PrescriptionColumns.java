@@ -0,0 +1,107 @@
+package com.healthcare.data;
+
+import com.healthcare.model.CompactFields;
+import com.healthcare.model.Prescription;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-wise copy of the prescription table, built the same way as AppointmentColumns:
+ * prescription date as epoch days, duration in days, and collection status, medication
+ * and clinician as dictionary codes.
+ */
+public final class PrescriptionColumns {
+    private final List<Prescription> rows;
+    private final int[] day;
+    private final int[] durationDays;
+    private final int[] status;
+    private final int[] medication;
+    private final int[] clinician;
+    private final ColumnCodes statuses = new ColumnCodes();
+    private final ColumnCodes medications = new ColumnCodes();
+    private final ColumnCodes clinicians = new ColumnCodes();
+
+    PrescriptionColumns(List<Prescription> rows) {
+        int n = rows.size();
+        this.rows = rows;
+        day = new int[n];
+        durationDays = new int[n];
+        status = new int[n];
+        medication = new int[n];
+        clinician = new int[n];
+        for (int i = 0; i < n; i++) {
+            Prescription p = rows.get(i);
+            day[i] = p.getDatePrescribedDay();
+            durationDays[i] = p.getDurationDaysValue();
+            status[i] = statuses.code(p.getCollectionStatus());
+            medication[i] = medications.code(p.getMedication());
+            clinician[i] = clinicians.code(p.getClinicianID());
+        }
+    }
+
+    boolean isOf(List<Prescription> snapshot) {
+        return rows == snapshot;
+    }
+
+    public int size() {
+        return day.length;
+    }
+
+    /** Prescription date as an epoch day, or CompactFields.NO_DAY */
+    public int day(int row) {
+        return day[row];
+    }
+
+    /** Duration in days, or CompactFields.NO_NUMBER */
+    public int durationDays(int row) {
+        return durationDays[row];
+    }
+
+    public int statusCode(int row) {
+        return status[row];
+    }
+
+    public String status(int code) {
+        return statuses.value(code);
+    }
+
+    public int medicationCode(int row) {
+        return medication[row];
+    }
+
+    public String medication(int code) {
+        return medications.value(code);
+    }
+
+    public int clinicianCode(int row) {
+        return clinician[row];
+    }
+
+    public String clinician(int code) {
+        return clinicians.value(code);
+    }
+
+    public Prescription row(int row) {
+        return rows.get(row);
+    }
+
+    /**
+     * Prescriptions per medication dated fromDay..toDay inclusive (epoch days)
+     */
+    public Map<String, Integer> countByMedication(int fromDay, int toDay) {
+        int[] counts = new int[medications.size()];
+        for (int i = 0; i < day.length; i++) {
+            int d = day[i];
+            if (d != CompactFields.NO_DAY && d >= fromDay && d <= toDay && medication[i] != ColumnCodes.NULL_CODE) {
+                counts[medication[i]]++;
+            }
+        }
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (int m = 0; m < counts.length; m++) {
+            if (counts[m] > 0) result.put(medications.value(m), counts[m]);
+        }
+        return result;
+    }
+}
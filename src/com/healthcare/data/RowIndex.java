@@ -0,0 +1,20 @@
+package com.healthcare.data;
+
+/**
+ * Index kept in step with an EntityStore. All calls run under the store's write lock.
+ */
+interface RowIndex<T> {
+    void add(T row);
+
+    void remove(T row);
+
+    /**
+     * Swap old for row, which has the same ID
+     */
+    void replace(T old, T row);
+
+    /**
+     * Drop every row, keeping the index registered
+     */
+    void clear();
+}
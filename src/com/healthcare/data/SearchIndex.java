@@ -0,0 +1,194 @@
+package com.healthcare.data;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+
+/**
+ * Word index over a few text fields of a row, for the search bars.
+ * Each field is lower-cased and split into letter/digit runs, except that digits joined by
+ * '-', ':' or '/' stay one word, so a date or time is matched from its start; a query
+ * matches a row when every word of the query is a prefix of some word of the row ("jo smi"
+ * finds John Smith, "2025-09" finds dates in September 2025 but not 2025-03-09). Words are
+ * kept in a sorted map so a prefix is one range lookup rather than a scan of the rows.
+ *
+ * A word's rows start out in a short list and move to an identity set once there are more
+ * than a few, so removing a row is constant time however common the word is.
+ * Low-cardinality fields (statuses, urgencies, dates) are not indexed at all: nearly every
+ * row would sit in a handful of huge buckets. They are only counted by word, and a query
+ * word that is a prefix of one of them is checked against the candidate rows directly.
+ */
+final class SearchIndex<T> implements RowIndex<T> {
+    private static final int SMALL_BUCKET = 8; // larger buckets become identity sets
+
+    private final List<Function<T, String>> indexed;
+    private final List<Function<T, String>> scanned;
+    private final TreeMap<String, Collection<T>> words = new TreeMap<>();
+    private final TreeMap<String, Integer> scannedWords = new TreeMap<>(); // word -> rows holding it
+
+    SearchIndex(List<Function<T, String>> indexed, List<Function<T, String>> scanned) {
+        this.indexed = indexed;
+        this.scanned = scanned;
+    }
+
+    @Override
+    public void add(T row) {
+        for (String word : wordsOf(row, indexed)) {
+            Collection<T> bucket = words.get(word);
+            if (bucket == null) {
+                bucket = new ArrayList<>(2);
+                words.put(word, bucket);
+            } else if (bucket instanceof List && bucket.size() >= SMALL_BUCKET) {
+                Set<T> set = Collections.newSetFromMap(new IdentityHashMap<>());
+                set.addAll(bucket);
+                bucket = set;
+                words.put(word, bucket);
+            }
+            bucket.add(row);
+        }
+        for (String word : wordsOf(row, scanned)) {
+            scannedWords.merge(word, 1, Integer::sum);
+        }
+    }
+
+    @Override
+    public void remove(T row) {
+        for (String word : wordsOf(row, indexed)) {
+            Collection<T> bucket = words.get(word);
+            if (bucket == null) continue;
+            if (bucket instanceof List) {
+                List<T> list = (List<T>) bucket;
+                for (int i = 0; i < list.size(); i++) {
+                    if (list.get(i) == row) {
+                        list.remove(i);
+                        break;
+                    }
+                }
+            } else {
+                bucket.remove(row);
+            }
+            if (bucket.isEmpty()) words.remove(word);
+        }
+        for (String word : wordsOf(row, scanned)) {
+            scannedWords.computeIfPresent(word, (w, count) -> count == 1 ? null : count - 1);
+        }
+    }
+
+    @Override
+    public void replace(T old, T row) {
+        remove(old);
+        add(row);
+    }
+
+    @Override
+    public void clear() {
+        words.clear();
+        scannedWords.clear();
+    }
+
+    /**
+     * Rows matching every word of query, in no particular order. all is every row of the
+     * store, walked only when a query word can match a scanned field. The caller holds the
+     * store's read lock.
+     */
+    Set<T> match(String query, Collection<T> all) {
+        Set<T> result = null;
+        List<String> deferred = new ArrayList<>();
+        for (String term : split(query)) {
+            if (prefixOfScanned(term)) {
+                deferred.add(term);
+                continue;
+            }
+            result = withPrefix(term, result);
+            if (result.isEmpty()) return result;
+        }
+        if (deferred.isEmpty()) return result == null ? Collections.emptySet() : result;
+
+        Collection<T> candidates = result == null ? all : result;
+        Set<T> matches = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<Set<T>> indexedHits = new ArrayList<>(deferred.size());
+        for (String term : deferred) {
+            indexedHits.add(withPrefix(term, result));
+        }
+        for (T row : candidates) {
+            Set<String> rowWords = null;
+            boolean matched = true;
+            for (int i = 0; i < deferred.size() && matched; i++) {
+                if (indexedHits.get(i).contains(row)) continue;
+                if (rowWords == null) rowWords = wordsOf(row, scanned);
+                matched = anyStartsWith(rowWords, deferred.get(i));
+            }
+            if (matched) matches.add(row);
+        }
+        return matches;
+    }
+
+    private boolean prefixOfScanned(String term) {
+        String next = scannedWords.ceilingKey(term);
+        return next != null && next.startsWith(term);
+    }
+
+    private static boolean anyStartsWith(Set<String> rowWords, String prefix) {
+        for (String word : rowWords) {
+            if (word.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Rows with an indexed word starting with prefix, restricted to within when that is not null
+     */
+    private Set<T> withPrefix(String prefix, Set<T> within) {
+        Set<T> rows = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Map.Entry<String, Collection<T>> entry : words.tailMap(prefix, true).entrySet()) {
+            if (!entry.getKey().startsWith(prefix)) break;
+            for (T row : entry.getValue()) {
+                if (within == null || within.contains(row)) rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    private Set<String> wordsOf(T row, List<Function<T, String>> fields) {
+        if (fields.isEmpty()) return Collections.emptySet();
+        Set<String> result = new LinkedHashSet<>();
+        for (Function<T, String> field : fields) {
+            result.addAll(split(field.apply(row)));
+        }
+        return result;
+    }
+
+    static List<String> split(String text) {
+        List<String> result = new ArrayList<>();
+        if (text == null) return result;
+
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && (Character.isLetterOrDigit(text.charAt(i))
+                    || start >= 0 && joinsDigits(text, i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                result.add(text.substring(start, i).toLowerCase());
+                start = -1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Whether the character at i is a date or time separator between two digits
+     */
+    private static boolean joinsDigits(String text, int i) {
+        char c = text.charAt(i);
+        return (c == '-' || c == ':' || c == '/') && i + 1 < text.length()
+                && Character.isDigit(text.charAt(i - 1)) && Character.isDigit(text.charAt(i + 1));
+    }
+}
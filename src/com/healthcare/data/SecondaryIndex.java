@@ -0,0 +1,85 @@
+package com.healthcare.data;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * Multi-valued hash index from a field value (a foreign-key ID) to the rows holding it, kept up
+ * to date by EntityStore. Keys are packed into longs where IdCodec allows (see IdMap).
+ * add() and remove() run under the owning store's write lock; get() takes its read lock.
+ */
+final class SecondaryIndex<T> implements RowIndex<T> {
+    private final Function<T, String> key;
+    private final IdMap<List<T>> buckets = new IdMap<>();
+    private final StampedLock lock;
+
+    SecondaryIndex(Function<T, String> key, StampedLock lock) {
+        this.key = key;
+        this.lock = lock;
+    }
+
+    @Override
+    public void add(T row) {
+        String k = key.apply(row);
+        if (k == null || k.isEmpty()) return;
+        buckets.computeIfAbsent(k, () -> new ArrayList<>(2)).add(row);
+    }
+
+    @Override
+    public void remove(T row) {
+        String k = key.apply(row);
+        if (k == null) return;
+        List<T> bucket = buckets.get(k);
+        if (bucket == null) return;
+
+        for (int i = 0; i < bucket.size(); i++) {
+            if (bucket.get(i) == row) {
+                bucket.remove(i);
+                break;
+            }
+        }
+        if (bucket.isEmpty()) buckets.remove(k);
+    }
+
+    /**
+     * Swap old for row, in place when both have the same key
+     */
+    @Override
+    public void replace(T old, T row) {
+        String k = key.apply(row);
+        if (k != null && k.equals(key.apply(old))) {
+            List<T> bucket = buckets.get(k);
+            if (bucket != null) {
+                for (int i = 0; i < bucket.size(); i++) {
+                    if (bucket.get(i) == old) {
+                        bucket.set(i, row);
+                        return;
+                    }
+                }
+            }
+        }
+        remove(old);
+        add(row);
+    }
+
+    @Override
+    public void clear() {
+        buckets.clear();
+    }
+
+    /**
+     * Rows whose key equals value, in insertion order (read-only copy, never null)
+     */
+    List<T> get(String value) {
+        long stamp = lock.readLock();
+        try {
+            List<T> bucket = buckets.get(value);
+            return bucket == null ? Collections.emptyList() : Collections.unmodifiableList(new ArrayList<>(bucket));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
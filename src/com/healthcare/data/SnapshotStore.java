@@ -0,0 +1,296 @@
+package com.healthcare.data;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Binary snapshot of the entity lists, used to skip CSV parsing on warm starts.
+ *
+ * Layout (big-endian):
+ *   int magic, int version
+ *   int sourceCount, then per source: byte entityType, long size, long lastModified, long crc32
+ *   int dictionarySize, then per entry: int byteLength, UTF-8 bytes
+ *   int tableCount, then per table: byte entityType, int rows, int columns, rows*columns varint dictionary ids
+ *
+ * Every distinct string is stored once in the dictionary and rows only hold ids.
+ * A table is only used if its source CSV still has the recorded size and mtime, or,
+ * when those changed, the same CRC32. The caller stamps each CSV (Source.of) with the size
+ * and mtime from before it parsed the file and the CRC32 taken of the bytes it parsed, so a
+ * file rewritten between parsing and saving is never recorded as matching the rows parsed
+ * from its older contents, and no file is read twice to stamp it.
+ */
+final class SnapshotStore {
+    static final String FILE_NAME = "healthcare.snapshot";
+
+    private static final int MAGIC = 0x48434D53; // "HCMS"
+    private static final int VERSION = 1;
+
+    private SnapshotStore() {
+    }
+
+    /**
+     * Size, mtime and CRC32 of a source CSV as it was when its rows were read
+     */
+    static final class Source {
+        final long size;
+        final long lastModified;
+        final long crc;
+
+        private Source(long size, long lastModified, long crc) {
+            this.size = size;
+            this.lastModified = lastModified;
+            this.crc = crc;
+        }
+
+        /**
+         * Stamp for a file that had size and lastModified when reading began and whose
+         * bytes, as read, have this CRC32
+         */
+        static Source of(long size, long lastModified, long crc) {
+            return new Source(size, lastModified, crc);
+        }
+
+        /**
+         * Whether file still has this size and mtime (no checksum; for a quick re-check)
+         */
+        boolean unchanged(File file) {
+            return file.isFile() && file.length() == size && file.lastModified() == lastModified;
+        }
+    }
+
+    /**
+     * Rows read from a snapshot, one table per entity type whose source file is unchanged
+     */
+    static final class Contents {
+        private final Map<EntityType, List<?>> tables = new EnumMap<>(EntityType.class);
+        private final Map<EntityType, Source> sources = new EnumMap<>(EntityType.class);
+
+        boolean has(EntityType type) {
+            return tables.containsKey(type);
+        }
+
+        /**
+         * Stamp the snapshot recorded for type's CSV (which still matches, if has(type))
+         */
+        Source source(EntityType type) {
+            return sources.get(type);
+        }
+
+        @SuppressWarnings("unchecked")
+        <T> List<T> rows(CsvSchema<T> schema) {
+            return (List<T>) tables.get(schema.type());
+        }
+    }
+
+    static File fileFor(String dataDirectory) {
+        return new File(dataDirectory, FILE_NAME);
+    }
+
+    /**
+     * Read the snapshot in dataDirectory. Tables whose CSV changed since the snapshot
+     * was taken are left out. Returns null if there is no usable snapshot.
+     */
+    static Contents load(String dataDirectory) throws IOException {
+        File file = fileFor(dataDirectory);
+        if (!file.isFile() || file.length() > Integer.MAX_VALUE) return null;
+
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (in.remaining() < 8 || in.getInt() != MAGIC || in.getInt() != VERSION) {
+                return null;
+            }
+
+            Contents contents = new Contents();
+            int sourceCount = in.getInt();
+            for (int i = 0; i < sourceCount; i++) {
+                EntityType type = EntityType.values()[in.get()];
+                contents.sources.put(type, new Source(in.getLong(), in.getLong(), in.getLong()));
+            }
+
+            String[] dictionary = new String[in.getInt()];
+            for (int i = 0; i < dictionary.length; i++) {
+                byte[] bytes = new byte[in.getInt()];
+                in.get(bytes);
+                dictionary[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            int tableCount = in.getInt();
+            for (int t = 0; t < tableCount; t++) {
+                EntityType type = EntityType.values()[in.get()];
+                int rows = in.getInt();
+                int columns = in.getInt();
+                boolean fresh = isFresh(new File(dataDirectory, type.getFileName()), contents.sources.get(type));
+                List<?> table = readTable(in, CsvSchema.of(type), rows, columns, dictionary, !fresh);
+                if (fresh) contents.tables.put(type, table);
+            }
+            return contents;
+        } catch (RuntimeException e) {
+            // Truncated or corrupt file: treat as missing
+            System.err.println("Ignoring unreadable snapshot " + file + ": " + e);
+            return null;
+        }
+    }
+
+    private static <T> List<T> readTable(ByteBuffer in, CsvSchema<T> schema, int rows, int columns,
+                                         String[] dictionary, boolean skip) {
+        List<T> list = new ArrayList<>(skip ? 0 : rows);
+        String[] values = new String[columns];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                values[c] = dictionary[readVarInt(in)];
+            }
+            if (!skip) list.add(schema.fromValues(values));
+        }
+        return list;
+    }
+
+    /**
+     * Write a snapshot of the given tables, each recorded against the stamp its CSV had when
+     * the rows were read (tables without a stamp are left out). The file is written next to
+     * the target and then renamed into place, so readers never see a half-written snapshot.
+     */
+    static void save(String dataDirectory, Map<EntityType, List<?>> loaded,
+                     Map<EntityType, Source> stamps) throws IOException {
+        Map<EntityType, List<?>> tables = new EnumMap<>(EntityType.class);
+        for (Map.Entry<EntityType, List<?>> e : loaded.entrySet()) {
+            if (stamps.get(e.getKey()) != null) tables.put(e.getKey(), e.getValue());
+        }
+        if (tables.isEmpty()) return;
+
+        File target = fileFor(dataDirectory);
+        Path temp = Files.createTempFile(target.getParentFile().toPath(), FILE_NAME, ".tmp");
+
+        try {
+            // First pass collects the dictionary, the second writes row ids against it
+            Map<String, Integer> ids = new HashMap<>();
+            List<String> dictionary = new ArrayList<>();
+            for (Map.Entry<EntityType, List<?>> e : tables.entrySet()) {
+                collect(CsvSchema.of(e.getKey()), e.getValue(), ids, dictionary);
+            }
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(temp), 64 * 1024))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+
+                out.writeInt(tables.size());
+                for (EntityType type : tables.keySet()) {
+                    Source source = stamps.get(type);
+                    out.writeByte(type.ordinal());
+                    out.writeLong(source.size);
+                    out.writeLong(source.lastModified);
+                    out.writeLong(source.crc);
+                }
+
+                out.writeInt(dictionary.size());
+                for (String s : dictionary) {
+                    byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+
+                out.writeInt(tables.size());
+                for (Map.Entry<EntityType, List<?>> e : tables.entrySet()) {
+                    writeTable(out, CsvSchema.of(e.getKey()), e.getValue(), ids);
+                }
+            }
+
+            Files.move(temp, target.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    private static <T> void collect(CsvSchema<T> schema, List<?> rows,
+                                    Map<String, Integer> ids, List<String> dictionary) {
+        for (Object row : rows) {
+            for (String value : values(schema, row)) {
+                if (!ids.containsKey(value)) {
+                    ids.put(value, dictionary.size());
+                    dictionary.add(value);
+                }
+            }
+        }
+    }
+
+    private static <T> void writeTable(DataOutputStream out, CsvSchema<T> schema, List<?> rows,
+                                       Map<String, Integer> ids) throws IOException {
+        out.writeByte(schema.type().ordinal());
+        out.writeInt(rows.size());
+        out.writeInt(schema.columnCount());
+        for (Object row : rows) {
+            for (String value : values(schema, row)) {
+                writeVarInt(out, ids.get(value));
+            }
+        }
+    }
+
+    /**
+     * Exactly columnCount values, with nulls written as empty strings
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> String[] values(CsvSchema<T> schema, Object row) {
+        String[] raw = schema.values((T) row);
+        String[] values = new String[schema.columnCount()];
+        for (int c = 0; c < values.length; c++) {
+            values[c] = c < raw.length && raw[c] != null ? raw[c] : "";
+        }
+        return values;
+    }
+
+    private static boolean isFresh(File source, Source recorded) throws IOException {
+        if (recorded == null || !source.isFile()) return false;
+        if (source.length() != recorded.size) return false;
+        if (source.lastModified() == recorded.lastModified) return true;
+        // Touched but possibly unchanged: fall back to the content checksum
+        return checksum(source) == recorded.crc;
+    }
+
+    private static long checksum(File file) throws IOException {
+        CRC32 crc = new CRC32();
+        byte[] buf = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(file.toPath())) {
+            int n;
+            while ((n = in.read(buf)) > 0) {
+                crc.update(buf, 0, n);
+            }
+        }
+        return crc.getValue();
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static int readVarInt(ByteBuffer in) {
+        int value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = in.get();
+            value |= (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+}
@@ -0,0 +1,83 @@
+package com.healthcare.data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+
+/**
+ * Rows ordered by a sort key (case-insensitive, ties broken by ID), read a page at a time.
+ * The cursor handed back with each page is the position just after its last row, so the next
+ * page starts in the right place even if rows were added or deleted in between.
+ * If two rows share an ID only the first is indexed, as for the primary-key index.
+ */
+final class SortedIndex<T> implements RowIndex<T> {
+    private static final char SEPARATOR = '\u0000';
+
+    private final Function<T, String> key;
+    private final Function<T, String> idOf;
+    private final TreeMap<String, T> entries = new TreeMap<>();
+    private final StampedLock lock;
+
+    SortedIndex(Function<T, String> key, Function<T, String> idOf, StampedLock lock) {
+        this.key = key;
+        this.idOf = idOf;
+        this.lock = lock;
+    }
+
+    private String entryKey(T row) {
+        String value = key.apply(row);
+        String id = idOf.apply(row);
+        return (value == null ? "" : value.toLowerCase()) + SEPARATOR + (id == null ? "" : id);
+    }
+
+    @Override
+    public void add(T row) {
+        entries.putIfAbsent(entryKey(row), row);
+    }
+
+    @Override
+    public void remove(T row) {
+        entries.remove(entryKey(row), row);
+    }
+
+    @Override
+    public void replace(T old, T row) {
+        remove(old);
+        add(row);
+    }
+
+    @Override
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Up to limit rows after cursor (null for the first page)
+     */
+    Page<T> page(boolean descending, String cursor, int limit) {
+        long stamp = lock.readLock();
+        try {
+            NavigableMap<String, T> view = descending ? entries.descendingMap() : entries;
+            if (cursor != null) {
+                view = view.tailMap(cursor, false);
+            }
+
+            List<T> rows = new ArrayList<>(Math.min(limit, entries.size()));
+            List<String> cursors = new ArrayList<>(Math.min(limit, entries.size()));
+            for (Map.Entry<String, T> entry : view.entrySet()) {
+                if (rows.size() == limit) {
+                    return new Page<>(rows, cursors, cursors.get(cursors.size() - 1), entries.size());
+                }
+                rows.add(entry.getValue());
+                cursors.add(entry.getKey());
+            }
+            return new Page<>(rows, cursors, null, entries.size());
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.healthcare.data;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Coalesces bursts of edits into at most one flush per interval.
+ * markDirty() only records the entity type and, if no flush is pending yet, schedules
+ * one intervalMillis later on a background thread. The flush collects everything
+ * marked so far with takeDirty(), so edits made while it waits are written by it too.
+ */
+final class WriteBehindScheduler {
+    private final long intervalMillis;
+    private final Runnable flush;
+    private final ScheduledThreadPoolExecutor executor;
+    private final EnumSet<EntityType> dirty = EnumSet.noneOf(EntityType.class);
+    private boolean scheduled;
+    private boolean stopped;
+
+    WriteBehindScheduler(long intervalMillis, Runnable flush) {
+        this.intervalMillis = intervalMillis;
+        this.flush = flush;
+        this.executor = new ScheduledThreadPoolExecutor(1, r -> {
+            Thread t = new Thread(r, "csv-write-behind");
+            t.setDaemon(true);
+            return t;
+        });
+        // On shutdown drop the waiting flush (shutdown() runs it directly) but let a running one finish
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+    }
+
+    synchronized void markDirty(EntityType type) {
+        dirty.add(type);
+        if (!scheduled && !stopped) {
+            scheduled = true;
+            executor.schedule(flush, intervalMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Entity types changed since the last call; the next markDirty schedules a new flush
+     */
+    synchronized Set<EntityType> takeDirty() {
+        Set<EntityType> batch = EnumSet.copyOf(dirty);
+        dirty.clear();
+        scheduled = false;
+        return batch;
+    }
+
+    /**
+     * Stop scheduling and run one last flush for anything still pending on the calling thread
+     */
+    void shutdown() {
+        synchronized (this) {
+            if (stopped) return;
+            stopped = true;
+        }
+        executor.shutdown();
+        try {
+            executor.awaitTermination(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush.run();
+    }
+}
@@ -4,19 +4,31 @@ package com.healthcare.model;
  * Model class representing an Appointment
  */
 public class Appointment {
+    // Clinicians, facilities, types and reasons repeat across appointments; store one instance of each
+    private static final ValueDictionary CLINICIAN_IDS = ValueDictionary.forColumn("appointment.clinicianID");
+    private static final ValueDictionary FACILITY_IDS = ValueDictionary.forColumn("appointment.facilityID");
+    private static final ValueDictionary APPOINTMENT_TYPES = ValueDictionary.forColumn("appointment.appointmentType");
+    private static final ValueDictionary REASONS = ValueDictionary.forColumn("appointment.reason");
+
     private String appointmentID;
     private String patientID;
     private String clinicianID;
     private String facilityID;
-    private String date;
-    private String time;
-    private String durationMinutes;
+    private int date = CompactFields.NO_DAY; // epoch day
+    private String dateRaw; // text that is not an ISO date
+    private short time = CompactFields.NO_MINUTE; // minute of day
+    private String timeRaw; // text that is not HH:mm
+    private int durationMinutes = CompactFields.NO_NUMBER;
+    private String durationMinutesRaw; // text that is not a plain integer
     private String appointmentType;
-    private String status;
+    private AppointmentStatus status;
+    private String statusRaw; // text that is not one of the AppointmentStatus labels
     private String reason;
     private String notes;
-    private String createdDate;
-    private String lastModified;
+    private int createdDate = CompactFields.NO_DAY; // epoch day
+    private String createdDateRaw; // text that is not an ISO date
+    private int lastModified = CompactFields.NO_DAY; // epoch day
+    private String lastModifiedRaw; // text that is not an ISO date
 
     public Appointment() {
     }
@@ -31,17 +43,17 @@ public class Appointment {
                        String status, String reason, String notes, String createdDate, String lastModified) {
         this.appointmentID = appointmentID;
         this.patientID = patientID;
-        this.clinicianID = clinicianID;
-        this.facilityID = facilityID;
-        this.date = date;
-        this.time = time;
-        this.durationMinutes = durationMinutes;
-        this.appointmentType = appointmentType;
-        this.status = status;
-        this.reason = reason;
+        this.clinicianID = CLINICIAN_IDS.intern(clinicianID);
+        this.facilityID = FACILITY_IDS.intern(facilityID);
+        setDate(date);
+        setTime(time);
+        setDurationMinutes(durationMinutes);
+        this.appointmentType = APPOINTMENT_TYPES.intern(appointmentType);
+        setStatus(status);
+        this.reason = REASONS.intern(reason);
         this.notes = notes;
-        this.createdDate = createdDate;
-        this.lastModified = lastModified;
+        setCreatedDate(createdDate);
+        setLastModified(lastModified);
     }
 
     // Getters and Setters
@@ -66,7 +78,7 @@ public class Appointment {
     }
 
     public void setClinicianID(String clinicianID) {
-        this.clinicianID = clinicianID;
+        this.clinicianID = CLINICIAN_IDS.intern(clinicianID);
     }
 
     public String getFacilityID() {
@@ -74,31 +86,55 @@ public class Appointment {
     }
 
     public void setFacilityID(String facilityID) {
-        this.facilityID = facilityID;
+        this.facilityID = FACILITY_IDS.intern(facilityID);
     }
 
     public String getDate() {
+        return CompactFields.formatDay(date, dateRaw);
+    }
+
+    /**
+     * Date as an epoch day, or CompactFields.NO_DAY if unset or not yyyy-MM-dd
+     */
+    public int getDateDay() {
         return date;
     }
 
     public void setDate(String date) {
-        this.date = date;
+        this.date = CompactFields.parseDay(date);
+        this.dateRaw = this.date == CompactFields.NO_DAY ? date : null;
     }
 
     public String getTime() {
+        return CompactFields.formatMinute(time, timeRaw);
+    }
+
+    /**
+     * Time in minutes since midnight, or CompactFields.NO_MINUTE if unset or not HH:mm
+     */
+    public int getTimeMinutes() {
         return time;
     }
 
     public void setTime(String time) {
-        this.time = time;
+        this.time = CompactFields.parseMinute(time);
+        this.timeRaw = this.time == CompactFields.NO_MINUTE ? time : null;
     }
 
     public String getStatus() {
+        return status != null ? status.getLabel() : statusRaw;
+    }
+
+    /**
+     * Status as a constant, or null if unset or not one of the known labels
+     */
+    public AppointmentStatus getStatusCode() {
         return status;
     }
 
     public void setStatus(String status) {
-        this.status = status;
+        this.status = AppointmentStatus.fromLabel(status);
+        this.statusRaw = this.status == null ? status : null;
     }
 
     public String getReason() {
@@ -106,7 +142,7 @@ public class Appointment {
     }
 
     public void setReason(String reason) {
-        this.reason = reason;
+        this.reason = REASONS.intern(reason);
     }
 
     public String getNotes() {
@@ -118,11 +154,19 @@ public class Appointment {
     }
 
     public String getDurationMinutes() {
+        return CompactFields.formatNumber(durationMinutes, durationMinutesRaw);
+    }
+
+    /**
+     * Duration minutes as a number, or CompactFields.NO_NUMBER if unset or not a plain integer
+     */
+    public int getDurationMinutesValue() {
         return durationMinutes;
     }
 
     public void setDurationMinutes(String durationMinutes) {
-        this.durationMinutes = durationMinutes;
+        this.durationMinutes = CompactFields.parseNumber(durationMinutes);
+        this.durationMinutesRaw = this.durationMinutes == CompactFields.NO_NUMBER ? durationMinutes : null;
     }
 
     public String getAppointmentType() {
@@ -130,28 +174,44 @@ public class Appointment {
     }
 
     public void setAppointmentType(String appointmentType) {
-        this.appointmentType = appointmentType;
+        this.appointmentType = APPOINTMENT_TYPES.intern(appointmentType);
     }
 
     public String getCreatedDate() {
+        return CompactFields.formatDay(createdDate, createdDateRaw);
+    }
+
+    /**
+     * Created date as an epoch day, or CompactFields.NO_DAY if unset or not yyyy-MM-dd
+     */
+    public int getCreatedDateDay() {
         return createdDate;
     }
 
     public void setCreatedDate(String createdDate) {
-        this.createdDate = createdDate;
+        this.createdDate = CompactFields.parseDay(createdDate);
+        this.createdDateRaw = this.createdDate == CompactFields.NO_DAY ? createdDate : null;
     }
 
     public String getLastModified() {
+        return CompactFields.formatDay(lastModified, lastModifiedRaw);
+    }
+
+    /**
+     * Last modified as an epoch day, or CompactFields.NO_DAY if unset or not yyyy-MM-dd
+     */
+    public int getLastModifiedDay() {
         return lastModified;
     }
 
     public void setLastModified(String lastModified) {
-        this.lastModified = lastModified;
+        this.lastModified = CompactFields.parseDay(lastModified);
+        this.lastModifiedRaw = this.lastModified == CompactFields.NO_DAY ? lastModified : null;
     }
 
     @Override
     public String toString() {
-        return appointmentID + " - " + date + " " + time + " (" + status + ")";
+        return appointmentID + " - " + getDate() + " " + getTime() + " (" + getStatus() + ")";
     }
 }
 
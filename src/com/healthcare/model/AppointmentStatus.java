@@ -0,0 +1,35 @@
+package com.healthcare.model;
+
+/**
+ * Known appointment statuses. An Appointment keeps any other status text as it was entered.
+ */
+public enum AppointmentStatus {
+    SCHEDULED("Scheduled"),
+    CONFIRMED("Confirmed"),
+    COMPLETED("Completed"),
+    CANCELLED("Cancelled"),
+    NO_SHOW("No Show");
+
+    private final String label;
+
+    AppointmentStatus(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Text as it appears in the CSV files and the UI
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Constant with exactly this label, or null
+     */
+    public static AppointmentStatus fromLabel(String label) {
+        for (AppointmentStatus value : values()) {
+            if (value.label.equals(label)) return value;
+        }
+        return null;
+    }
+}
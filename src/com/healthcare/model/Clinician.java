@@ -4,6 +4,12 @@ package com.healthcare.model;
  * Model class representing a Clinician
  */
 public class Clinician {
+    // Specialties, qualifications and workplaces are shared by many clinicians
+    private static final ValueDictionary QUALIFICATIONS = ValueDictionary.forColumn("clinician.qualification");
+    private static final ValueDictionary SPECIALTIES = ValueDictionary.forColumn("clinician.specialty");
+    private static final ValueDictionary WORKPLACES = ValueDictionary.forColumn("clinician.workplace");
+    private static final ValueDictionary WORKPLACE_TYPES = ValueDictionary.forColumn("clinician.workplaceType");
+
     private String clinicianID;
     private String firstName;
     private String lastName;
@@ -12,8 +18,10 @@ public class Clinician {
     private String gmcNumber;
     private String workplace;
     private String workplaceType;
-    private String employmentStatus;
-    private String startDate;
+    private EmploymentStatus employmentStatus;
+    private String employmentStatusRaw; // text that is not one of the EmploymentStatus labels
+    private int startDate = CompactFields.NO_DAY; // epoch day
+    private String startDateRaw; // text that is not an ISO date
     private String email;
     private String phone;
 
@@ -31,13 +39,13 @@ public class Clinician {
         this.clinicianID = clinicianID;
         this.firstName = firstName;
         this.lastName = lastName;
-        this.qualification = qualification;
-        this.specialty = specialty;
+        this.qualification = QUALIFICATIONS.intern(qualification);
+        this.specialty = SPECIALTIES.intern(specialty);
         this.gmcNumber = gmcNumber;
-        this.workplace = workplace;
-        this.workplaceType = workplaceType;
-        this.employmentStatus = employmentStatus;
-        this.startDate = startDate;
+        this.workplace = WORKPLACES.intern(workplace);
+        this.workplaceType = WORKPLACE_TYPES.intern(workplaceType);
+        setEmploymentStatus(employmentStatus);
+        setStartDate(startDate);
         this.email = email;
         this.phone = phone;
     }
@@ -72,7 +80,7 @@ public class Clinician {
     }
 
     public void setQualification(String qualification) {
-        this.qualification = qualification;
+        this.qualification = QUALIFICATIONS.intern(qualification);
     }
 
     public String getSpecialty() {
@@ -80,7 +88,7 @@ public class Clinician {
     }
 
     public void setSpecialty(String specialty) {
-        this.specialty = specialty;
+        this.specialty = SPECIALTIES.intern(specialty);
     }
 
     public String getWorkplace() {
@@ -88,7 +96,7 @@ public class Clinician {
     }
 
     public void setWorkplace(String workplace) {
-        this.workplace = workplace;
+        this.workplace = WORKPLACES.intern(workplace);
     }
 
     public String getEmail() {
@@ -120,23 +128,39 @@ public class Clinician {
     }
 
     public void setWorkplaceType(String workplaceType) {
-        this.workplaceType = workplaceType;
+        this.workplaceType = WORKPLACE_TYPES.intern(workplaceType);
     }
 
     public String getEmploymentStatus() {
+        return employmentStatus != null ? employmentStatus.getLabel() : employmentStatusRaw;
+    }
+
+    /**
+     * Employment status as a constant, or null if unset or not one of the known labels
+     */
+    public EmploymentStatus getEmploymentStatusCode() {
         return employmentStatus;
     }
 
     public void setEmploymentStatus(String employmentStatus) {
-        this.employmentStatus = employmentStatus;
+        this.employmentStatus = EmploymentStatus.fromLabel(employmentStatus);
+        this.employmentStatusRaw = this.employmentStatus == null ? employmentStatus : null;
     }
 
     public String getStartDate() {
+        return CompactFields.formatDay(startDate, startDateRaw);
+    }
+
+    /**
+     * Start date as an epoch day, or CompactFields.NO_DAY if unset or not yyyy-MM-dd
+     */
+    public int getStartDateDay() {
         return startDate;
     }
 
     public void setStartDate(String startDate) {
-        this.startDate = startDate;
+        this.startDate = CompactFields.parseDay(startDate);
+        this.startDateRaw = this.startDate == CompactFields.NO_DAY ? startDate : null;
     }
 
     @Override
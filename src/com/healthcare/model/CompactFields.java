@@ -0,0 +1,86 @@
+package com.healthcare.model;
+
+import java.time.DateTimeException;
+import java.time.LocalDate;
+
+/**
+ * Encodings the models use to keep dates, times and counts as primitives instead of Strings.
+ * Only text that formats back to exactly the same characters is encoded (ISO dates
+ * "2025-09-20", 24-hour "HH:mm" times, plain non-negative integers); anything else is kept
+ * as the original String so CSV files are written back unchanged.
+ */
+public final class CompactFields {
+    /** Date not set, or not an ISO yyyy-MM-dd date */
+    public static final int NO_DAY = Integer.MIN_VALUE;
+    /** Time not set, or not an HH:mm time */
+    public static final short NO_MINUTE = -1;
+    /** Count not set, or not a plain integer */
+    public static final int NO_NUMBER = Integer.MIN_VALUE;
+
+    private CompactFields() {
+    }
+
+    /**
+     * Epoch day of a yyyy-MM-dd date, or NO_DAY
+     */
+    public static int parseDay(String text) {
+        if (text == null || text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') return NO_DAY;
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        if (year < 0 || month < 0 || day < 0) return NO_DAY;
+        try {
+            return (int) LocalDate.of(year, month, day).toEpochDay();
+        } catch (DateTimeException e) {
+            return NO_DAY;
+        }
+    }
+
+    static String formatDay(int epochDay, String raw) {
+        return epochDay == NO_DAY ? raw : LocalDate.ofEpochDay(epochDay).toString();
+    }
+
+    /**
+     * Minutes since midnight of an HH:mm time, or NO_MINUTE
+     */
+    public static short parseMinute(String text) {
+        if (text == null || text.length() != 5 || text.charAt(2) != ':') return NO_MINUTE;
+        int hour = digits(text, 0, 2);
+        int minute = digits(text, 3, 5);
+        if (hour < 0 || hour > 23 || minute < 0 || minute > 59) return NO_MINUTE;
+        return (short) (hour * 60 + minute);
+    }
+
+    static String formatMinute(short minuteOfDay, String raw) {
+        if (minuteOfDay == NO_MINUTE) return raw;
+        int hour = minuteOfDay / 60;
+        int minute = minuteOfDay % 60;
+        return new String(new char[]{
+                (char) ('0' + hour / 10), (char) ('0' + hour % 10), ':',
+                (char) ('0' + minute / 10), (char) ('0' + minute % 10)});
+    }
+
+    /**
+     * Value of a plain non-negative integer without leading zeros, or NO_NUMBER
+     */
+    public static int parseNumber(String text) {
+        if (text == null || text.isEmpty() || text.length() > 9) return NO_NUMBER;
+        if (text.length() > 1 && text.charAt(0) == '0') return NO_NUMBER;
+        int value = digits(text, 0, text.length());
+        return value < 0 ? NO_NUMBER : value;
+    }
+
+    static String formatNumber(int value, String raw) {
+        return value == NO_NUMBER ? raw : Integer.toString(value);
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
@@ -0,0 +1,32 @@
+package com.healthcare.model;
+
+/**
+ * Employment status shared by clinicians and staff
+ */
+public enum EmploymentStatus {
+    FULL_TIME("Full-time"),
+    PART_TIME("Part-time");
+
+    private final String label;
+
+    EmploymentStatus(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Text as it appears in the CSV files and the UI
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Constant with exactly this label, or null
+     */
+    public static EmploymentStatus fromLabel(String label) {
+        for (EmploymentStatus value : values()) {
+            if (value.label.equals(label)) return value;
+        }
+        return null;
+    }
+}
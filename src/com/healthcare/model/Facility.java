@@ -4,6 +4,9 @@ package com.healthcare.model;
  * Model class representing a Facility
  */
 public class Facility {
+    // Facility type is one of a few values
+    private static final ValueDictionary TYPES = ValueDictionary.forColumn("facility.type");
+
     private String facilityID;
     private String name;
     private String type;
@@ -14,7 +17,8 @@ public class Facility {
     private String openingHours;
     private String managerName;
     private String services;
-    private String capacity;
+    private int capacity = CompactFields.NO_NUMBER;
+    private String capacityRaw; // text that is not a plain integer
 
     public Facility() {
     }
@@ -29,7 +33,7 @@ public class Facility {
                     String services, String capacity) {
         this.facilityID = facilityID;
         this.name = name;
-        this.type = type;
+        this.type = TYPES.intern(type);
         this.address = address;
         this.postcode = postcode;
         this.phone = phone;
@@ -37,7 +41,7 @@ public class Facility {
         this.openingHours = openingHours;
         this.managerName = managerName;
         this.services = services;
-        this.capacity = capacity;
+        setCapacity(capacity);
     }
 
     // Getters and Setters
@@ -62,7 +66,7 @@ public class Facility {
     }
 
     public void setType(String type) {
-        this.type = type;
+        this.type = TYPES.intern(type);
     }
 
     public String getAddress() {
@@ -98,11 +102,19 @@ public class Facility {
     }
 
     public String getCapacity() {
+        return CompactFields.formatNumber(capacity, capacityRaw);
+    }
+
+    /**
+     * Capacity as a number, or CompactFields.NO_NUMBER if unset or not a plain integer
+     */
+    public int getCapacityValue() {
         return capacity;
     }
 
     public void setCapacity(String capacity) {
-        this.capacity = capacity;
+        this.capacity = CompactFields.parseNumber(capacity);
+        this.capacityRaw = this.capacity == CompactFields.NO_NUMBER ? capacity : null;
     }
 
     public String getPostcode() {
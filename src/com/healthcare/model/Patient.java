@@ -4,10 +4,15 @@ package com.healthcare.model;
  * Model class representing a Patient
  */
 public class Patient {
+    // Gender and GP surgery repeat across patients
+    private static final ValueDictionary GENDERS = ValueDictionary.forColumn("patient.gender");
+    private static final ValueDictionary GP_SURGERIES = ValueDictionary.forColumn("patient.gpSurgery");
+
     private String patientID;
     private String firstName;
     private String lastName;
-    private String dateOfBirth;
+    private int dateOfBirth = CompactFields.NO_DAY; // epoch day
+    private String dateOfBirthRaw; // text that is not an ISO date
     private String gender;
     private String nhsNumber;
     private String email;
@@ -16,7 +21,8 @@ public class Patient {
     private String postcode;
     private String emergencyContactName;
     private String emergencyContactPhone;
-    private String registrationDate;
+    private int registrationDate = CompactFields.NO_DAY; // epoch day
+    private String registrationDateRaw; // text that is not an ISO date
     private String gpSurgery;
 
     public Patient() {
@@ -34,8 +40,8 @@ public class Patient {
         this.patientID = patientID;
         this.firstName = firstName;
         this.lastName = lastName;
-        this.dateOfBirth = dateOfBirth;
-        this.gender = gender;
+        setDateOfBirth(dateOfBirth);
+        this.gender = GENDERS.intern(gender);
         this.nhsNumber = nhsNumber;
         this.email = email;
         this.phone = phone;
@@ -43,8 +49,8 @@ public class Patient {
         this.postcode = postcode;
         this.emergencyContactName = emergencyContactName;
         this.emergencyContactPhone = emergencyContactPhone;
-        this.registrationDate = registrationDate;
-        this.gpSurgery = gpSurgery;
+        setRegistrationDate(registrationDate);
+        this.gpSurgery = GP_SURGERIES.intern(gpSurgery);
     }
 
     // Getters and Setters
@@ -73,11 +79,19 @@ public class Patient {
     }
 
     public String getDateOfBirth() {
+        return CompactFields.formatDay(dateOfBirth, dateOfBirthRaw);
+    }
+
+    /**
+     * Date of birth as an epoch day, or CompactFields.NO_DAY if unset or not yyyy-MM-dd
+     */
+    public int getDateOfBirthDay() {
         return dateOfBirth;
     }
 
     public void setDateOfBirth(String dateOfBirth) {
-        this.dateOfBirth = dateOfBirth;
+        this.dateOfBirth = CompactFields.parseDay(dateOfBirth);
+        this.dateOfBirthRaw = this.dateOfBirth == CompactFields.NO_DAY ? dateOfBirth : null;
     }
 
     public String getGender() {
@@ -85,7 +99,7 @@ public class Patient {
     }
 
     public void setGender(String gender) {
-        this.gender = gender;
+        this.gender = GENDERS.intern(gender);
     }
 
     public String getNhsNumber() {
@@ -125,7 +139,7 @@ public class Patient {
     }
 
     public void setGpSurgery(String gpSurgery) {
-        this.gpSurgery = gpSurgery;
+        this.gpSurgery = GP_SURGERIES.intern(gpSurgery);
     }
 
     public String getPostcode() {
@@ -153,11 +167,19 @@ public class Patient {
     }
 
     public String getRegistrationDate() {
+        return CompactFields.formatDay(registrationDate, registrationDateRaw);
+    }
+
+    /**
+     * Registration date as an epoch day, or CompactFields.NO_DAY if unset or not yyyy-MM-dd
+     */
+    public int getRegistrationDateDay() {
         return registrationDate;
     }
 
     public void setRegistrationDate(String registrationDate) {
-        this.registrationDate = registrationDate;
+        this.registrationDate = CompactFields.parseDay(registrationDate);
+        this.registrationDateRaw = this.registrationDate == CompactFields.NO_DAY ? registrationDate : null;
     }
 
     @Override
@@ -4,6 +4,14 @@ package com.healthcare.model;
  * Model class representing a Prescription
  */
 public class Prescription {
+    // Medications, dosages and pharmacies come from a short list, so rows share their Strings
+    private static final ValueDictionary CLINICIAN_IDS = ValueDictionary.forColumn("prescription.clinicianID");
+    private static final ValueDictionary MEDICATIONS = ValueDictionary.forColumn("prescription.medication");
+    private static final ValueDictionary DOSAGES = ValueDictionary.forColumn("prescription.dosage");
+    private static final ValueDictionary FREQUENCIES = ValueDictionary.forColumn("prescription.frequency");
+    private static final ValueDictionary QUANTITIES = ValueDictionary.forColumn("prescription.quantity");
+    private static final ValueDictionary PHARMACIES = ValueDictionary.forColumn("prescription.pharmacy");
+
     private String prescriptionID;
     private String patientID;
     private String clinicianID;
@@ -11,13 +19,18 @@ public class Prescription {
     private String medication;
     private String dosage;
     private String frequency;
-    private String durationDays;
+    private int durationDays = CompactFields.NO_NUMBER;
+    private String durationDaysRaw; // text that is not a plain integer
     private String quantity;
     private String pharmacy;
-    private String datePrescribed;
-    private String issueDate;
-    private String collectionDate;
-    private String collectionStatus;
+    private int datePrescribed = CompactFields.NO_DAY; // epoch day
+    private String datePrescribedRaw; // text that is not an ISO date
+    private int issueDate = CompactFields.NO_DAY; // epoch day
+    private String issueDateRaw; // text that is not an ISO date
+    private int collectionDate = CompactFields.NO_DAY; // epoch day
+    private String collectionDateRaw; // text that is not an ISO date
+    private PrescriptionStatus collectionStatus;
+    private String collectionStatusRaw; // text that is not one of the PrescriptionStatus labels
     private String notes;
 
     public Prescription() {
@@ -35,18 +48,18 @@ public class Prescription {
                         String collectionDate, String collectionStatus, String notes) {
         this.prescriptionID = prescriptionID;
         this.patientID = patientID;
-        this.clinicianID = clinicianID;
+        this.clinicianID = CLINICIAN_IDS.intern(clinicianID);
         this.appointmentID = appointmentID;
-        this.medication = medication;
-        this.dosage = dosage;
-        this.frequency = frequency;
-        this.durationDays = durationDays;
-        this.quantity = quantity;
-        this.pharmacy = pharmacy;
-        this.datePrescribed = datePrescribed;
-        this.issueDate = issueDate;
-        this.collectionDate = collectionDate;
-        this.collectionStatus = collectionStatus;
+        this.medication = MEDICATIONS.intern(medication);
+        this.dosage = DOSAGES.intern(dosage);
+        this.frequency = FREQUENCIES.intern(frequency);
+        setDurationDays(durationDays);
+        this.quantity = QUANTITIES.intern(quantity);
+        this.pharmacy = PHARMACIES.intern(pharmacy);
+        setDatePrescribed(datePrescribed);
+        setIssueDate(issueDate);
+        setCollectionDate(collectionDate);
+        setCollectionStatus(collectionStatus);
         this.notes = notes;
     }
 
@@ -72,7 +85,7 @@ public class Prescription {
     }
 
     public void setClinicianID(String clinicianID) {
-        this.clinicianID = clinicianID;
+        this.clinicianID = CLINICIAN_IDS.intern(clinicianID);
     }
 
     public String getMedication() {
@@ -80,7 +93,7 @@ public class Prescription {
     }
 
     public void setMedication(String medication) {
-        this.medication = medication;
+        this.medication = MEDICATIONS.intern(medication);
     }
 
     public String getDosage() {
@@ -88,7 +101,7 @@ public class Prescription {
     }
 
     public void setDosage(String dosage) {
-        this.dosage = dosage;
+        this.dosage = DOSAGES.intern(dosage);
     }
 
     public String getQuantity() {
@@ -96,7 +109,7 @@ public class Prescription {
     }
 
     public void setQuantity(String quantity) {
-        this.quantity = quantity;
+        this.quantity = QUANTITIES.intern(quantity);
     }
 
     public String getPharmacy() {
@@ -104,23 +117,39 @@ public class Prescription {
     }
 
     public void setPharmacy(String pharmacy) {
-        this.pharmacy = pharmacy;
+        this.pharmacy = PHARMACIES.intern(pharmacy);
     }
 
     public String getDatePrescribed() {
+        return CompactFields.formatDay(datePrescribed, datePrescribedRaw);
+    }
+
+    /**
+     * Date prescribed as an epoch day, or CompactFields.NO_DAY if unset or not yyyy-MM-dd
+     */
+    public int getDatePrescribedDay() {
         return datePrescribed;
     }
 
     public void setDatePrescribed(String datePrescribed) {
-        this.datePrescribed = datePrescribed;
+        this.datePrescribed = CompactFields.parseDay(datePrescribed);
+        this.datePrescribedRaw = this.datePrescribed == CompactFields.NO_DAY ? datePrescribed : null;
     }
 
     public String getCollectionStatus() {
+        return collectionStatus != null ? collectionStatus.getLabel() : collectionStatusRaw;
+    }
+
+    /**
+     * Collection status as a constant, or null if unset or not one of the known labels
+     */
+    public PrescriptionStatus getCollectionStatusCode() {
         return collectionStatus;
     }
 
     public void setCollectionStatus(String collectionStatus) {
-        this.collectionStatus = collectionStatus;
+        this.collectionStatus = PrescriptionStatus.fromLabel(collectionStatus);
+        this.collectionStatusRaw = this.collectionStatus == null ? collectionStatus : null;
     }
 
     public String getNotes() {
@@ -144,36 +173,60 @@ public class Prescription {
     }
 
     public void setFrequency(String frequency) {
-        this.frequency = frequency;
+        this.frequency = FREQUENCIES.intern(frequency);
     }
 
     public String getDurationDays() {
+        return CompactFields.formatNumber(durationDays, durationDaysRaw);
+    }
+
+    /**
+     * Duration days as a number, or CompactFields.NO_NUMBER if unset or not a plain integer
+     */
+    public int getDurationDaysValue() {
         return durationDays;
     }
 
     public void setDurationDays(String durationDays) {
-        this.durationDays = durationDays;
+        this.durationDays = CompactFields.parseNumber(durationDays);
+        this.durationDaysRaw = this.durationDays == CompactFields.NO_NUMBER ? durationDays : null;
     }
 
     public String getIssueDate() {
+        return CompactFields.formatDay(issueDate, issueDateRaw);
+    }
+
+    /**
+     * Issue date as an epoch day, or CompactFields.NO_DAY if unset or not yyyy-MM-dd
+     */
+    public int getIssueDateDay() {
         return issueDate;
     }
 
     public void setIssueDate(String issueDate) {
-        this.issueDate = issueDate;
+        this.issueDate = CompactFields.parseDay(issueDate);
+        this.issueDateRaw = this.issueDate == CompactFields.NO_DAY ? issueDate : null;
     }
 
     public String getCollectionDate() {
+        return CompactFields.formatDay(collectionDate, collectionDateRaw);
+    }
+
+    /**
+     * Collection date as an epoch day, or CompactFields.NO_DAY if unset or not yyyy-MM-dd
+     */
+    public int getCollectionDateDay() {
         return collectionDate;
     }
 
     public void setCollectionDate(String collectionDate) {
-        this.collectionDate = collectionDate;
+        this.collectionDate = CompactFields.parseDay(collectionDate);
+        this.collectionDateRaw = this.collectionDate == CompactFields.NO_DAY ? collectionDate : null;
     }
 
     @Override
     public String toString() {
-        return prescriptionID + " - " + medication + " (" + datePrescribed + ")";
+        return prescriptionID + " - " + medication + " (" + getDatePrescribed() + ")";
     }
 }
 
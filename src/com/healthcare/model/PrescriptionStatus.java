@@ -0,0 +1,34 @@
+package com.healthcare.model;
+
+/**
+ * Known prescription collection statuses
+ */
+public enum PrescriptionStatus {
+    ISSUED("Issued"),
+    COLLECTED("Collected"),
+    PENDING("Pending"),
+    CANCELLED("Cancelled");
+
+    private final String label;
+
+    PrescriptionStatus(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Text as it appears in the CSV files and the UI
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Constant with exactly this label, or null
+     */
+    public static PrescriptionStatus fromLabel(String label) {
+        for (PrescriptionStatus value : values()) {
+            if (value.label.equals(label)) return value;
+        }
+        return null;
+    }
+}
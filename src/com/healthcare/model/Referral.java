@@ -4,22 +4,34 @@ package com.healthcare.model;
  * Model class representing a Referral
  */
 public class Referral {
+    // Referring/receiving parties and reasons repeat from referral to referral
+    private static final ValueDictionary REFERRING_CLINICIAN_IDS = ValueDictionary.forColumn("referral.referringClinicianID");
+    private static final ValueDictionary RECEIVING_CLINICIAN_IDS = ValueDictionary.forColumn("referral.receivingClinicianID");
+    private static final ValueDictionary REFERRING_FACILITIES = ValueDictionary.forColumn("referral.referringFacility");
+    private static final ValueDictionary RECEIVING_FACILITIES = ValueDictionary.forColumn("referral.receivingFacility");
+    private static final ValueDictionary REASONS = ValueDictionary.forColumn("referral.referralReason");
+
     private String referralID;
     private String patientID;
     private String referringClinicianID;
     private String receivingClinicianID;
     private String referringFacility;
     private String receivingFacility;
-    private String date;
-    private String urgency;
+    private int date = CompactFields.NO_DAY; // epoch day
+    private String dateRaw; // text that is not an ISO date
+    private Urgency urgency;
+    private String urgencyRaw; // text that is not one of the Urgency labels
     private String referralReason;
     private String clinicalSummary;
     private String requestedInvestigations;
     private String appointmentID;
     private String notes;
-    private String status;
-    private String createdDate;
-    private String lastUpdated;
+    private ReferralStatus status;
+    private String statusRaw; // text that is not one of the ReferralStatus labels
+    private int createdDate = CompactFields.NO_DAY; // epoch day
+    private String createdDateRaw; // text that is not an ISO date
+    private int lastUpdated = CompactFields.NO_DAY; // epoch day
+    private String lastUpdatedRaw; // text that is not an ISO date
 
     public Referral() {
     }
@@ -38,20 +50,20 @@ public class Referral {
                     String createdDate, String lastUpdated) {
         this.referralID = referralID;
         this.patientID = patientID;
-        this.referringClinicianID = referringClinicianID;
-        this.receivingClinicianID = receivingClinicianID;
-        this.referringFacility = referringFacility;
-        this.receivingFacility = receivingFacility;
-        this.date = date;
-        this.urgency = urgency;
-        this.referralReason = referralReason;
+        this.referringClinicianID = REFERRING_CLINICIAN_IDS.intern(referringClinicianID);
+        this.receivingClinicianID = RECEIVING_CLINICIAN_IDS.intern(receivingClinicianID);
+        this.referringFacility = REFERRING_FACILITIES.intern(referringFacility);
+        this.receivingFacility = RECEIVING_FACILITIES.intern(receivingFacility);
+        setDate(date);
+        setUrgency(urgency);
+        this.referralReason = REASONS.intern(referralReason);
         this.clinicalSummary = clinicalSummary;
         this.requestedInvestigations = requestedInvestigations;
         this.appointmentID = appointmentID;
         this.notes = notes;
-        this.status = status;
-        this.createdDate = createdDate;
-        this.lastUpdated = lastUpdated;
+        setStatus(status);
+        setCreatedDate(createdDate);
+        setLastUpdated(lastUpdated);
     }
 
     // Getters and Setters
@@ -76,7 +88,7 @@ public class Referral {
     }
 
     public void setReferringClinicianID(String referringClinicianID) {
-        this.referringClinicianID = referringClinicianID;
+        this.referringClinicianID = REFERRING_CLINICIAN_IDS.intern(referringClinicianID);
     }
 
     public String getReceivingClinicianID() {
@@ -84,7 +96,7 @@ public class Referral {
     }
 
     public void setReceivingClinicianID(String receivingClinicianID) {
-        this.receivingClinicianID = receivingClinicianID;
+        this.receivingClinicianID = RECEIVING_CLINICIAN_IDS.intern(receivingClinicianID);
     }
 
     public String getReferringFacility() {
@@ -92,7 +104,7 @@ public class Referral {
     }
 
     public void setReferringFacility(String referringFacility) {
-        this.referringFacility = referringFacility;
+        this.referringFacility = REFERRING_FACILITIES.intern(referringFacility);
     }
 
     public String getReceivingFacility() {
@@ -100,23 +112,39 @@ public class Referral {
     }
 
     public void setReceivingFacility(String receivingFacility) {
-        this.receivingFacility = receivingFacility;
+        this.receivingFacility = RECEIVING_FACILITIES.intern(receivingFacility);
     }
 
     public String getDate() {
+        return CompactFields.formatDay(date, dateRaw);
+    }
+
+    /**
+     * Date as an epoch day, or CompactFields.NO_DAY if unset or not yyyy-MM-dd
+     */
+    public int getDateDay() {
         return date;
     }
 
     public void setDate(String date) {
-        this.date = date;
+        this.date = CompactFields.parseDay(date);
+        this.dateRaw = this.date == CompactFields.NO_DAY ? date : null;
     }
 
     public String getUrgency() {
+        return urgency != null ? urgency.getLabel() : urgencyRaw;
+    }
+
+    /**
+     * Urgency as a constant, or null if unset or not one of the known labels
+     */
+    public Urgency getUrgencyCode() {
         return urgency;
     }
 
     public void setUrgency(String urgency) {
-        this.urgency = urgency;
+        this.urgency = Urgency.fromLabel(urgency);
+        this.urgencyRaw = this.urgency == null ? urgency : null;
     }
 
     public String getClinicalSummary() {
@@ -128,11 +156,19 @@ public class Referral {
     }
 
     public String getStatus() {
+        return status != null ? status.getLabel() : statusRaw;
+    }
+
+    /**
+     * Status as a constant, or null if unset or not one of the known labels
+     */
+    public ReferralStatus getStatusCode() {
         return status;
     }
 
     public void setStatus(String status) {
-        this.status = status;
+        this.status = ReferralStatus.fromLabel(status);
+        this.statusRaw = this.status == null ? status : null;
     }
 
     public String getReferralReason() {
@@ -140,7 +176,7 @@ public class Referral {
     }
 
     public void setReferralReason(String referralReason) {
-        this.referralReason = referralReason;
+        this.referralReason = REASONS.intern(referralReason);
     }
 
     public String getRequestedInvestigations() {
@@ -168,24 +204,40 @@ public class Referral {
     }
 
     public String getCreatedDate() {
+        return CompactFields.formatDay(createdDate, createdDateRaw);
+    }
+
+    /**
+     * Created date as an epoch day, or CompactFields.NO_DAY if unset or not yyyy-MM-dd
+     */
+    public int getCreatedDateDay() {
         return createdDate;
     }
 
     public void setCreatedDate(String createdDate) {
-        this.createdDate = createdDate;
+        this.createdDate = CompactFields.parseDay(createdDate);
+        this.createdDateRaw = this.createdDate == CompactFields.NO_DAY ? createdDate : null;
     }
 
     public String getLastUpdated() {
+        return CompactFields.formatDay(lastUpdated, lastUpdatedRaw);
+    }
+
+    /**
+     * Last updated as an epoch day, or CompactFields.NO_DAY if unset or not yyyy-MM-dd
+     */
+    public int getLastUpdatedDay() {
         return lastUpdated;
     }
 
     public void setLastUpdated(String lastUpdated) {
-        this.lastUpdated = lastUpdated;
+        this.lastUpdated = CompactFields.parseDay(lastUpdated);
+        this.lastUpdatedRaw = this.lastUpdated == CompactFields.NO_DAY ? lastUpdated : null;
     }
 
     @Override
     public String toString() {
-        return referralID + " - " + date + " (" + urgency + ")";
+        return referralID + " - " + getDate() + " (" + getUrgency() + ")";
     }
 }
 
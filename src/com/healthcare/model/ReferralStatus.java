@@ -0,0 +1,35 @@
+package com.healthcare.model;
+
+/**
+ * Known referral statuses (ReferralManager queues PENDING ones)
+ */
+public enum ReferralStatus {
+    NEW("New"),
+    PENDING("Pending"),
+    IN_PROGRESS("In Progress"),
+    COMPLETED("Completed"),
+    CANCELLED("Cancelled");
+
+    private final String label;
+
+    ReferralStatus(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Text as it appears in the CSV files and the UI
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Constant with exactly this label, or null
+     */
+    public static ReferralStatus fromLabel(String label) {
+        for (ReferralStatus value : values()) {
+            if (value.label.equals(label)) return value;
+        }
+        return null;
+    }
+}
@@ -4,6 +4,13 @@ package com.healthcare.model;
  * Model class representing Staff (non-clinical)
  */
 public class Staff {
+    // Role, department and the like take only a few values across all staff
+    private static final ValueDictionary ROLES = ValueDictionary.forColumn("staff.role");
+    private static final ValueDictionary DEPARTMENTS = ValueDictionary.forColumn("staff.department");
+    private static final ValueDictionary FACILITY_IDS = ValueDictionary.forColumn("staff.facilityID");
+    private static final ValueDictionary LINE_MANAGERS = ValueDictionary.forColumn("staff.lineManager");
+    private static final ValueDictionary ACCESS_LEVELS = ValueDictionary.forColumn("staff.accessLevel");
+
     private String staffID;
     private String firstName;
     private String lastName;
@@ -12,8 +19,10 @@ public class Staff {
     private String facilityID;
     private String email;
     private String phone;
-    private String employmentStatus;
-    private String startDate;
+    private EmploymentStatus employmentStatus;
+    private String employmentStatusRaw; // text that is not one of the EmploymentStatus labels
+    private int startDate = CompactFields.NO_DAY; // epoch day
+    private String startDateRaw; // text that is not an ISO date
     private String lineManager;
     private String accessLevel;
 
@@ -31,15 +40,15 @@ public class Staff {
         this.staffID = staffID;
         this.firstName = firstName;
         this.lastName = lastName;
-        this.role = role;
-        this.department = department;
-        this.facilityID = facilityID;
+        this.role = ROLES.intern(role);
+        this.department = DEPARTMENTS.intern(department);
+        this.facilityID = FACILITY_IDS.intern(facilityID);
         this.email = email;
         this.phone = phone;
-        this.employmentStatus = employmentStatus;
-        this.startDate = startDate;
-        this.lineManager = lineManager;
-        this.accessLevel = accessLevel;
+        setEmploymentStatus(employmentStatus);
+        setStartDate(startDate);
+        this.lineManager = LINE_MANAGERS.intern(lineManager);
+        this.accessLevel = ACCESS_LEVELS.intern(accessLevel);
     }
 
     // Getters and Setters
@@ -72,7 +81,7 @@ public class Staff {
     }
 
     public void setRole(String role) {
-        this.role = role;
+        this.role = ROLES.intern(role);
     }
 
     public String getFacilityID() {
@@ -80,7 +89,7 @@ public class Staff {
     }
 
     public void setFacilityID(String facilityID) {
-        this.facilityID = facilityID;
+        this.facilityID = FACILITY_IDS.intern(facilityID);
     }
 
     public String getEmail() {
@@ -104,23 +113,39 @@ public class Staff {
     }
 
     public void setDepartment(String department) {
-        this.department = department;
+        this.department = DEPARTMENTS.intern(department);
     }
 
     public String getEmploymentStatus() {
+        return employmentStatus != null ? employmentStatus.getLabel() : employmentStatusRaw;
+    }
+
+    /**
+     * Employment status as a constant, or null if unset or not one of the known labels
+     */
+    public EmploymentStatus getEmploymentStatusCode() {
         return employmentStatus;
     }
 
     public void setEmploymentStatus(String employmentStatus) {
-        this.employmentStatus = employmentStatus;
+        this.employmentStatus = EmploymentStatus.fromLabel(employmentStatus);
+        this.employmentStatusRaw = this.employmentStatus == null ? employmentStatus : null;
     }
 
     public String getStartDate() {
+        return CompactFields.formatDay(startDate, startDateRaw);
+    }
+
+    /**
+     * Start date as an epoch day, or CompactFields.NO_DAY if unset or not yyyy-MM-dd
+     */
+    public int getStartDateDay() {
         return startDate;
     }
 
     public void setStartDate(String startDate) {
-        this.startDate = startDate;
+        this.startDate = CompactFields.parseDay(startDate);
+        this.startDateRaw = this.startDate == CompactFields.NO_DAY ? startDate : null;
     }
 
     public String getLineManager() {
@@ -128,7 +153,7 @@ public class Staff {
     }
 
     public void setLineManager(String lineManager) {
-        this.lineManager = lineManager;
+        this.lineManager = LINE_MANAGERS.intern(lineManager);
     }
 
     public String getAccessLevel() {
@@ -136,7 +161,7 @@ public class Staff {
     }
 
     public void setAccessLevel(String accessLevel) {
-        this.accessLevel = accessLevel;
+        this.accessLevel = ACCESS_LEVELS.intern(accessLevel);
     }
 
     @Override
@@ -0,0 +1,33 @@
+package com.healthcare.model;
+
+/**
+ * Referral urgency levels
+ */
+public enum Urgency {
+    URGENT("Urgent"),
+    ROUTINE("Routine"),
+    NON_URGENT("Non-urgent");
+
+    private final String label;
+
+    Urgency(String label) {
+        this.label = label;
+    }
+
+    /**
+     * Text as it appears in the CSV files and the UI
+     */
+    public String getLabel() {
+        return label;
+    }
+
+    /**
+     * Constant with exactly this label, or null
+     */
+    public static Urgency fromLabel(String label) {
+        for (Urgency value : values()) {
+            if (value.label.equals(label)) return value;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,110 @@
+package com.healthcare.model;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Interning table for one low-cardinality column (appointment type, pharmacy, staff role...).
+ * The CSV parser makes a new String for every field of every row; passing it through
+ * intern() hands back the first instance seen with the same text, so a million rows
+ * share a handful of Strings. A column that turns out to have many distinct values stops
+ * growing at MAX_VALUES entries and passes new values through unchanged.
+ *
+ * Thread-safe: the parallel CSV reader builds rows on several threads at once.
+ */
+public final class ValueDictionary {
+    private static final int MAX_VALUES = 4096;
+    private static final List<ValueDictionary> ALL = new CopyOnWriteArrayList<>();
+
+    private final String column;
+    private final Map<String, String> values = new ConcurrentHashMap<>();
+    private final LongAdder shared = new LongAdder();
+    private final LongAdder savedBytes = new LongAdder();
+
+    private ValueDictionary(String column) {
+        this.column = column;
+    }
+
+    /**
+     * New dictionary for a column, included in the totals below
+     */
+    static ValueDictionary forColumn(String column) {
+        ValueDictionary dictionary = new ValueDictionary(column);
+        ALL.add(dictionary);
+        return dictionary;
+    }
+
+    /**
+     * The shared instance equal to value (value itself the first time it is seen)
+     */
+    public String intern(String value) {
+        if (value == null) return null;
+
+        String existing = values.get(value);
+        if (existing == null) {
+            if (values.size() >= MAX_VALUES) return value;
+            existing = values.putIfAbsent(value, value);
+            if (existing == null) return value;
+        }
+        if (existing != value) {
+            shared.increment();
+            savedBytes.add(stringBytes(value));
+        }
+        return existing;
+    }
+
+    /**
+     * Approximate heap taken by a String and its Latin-1 backing array, with compressed oops
+     */
+    private static long stringBytes(String value) {
+        return 24 + ((16 + value.length() + 7) & ~7);
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    public int distinctValues() {
+        return values.size();
+    }
+
+    /**
+     * Times intern() replaced a fresh String with the shared one
+     */
+    public long sharedCount() {
+        return shared.sum();
+    }
+
+    public long savedBytes() {
+        return savedBytes.sum();
+    }
+
+    /**
+     * Bytes saved by all column dictionaries since start-up
+     */
+    public static long totalSavedBytes() {
+        long total = 0;
+        for (ValueDictionary dictionary : ALL) {
+            total += dictionary.savedBytes();
+        }
+        return total;
+    }
+
+    /**
+     * Values shared by all column dictionaries since start-up
+     */
+    public static long totalSharedCount() {
+        long total = 0;
+        for (ValueDictionary dictionary : ALL) {
+            total += dictionary.sharedCount();
+        }
+        return total;
+    }
+
+    public static List<ValueDictionary> all() {
+        return List.copyOf(ALL);
+    }
+}
@@ -0,0 +1,339 @@
+package com.healthcare.referral;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of audit records (referral emails or EHR updates), numbered from 0.
+ *
+ * The newest records are kept in a fixed-size ring in memory. Once a directory is attached,
+ * every record is also written to segment files healthcare.NAME.FIRSTSEQ.log there, in the
+ * same framing as the journal: int payloadLength, int crc32(payload), UTF-8 payload.
+ * A segment is closed once it reaches segmentBytes and the oldest is deleted once there
+ * are more than maxSegments, so neither memory nor disk use grows without bound.
+ * Records are not forced to disk one by one; a crash may lose the last few, and a torn
+ * tail is cut off when the directory is attached again.
+ *
+ * read() pages through whatever is still available (disk first, then the ring), and forEach()
+ * streams it, so readers never copy the whole trail. Readers hold the lock only to note
+ * which segments and ring records to read; the files are read, and the caller's action
+ * run, without it, so a slow reader does not hold up append(). Records in a segment that
+ * rotation deletes in the meantime are skipped.
+ */
+final class AuditLog implements AutoCloseable {
+    static final int DEFAULT_MEMORY_RECORDS = 1000;
+    static final long DEFAULT_SEGMENT_BYTES = 4L * 1024 * 1024;
+    static final int DEFAULT_MAX_SEGMENTS = 16;
+
+    private static final String SUFFIX = ".log";
+
+    private final String name;
+    private final long segmentBytes;
+    private final int maxSegments;
+
+    private final String[] ring;
+    private int ringHead; // slot of the oldest record in the ring
+    private int ringCount;
+    private long nextSeq;
+    private long written; // records below this sequence number are in a segment file
+
+    private File directory;
+    private final TreeMap<Long, File> segments = new TreeMap<>(); // first seq -> file
+    private FileChannel current;
+
+    AuditLog(String name, int memoryRecords, long segmentBytes, int maxSegments) {
+        this.name = name;
+        this.ring = new String[Math.max(1, memoryRecords)];
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = Math.max(1, maxSegments);
+    }
+
+    AuditLog(String name) {
+        this(name, DEFAULT_MEMORY_RECORDS, DEFAULT_SEGMENT_BYTES, DEFAULT_MAX_SEGMENTS);
+    }
+
+    /**
+     * Keep the log in segment files under dataDirectory from now on, continuing the numbering
+     * of any segments already there. Records held only in memory so far are written after them;
+     * those of a previously attached directory stay with it.
+     */
+    synchronized void attach(String dataDirectory) throws IOException {
+        File target = new File(dataDirectory).getAbsoluteFile();
+        if (target.equals(directory)) return;
+        List<String> pending = new ArrayList<>();
+        if (directory == null) { // carry over what never reached a segment
+            long inMemory = nextSeq - ringCount;
+            for (long seq = Math.max(written, inMemory); seq < nextSeq; seq++) {
+                pending.add(ring[(int) ((ringHead + (seq - inMemory)) % ring.length)]);
+            }
+        }
+        closeSegment();
+        segments.clear();
+        directory = target;
+
+        String prefix = "healthcare." + name + ".";
+        File[] files = directory.listFiles((dir, file) -> file.startsWith(prefix) && file.endsWith(SUFFIX));
+        if (files != null) {
+            for (File file : files) {
+                String number = file.getName().substring(prefix.length(), file.getName().length() - SUFFIX.length());
+                try {
+                    segments.put(Long.parseLong(number), file);
+                } catch (NumberFormatException e) {
+                    System.err.println("Ignoring unexpected audit file " + file);
+                }
+            }
+        }
+
+        Arrays.fill(ring, null);
+        ringHead = 0;
+        ringCount = 0;
+        nextSeq = 0;
+        written = 0;
+        if (!segments.isEmpty()) {
+            Map.Entry<Long, File> last = segments.lastEntry();
+            current = FileChannel.open(last.getValue().toPath(), StandardOpenOption.READ, StandardOpenOption.WRITE);
+            nextSeq = last.getKey() + openTail(current, last.getValue());
+            written = nextSeq;
+        }
+        for (String record : pending) {
+            append(record);
+        }
+    }
+
+    /**
+     * Count the intact records of the newest segment, cut off anything after them and
+     * position the channel for appending
+     */
+    private static long openTail(FileChannel channel, File file) throws IOException {
+        long count = 0;
+        long good = 0;
+        ByteBuffer header = ByteBuffer.allocate(8);
+        CRC32 crc = new CRC32();
+        while (true) {
+            header.clear();
+            if (channel.read(header, good) < 8) break;
+            header.flip();
+            int length = header.getInt();
+            int expected = header.getInt();
+            if (length < 0 || good + 8 + length > channel.size()) break;
+            ByteBuffer payload = ByteBuffer.allocate(length);
+            channel.read(payload, good + 8);
+            payload.flip();
+            crc.reset();
+            crc.update(payload);
+            if ((int) crc.getValue() != expected) break;
+            good += 8 + length;
+            count++;
+        }
+        if (good < channel.size()) {
+            System.err.println("Audit log " + file + ": dropping " + (channel.size() - good) + " bytes of damaged tail");
+            channel.truncate(good);
+        }
+        channel.position(good);
+        return count;
+    }
+
+    synchronized void append(String record) {
+        ring[(ringHead + ringCount) % ring.length] = record;
+        if (ringCount < ring.length) {
+            ringCount++;
+        } else {
+            ringHead = (ringHead + 1) % ring.length;
+        }
+        long seq = nextSeq++;
+        if (directory != null) {
+            try {
+                write(seq, record);
+            } catch (IOException e) {
+                System.err.println("Error writing audit log " + name + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private void write(long seq, String record) throws IOException {
+        byte[] payload = record.getBytes(StandardCharsets.UTF_8);
+        if (current == null || (current.size() > 0 && current.size() + 8 + payload.length > segmentBytes)) {
+            startSegment(seq);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer out = ByteBuffer.allocate(8 + payload.length);
+        out.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+        while (out.hasRemaining()) {
+            current.write(out);
+        }
+        written = seq + 1;
+    }
+
+    private void startSegment(long firstSeq) throws IOException {
+        closeSegment();
+        File file = new File(directory, String.format("healthcare.%s.%012d%s", name, firstSeq, SUFFIX));
+        current = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        segments.put(firstSeq, file);
+        while (segments.size() > maxSegments) {
+            Files.deleteIfExists(segments.pollFirstEntry().getValue().toPath());
+        }
+    }
+
+    private void closeSegment() throws IOException {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+    }
+
+    /**
+     * Number of records ever appended (the next record's sequence number)
+     */
+    synchronized long size() {
+        return nextSeq;
+    }
+
+    /**
+     * Sequence number of the oldest record that can still be read
+     */
+    synchronized long firstAvailable() {
+        long inMemory = nextSeq - ringCount;
+        return segments.isEmpty() ? inMemory : Math.min(inMemory, segments.firstKey());
+    }
+
+    /**
+     * Up to limit records starting at sequence number from (or at the oldest still available)
+     */
+    List<String> read(long from, int limit) {
+        List<String> page = new ArrayList<>(Math.max(0, Math.min(limit, 1024)));
+        forEach(from, limit, page::add);
+        return page;
+    }
+
+    /**
+     * Pass every available record from sequence number from onwards to action, oldest first
+     */
+    void forEach(long from, Consumer<String> action) {
+        forEach(from, Long.MAX_VALUE, action);
+    }
+
+    private void forEach(long from, long limit, Consumer<String> action) {
+        long seq;
+        long diskEnd;
+        NavigableMap<Long, File> files = null;
+        List<String> memory = new ArrayList<>();
+        synchronized (this) {
+            seq = Math.max(from, firstAvailable());
+            long end = limit >= nextSeq - seq ? nextSeq : seq + limit;
+            long inMemory = nextSeq - ringCount;
+            diskEnd = Math.min(end, inMemory);
+            if (seq < diskEnd) {
+                Long first = segments.floorKey(seq);
+                files = new TreeMap<>(segments.tailMap(first == null ? segments.firstKey() : first, true));
+            }
+            for (long next = Math.max(seq, inMemory); next < end; next++) {
+                memory.add(ring[(int) ((ringHead + (next - inMemory)) % ring.length)]);
+            }
+        }
+
+        if (files != null) {
+            try {
+                readSegments(files, seq, diskEnd, action);
+            } catch (IOException e) {
+                System.err.println("Error reading audit log " + name + ": " + e.getMessage());
+            }
+        }
+        for (String record : memory) {
+            action.accept(record);
+        }
+    }
+
+    /**
+     * Stream records [seq, end) from the given segment files, skipping any deleted since
+     */
+    private static void readSegments(NavigableMap<Long, File> files, long seq, long end, Consumer<String> action)
+            throws IOException {
+        seq = Math.max(seq, files.firstKey());
+        for (Map.Entry<Long, File> segment : files.entrySet()) {
+            if (seq >= end) break;
+            long position = segment.getKey();
+            seq = Math.max(seq, position); // after a skipped segment
+            try (InputStream file = Files.newInputStream(segment.getValue().toPath());
+                 DataInputStream in = new DataInputStream(new BufferedInputStream(file, 64 * 1024))) {
+                while (seq < end) {
+                    int length;
+                    try {
+                        length = in.readInt();
+                    } catch (EOFException e) {
+                        break; // on to the next segment
+                    }
+                    in.readInt(); // crc, checked when the segment was opened for appending
+                    if (position < seq) {
+                        in.skipNBytes(length);
+                    } else {
+                        byte[] payload = new byte[length];
+                        in.readFully(payload);
+                        action.accept(new String(payload, StandardCharsets.UTF_8));
+                        seq++;
+                    }
+                    position++;
+                }
+            } catch (NoSuchFileException e) {
+                // rotated out while we read the ones before it
+            }
+        }
+    }
+
+    /**
+     * Records still held in memory, oldest first
+     */
+    synchronized List<String> memoryRecords() {
+        List<String> list = new ArrayList<>(ringCount);
+        for (int i = 0; i < ringCount; i++) {
+            list.add(ring[(ringHead + i) % ring.length]);
+        }
+        return list;
+    }
+
+    /**
+     * Drop every record, in memory and on disk, and start numbering from 0 again
+     */
+    synchronized void clear() {
+        Arrays.fill(ring, null);
+        ringHead = 0;
+        ringCount = 0;
+        nextSeq = 0;
+        written = 0;
+        try {
+            closeSegment();
+            for (File file : segments.values()) {
+                Files.deleteIfExists(file.toPath());
+            }
+        } catch (IOException e) {
+            System.err.println("Error clearing audit log " + name + ": " + e.getMessage());
+        }
+        segments.clear();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (current != null) current.force(false);
+        closeSegment();
+        directory = null;
+    }
+}
@@ -0,0 +1,66 @@
+package com.healthcare.referral;
+
+import com.healthcare.model.Urgency;
+
+/**
+ * Queue depth and waiting times of one urgency class, as of when it was taken.
+ * Waits are measured from addToQueue until a pipeline worker picks the referral up.
+ */
+public final class QueueMetrics {
+    private final Urgency urgency;
+    private final int depth;
+    private final long enqueued;
+    private final long dequeued;
+    private final long totalWaitNanos;
+    private final long maxWaitNanos;
+
+    QueueMetrics(Urgency urgency, int depth, long enqueued, long dequeued, long totalWaitNanos, long maxWaitNanos) {
+        this.urgency = urgency;
+        this.depth = depth;
+        this.enqueued = enqueued;
+        this.dequeued = dequeued;
+        this.totalWaitNanos = totalWaitNanos;
+        this.maxWaitNanos = maxWaitNanos;
+    }
+
+    /**
+     * These metrics with more referrals counted as waiting
+     */
+    QueueMetrics plusWaiting(int more) {
+        return more == 0 ? this
+                : new QueueMetrics(urgency, depth + more, enqueued, dequeued, totalWaitNanos, maxWaitNanos);
+    }
+
+    public Urgency getUrgency() {
+        return urgency;
+    }
+
+    /**
+     * Referrals of this class waiting right now
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getEnqueued() {
+        return enqueued;
+    }
+
+    public long getDequeued() {
+        return dequeued;
+    }
+
+    public double getAverageWaitMillis() {
+        return dequeued == 0 ? 0 : totalWaitNanos / 1e6 / dequeued;
+    }
+
+    public double getMaxWaitMillis() {
+        return maxWaitNanos / 1e6;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d waiting, %d taken, avg wait %.1f ms, max %.1f ms",
+                urgency.getLabel(), depth, dequeued, getAverageWaitMillis(), getMaxWaitMillis());
+    }
+}
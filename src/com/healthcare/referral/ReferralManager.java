@@ -2,29 +2,128 @@ package com.healthcare.referral;
 
 import com.healthcare.model.Referral;
 import com.healthcare.data.DataManager;
+import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
 
 /**
  * Singleton pattern implementation for Referral Management
  * Manages referral queues, email communications, and EHR updates
+ *
+ * Emails and EHR updates are built on a ReferralPipeline rather than on the caller's thread,
+ * so addToQueue and processQueue return at once (they are called from the UI). Use
+ * awaitProcessing when the audit trail has to be complete before it is read.
+ * Waiting referrals are taken by urgency, then referral date (see ReferralScheduler), and
+ * their waits are measured from addToQueue.
+ *
+ * Each referral ID is processed once: its ReferralState is tracked from the moment it is added,
+ * and adding it again is ignored unless it was rejected or failed, in which case it is retried
+ * (processQueue retries all of those). removeReferral forgets an ID, so it can be added afresh,
+ * and only the last MAX_FINISHED referrals to finish are remembered. New referrals pass
+ * through a short backlog on their way to the pipeline, which holds them only while a
+ * pipeline is being replaced; referrals a pipeline hands back unfinished (interrupted worker,
+ * shutdown) go the same way, and a referral edited so that its documents change is processed
+ * again (referralUpdated).
+ *
+ * The three documents are rendered from ReferralTemplates: the DEFAULT_* layouts unless
+ * replaced with the set*Template methods or by files in the data directory (loadTemplates).
  */
 public class ReferralManager {
+    private static final int DEFAULT_QUEUE_CAPACITY = 1024;
+    private static final int MAX_FINISHED = 10_000; // finished referrals whose state is remembered
+    private static final String TEMPLATE_FOLDER = "templates";
+
+    public static final String DEFAULT_EMAIL_TEMPLATE =
+            "=== REFERRAL EMAIL COMMUNICATION ===\n"
+            + "Date: ${today}\n"
+            + "Referral ID: ${referralID}\n"
+            + "Patient ID: ${patientID}\n"
+            + "From: ${referringFacility}\n"
+            + "To: ${receivingFacility}\n"
+            + "Urgency: ${urgency}\n"
+            + "Clinical Summary: ${clinicalSummary}\n"
+            + "Status: ${status}\n"
+            + "=====================================\n\n";
+
+    public static final String DEFAULT_EHR_TEMPLATE =
+            "=== ELECTRONIC HEALTH RECORD UPDATE ===\n"
+            + "Timestamp: ${today}\n"
+            + "Referral ID: ${referralID}\n"
+            + "Patient ID: ${patientID}\n"
+            + "Action: Referral Created/Updated\n"
+            + "Referring Clinician: ${referringClinicianID}\n"
+            + "Receiving Clinician: ${receivingClinicianID}\n"
+            + "Clinical Summary: ${clinicalSummary}\n"
+            + "Audit Trail: Referral processed by system\n"
+            + "========================================\n\n";
+
+    public static final String DEFAULT_REFERRAL_FILE_TEMPLATE =
+            "=== PATIENT REFERRAL ===\n\n"
+            + "Referral ID: ${referralID}\n"
+            + "Date: ${date}\n"
+            + "Urgency Level: ${urgency}\n"
+            + "Status: ${status}\n\n"
+            + "PATIENT INFORMATION:\n"
+            + "Patient ID: ${patientID}\n\n"
+            + "REFERRING INFORMATION:\n"
+            + "Clinician ID: ${referringClinicianID}\n"
+            + "Facility: ${referringFacility}\n\n"
+            + "RECEIVING INFORMATION:\n"
+            + "Clinician ID: ${receivingClinicianID}\n"
+            + "Facility: ${receivingFacility}\n\n"
+            + "CLINICAL SUMMARY:\n"
+            + "${clinicalSummary}\n\n"
+            + "=== END OF REFERRAL ===\n";
+
+    /**
+     * State of a referral ID, and the Referral being processed under it (null once final and
+     * not retryable), so reports about an older copy of a re-added ID are ignored.
+     * queuedAt is the System.nanoTime() at which it was added.
+     */
+    private static final class Tracked {
+        final Referral referral;
+        final ReferralState state;
+        final long queuedAt;
+
+        Tracked(Referral referral, ReferralState state, long queuedAt) {
+            this.referral = referral;
+            this.state = state;
+            this.queuedAt = queuedAt;
+        }
+    }
+
     private static ReferralManager instance;
-    private List<Referral> referralQueue;
-    private List<String> emailCommunications;
-    private List<String> ehrUpdates;
-    private DataManager dataManager;
+    private final ConcurrentHashMap<String, Tracked> states = new ConcurrentHashMap<>();
+    private final Queue<Referral> backlog = new ConcurrentLinkedQueue<>(); // NEW referrals on their way to the pipeline
+    private final Map<String, Referral> retryable = new ConcurrentHashMap<>(); // REJECTED or FAILED
+    private final ArrayDeque<String> finished = new ArrayDeque<>(); // oldest first, guarded by itself
+    private final ReentrantLock draining = new ReentrantLock();
+    private final AtomicBoolean drainRequested = new AtomicBoolean();
+    private final AuditLog emailCommunications = new AuditLog("emails");
+    private final AuditLog ehrUpdates = new AuditLog("ehr"); // same numbering as emailCommunications
+    private volatile DataManager dataManager;
+    private volatile ReferralTemplate emailTemplate = ReferralTemplate.compile(DEFAULT_EMAIL_TEMPLATE);
+    private volatile ReferralTemplate ehrTemplate = ReferralTemplate.compile(DEFAULT_EHR_TEMPLATE);
+    private volatile ReferralTemplate referralFileTemplate = ReferralTemplate.compile(DEFAULT_REFERRAL_FILE_TEMPLATE);
+    private ReferralPipeline pipeline;
 
     // Private constructor to prevent instantiation
     private ReferralManager() {
-        referralQueue = new ArrayList<>();
-        emailCommunications = new ArrayList<>();
-        ehrUpdates = new ArrayList<>();
+        pipeline = newPipeline(Math.max(1, Runtime.getRuntime().availableProcessors() / 2), DEFAULT_QUEUE_CAPACITY);
     }
 
     /**
@@ -45,70 +144,275 @@ public class ReferralManager {
     }
 
     /**
-     * Add referral to queue
+     * Use workersPerStage threads for each rendering stage and queues of queueCapacity
+     * between stages. Referrals already submitted finish on the old pipeline first (or are
+     * moved to the new one if that takes more than 30 seconds).
      */
-    public void addToQueue(Referral referral) {
-        referralQueue.add(referral);
-        generateEmailCommunication(referral);
-        generateEHRUpdate(referral);
+    public void configurePipeline(int workersPerStage, int queueCapacity) {
+        ReferralPipeline old;
+        synchronized (this) {
+            old = pipeline;
+            pipeline = newPipeline(workersPerStage, queueCapacity);
+        }
+        try {
+            old.awaitIdle(30, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        old.shutdown();
+    }
+
+    private ReferralPipeline newPipeline(int workersPerStage, int queueCapacity) {
+        return new ReferralPipeline(workersPerStage, queueCapacity, ReferralScheduler.DEFAULT_AGING_MILLIS, this::validate,
+                this::generateEmailCommunication, this::generateEHRUpdate, this::record, this::moved);
+    }
+
+    private synchronized ReferralPipeline pipeline() {
+        return pipeline;
     }
 
     /**
-     * Process referral queue
+     * Add referral to queue. Returns false if a referral with the same ID was already added
+     * and has not been rejected or failed since.
+     */
+    public boolean addToQueue(Referral referral) {
+        String id = referral.getReferralID();
+        if (isBlank(id)) {
+            System.err.println("Referral rejected: missing referral ID");
+            return false;
+        }
+        Tracked fresh = new Tracked(referral, ReferralState.NEW, System.nanoTime());
+        Tracked current = states.putIfAbsent(id, fresh);
+        if (current != null) {
+            boolean retry = current.state == ReferralState.REJECTED || current.state == ReferralState.FAILED;
+            if (!retry || !states.replace(id, current, fresh)) return false;
+            retryable.remove(id);
+        }
+        backlog.add(referral);
+        drainBacklog();
+        return true;
+    }
+
+    /**
+     * Process referral queue: retry rejected and failed referrals and hand any referrals
+     * still in the backlog to the pipeline
      */
     public void processQueue() {
-        for (Referral referral : referralQueue) {
-            if ("Pending".equals(referral.getStatus())) {
-                processReferral(referral);
+        for (Referral referral : retryable.values()) {
+            String id = referral.getReferralID();
+            Tracked current = states.get(id);
+            retryable.remove(id, referral);
+            boolean retry = current != null && current.referral == referral
+                    && (current.state == ReferralState.REJECTED || current.state == ReferralState.FAILED);
+            if (retry && states.replace(id, current, new Tracked(referral, ReferralState.NEW, System.nanoTime()))) {
+                backlog.add(referral);
             }
         }
+        drainBacklog();
     }
 
     /**
-     * Process a single referral
+     * A stored referral was edited in place (old is its previous row). If its email or EHR
+     * update would now read differently it is processed again under the same ID, whatever
+     * state it was in; a copy already in the pipeline still completes, and its state reports
+     * are ignored. Returns true if it was requeued.
      */
-    private void processReferral(Referral referral) {
-        // Simulate referral processing
-        generateEmailCommunication(referral);
-        generateEHRUpdate(referral);
+    public boolean referralUpdated(Referral old, Referral updated) {
+        String id = updated.getReferralID();
+        if (isBlank(id)) return false;
+        if (old != null && id.equals(old.getReferralID()) && rendersSame(old, updated)) return false;
+        Tracked fresh = new Tracked(updated, ReferralState.NEW, System.nanoTime());
+        while (true) {
+            Tracked current = states.get(id);
+            if (current == null ? states.putIfAbsent(id, fresh) == null : states.replace(id, current, fresh)) break;
+        }
+        retryable.remove(id);
+        backlog.add(updated);
+        drainBacklog();
+        return true;
+    }
+
+    private boolean rendersSame(Referral a, Referral b) {
+        return emailTemplate.render(a).equals(emailTemplate.render(b))
+                && ehrTemplate.render(a).equals(ehrTemplate.render(b));
     }
 
     /**
-     * Generate email communication content for referral
+     * Forget a referral (it was deleted): it is dropped from the backlog when it comes up, and
+     * adding the ID again starts afresh. A referral already in the pipeline still completes.
      */
-    private void generateEmailCommunication(Referral referral) {
-        StringBuilder email = new StringBuilder();
-        email.append("=== REFERRAL EMAIL COMMUNICATION ===\n");
-        email.append("Date: ").append(LocalDate.now().format(DateTimeFormatter.ISO_DATE)).append("\n");
-        email.append("Referral ID: ").append(referral.getReferralID()).append("\n");
-        email.append("Patient ID: ").append(referral.getPatientID()).append("\n");
-        email.append("From: ").append(referral.getReferringFacility()).append("\n");
-        email.append("To: ").append(referral.getReceivingFacility()).append("\n");
-        email.append("Urgency: ").append(referral.getUrgency()).append("\n");
-        email.append("Clinical Summary: ").append(referral.getClinicalSummary()).append("\n");
-        email.append("Status: ").append(referral.getStatus()).append("\n");
-        email.append("=====================================\n\n");
+    public void removeReferral(String referralID) {
+        if (referralID == null) return;
+        states.remove(referralID);
+        retryable.remove(referralID);
+    }
+
+    /**
+     * Submit backlog referrals to the pipeline, stopping if it has been shut down (the next
+     * drain after a replacement carries on). Only one thread drains at a time; a caller that
+     * finds the lock taken leaves a request the drainer picks up before it lets go, so
+     * referrals added meanwhile are not missed.
+     */
+    private void drainBacklog() {
+        drainRequested.set(true);
+        while (drainRequested.get() && draining.tryLock()) {
+            try {
+                drainRequested.set(false);
+                ReferralPipeline current = pipeline();
+                Referral next;
+                while ((next = backlog.peek()) != null) {
+                    // before submit, so a fast worker cannot overtake it; skips removed referrals
+                    Tracked queued = moved(next, ReferralState.QUEUED);
+                    if (queued == null) {
+                        backlog.poll();
+                        continue;
+                    }
+                    if (!current.submit(next, queued.queuedAt)) {
+                        unqueue(next); // stays at the head of the backlog
+                        break;
+                    }
+                    backlog.poll();
+                }
+            } finally {
+                draining.unlock();
+            }
+        }
+    }
+
+    /**
+     * Record that referral moved to next; returns its new state, or null (and changes nothing)
+     * if the ID was removed or re-added since this copy was queued
+     */
+    private Tracked moved(Referral referral, ReferralState next) {
+        String id = referral.getReferralID();
+        Tracked current = states.get(id);
+        if (current == null || current.referral != referral) return null;
+        if (!current.state.canMoveTo(next)) {
+            System.err.println("Referral " + id + " cannot move from " + current.state + " to " + next);
+            return null;
+        }
+        boolean retry = next == ReferralState.REJECTED || next == ReferralState.FAILED;
+        Tracked moved = new Tracked(next.isFinal() && !retry ? null : referral, next, current.queuedAt);
+        if (!states.replace(id, current, moved)) return null;
+
+        if (retry) retryable.put(id, referral);
+        if (next.isFinal()) {
+            forgetOldest(id);
+        } else if (next == ReferralState.NEW) { // handed back unfinished by the pipeline
+            backlog.add(referral);
+            drainBacklog();
+        }
+        return moved;
+    }
+
+    /**
+     * Put a referral the pipeline had no room for back to NEW, without queueing it again
+     */
+    private void unqueue(Referral referral) {
+        String id = referral.getReferralID();
+        Tracked current = states.get(id);
+        if (current != null && current.referral == referral && current.state == ReferralState.QUEUED) {
+            states.replace(id, current, new Tracked(referral, ReferralState.NEW, current.queuedAt));
+        }
+    }
+
+    /**
+     * Remember id as finished, dropping the state of the oldest finished referral beyond MAX_FINISHED
+     */
+    private void forgetOldest(String id) {
+        String oldest;
+        synchronized (finished) {
+            finished.addLast(id);
+            if (finished.size() <= MAX_FINISHED) return;
+            oldest = finished.pollFirst();
+        }
+        Tracked gone = states.computeIfPresent(oldest, (key, tracked) -> tracked.state.isFinal() ? null : tracked);
+        if (gone == null) retryable.remove(oldest);
+    }
+
+    /**
+     * Processing state of a referral, or null if it was never added (or has been forgotten)
+     */
+    public ReferralState getState(String referralID) {
+        Tracked tracked = states.get(referralID);
+        return tracked == null ? null : tracked.state;
+    }
+
+    /**
+     * Wait until every referral added so far, including the backlog, has been processed.
+     * Returns false if the timeout ran out first.
+     */
+    public boolean awaitProcessing(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        do {
+            drainBacklog();
+            if (!pipeline().awaitIdle(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) return false;
+        } while (!backlog.isEmpty());
+        return true;
+    }
+
+    /**
+     * Stop the pipeline threads (they are daemons, so this is only needed to stop early)
+     * and close the audit files
+     */
+    public void shutdown() {
+        pipeline().shutdown();
+        synchronized (emailCommunications) {
+            try {
+                emailCommunications.close();
+                ehrUpdates.close();
+            } catch (IOException e) {
+                System.err.println("Error closing audit trail: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Reason the referral cannot be processed, or null if it can
+     */
+    private String validate(Referral referral) {
+        if (isBlank(referral.getReferralID())) return "missing referral ID";
+        if (isBlank(referral.getPatientID())) return "missing patient ID";
+        DataManager data = dataManager;
+        if (data != null && data.findPatient(referral.getPatientID()) == null) {
+            return "unknown patient " + referral.getPatientID();
+        }
+        return null;
+    }
 
-        emailCommunications.add(email.toString());
+    private static boolean isBlank(String value) {
+        return value == null || value.trim().isEmpty();
+    }
+
+    /**
+     * Persist stage: store the email and EHR update for one referral side by side
+     */
+    private void record(ReferralPipeline.Job job) {
+        synchronized (emailCommunications) {
+            emailCommunications.append(job.email);
+            ehrUpdates.append(job.ehrUpdate);
+        }
+    }
+
+    /**
+     * Generate email communication content for referral
+     */
+    private String generateEmailCommunication(Referral referral) {
+        return emailTemplate.render(referral);
     }
 
     /**
      * Generate EHR update content for referral
      */
-    private void generateEHRUpdate(Referral referral) {
-        StringBuilder ehr = new StringBuilder();
-        ehr.append("=== ELECTRONIC HEALTH RECORD UPDATE ===\n");
-        ehr.append("Timestamp: ").append(LocalDate.now().format(DateTimeFormatter.ISO_DATE)).append("\n");
-        ehr.append("Referral ID: ").append(referral.getReferralID()).append("\n");
-        ehr.append("Patient ID: ").append(referral.getPatientID()).append("\n");
-        ehr.append("Action: Referral Created/Updated\n");
-        ehr.append("Referring Clinician: ").append(referral.getReferringClinicianID()).append("\n");
-        ehr.append("Receiving Clinician: ").append(referral.getReceivingClinicianID()).append("\n");
-        ehr.append("Clinical Summary: ").append(referral.getClinicalSummary()).append("\n");
-        ehr.append("Audit Trail: Referral processed by system\n");
-        ehr.append("========================================\n\n");
+    private String generateEHRUpdate(Referral referral) {
+        return ehrTemplate.render(referral);
+    }
 
-        ehrUpdates.add(ehr.toString());
+    /**
+     * Text of the referral file for referral, without writing it anywhere
+     */
+    public String renderReferralFile(Referral referral) {
+        return referralFileTemplate.render(referral);
     }
 
     /**
@@ -116,64 +420,184 @@ public class ReferralManager {
      */
     public void generateReferralFile(Referral referral, String outputPath) {
         try (FileWriter writer = new FileWriter(outputPath)) {
-            writer.write("=== PATIENT REFERRAL ===\n\n");
-            writer.write("Referral ID: " + referral.getReferralID() + "\n");
-            writer.write("Date: " + referral.getDate() + "\n");
-            writer.write("Urgency Level: " + referral.getUrgency() + "\n");
-            writer.write("Status: " + referral.getStatus() + "\n\n");
+            writer.write(renderReferralFile(referral));
 
-            writer.write("PATIENT INFORMATION:\n");
-            writer.write("Patient ID: " + referral.getPatientID() + "\n\n");
+            // Also add to email communications (once per referral)
+            addToQueue(referral);
+
+        } catch (IOException e) {
+            System.err.println("Error generating referral file: " + e.getMessage());
+        }
+    }
 
-            writer.write("REFERRING INFORMATION:\n");
-            writer.write("Clinician ID: " + referral.getReferringClinicianID() + "\n");
-            writer.write("Facility: " + referral.getReferringFacility() + "\n\n");
+    /**
+     * Write one file per referral, referral_ID.txt in outputDirectory, reusing one buffer for
+     * all of them. Returns the number of files written.
+     */
+    public int generateReferralFiles(Collection<Referral> referrals, String outputDirectory) {
+        ReferralTemplate template = referralFileTemplate;
+        StringBuilder text = new StringBuilder(1024);
+        int written = 0;
+        for (Referral referral : referrals) {
+            text.setLength(0);
+            template.render(referral, text);
+            File file = new File(outputDirectory, "referral_" + referral.getReferralID() + ".txt");
+            try (FileWriter writer = new FileWriter(file)) {
+                writer.append(text);
+                written++;
+            } catch (IOException e) {
+                System.err.println("Error generating referral file " + file + ": " + e.getMessage());
+                continue;
+            }
+            addToQueue(referral);
+        }
+        return written;
+    }
 
-            writer.write("RECEIVING INFORMATION:\n");
-            writer.write("Clinician ID: " + referral.getReceivingClinicianID() + "\n");
-            writer.write("Facility: " + referral.getReceivingFacility() + "\n\n");
+    /**
+     * Replace the email layout; see ReferralTemplate for the ${field} syntax.
+     * Throws IllegalArgumentException if the template does not parse.
+     */
+    public void setEmailTemplate(String template) {
+        emailTemplate = ReferralTemplate.compile(template);
+    }
 
-            writer.write("CLINICAL SUMMARY:\n");
-            writer.write(referral.getClinicalSummary() + "\n\n");
+    public void setEHRTemplate(String template) {
+        ehrTemplate = ReferralTemplate.compile(template);
+    }
 
-            writer.write("=== END OF REFERRAL ===\n");
+    public void setReferralFileTemplate(String template) {
+        referralFileTemplate = ReferralTemplate.compile(template);
+    }
 
-            // Also add to email communications
-            generateEmailCommunication(referral);
-            generateEHRUpdate(referral);
+    /**
+     * Use the layouts in dataDirectory/templates (referral-email.txt, referral-ehr.txt,
+     * referral-file.txt) where present; the others keep their current layout
+     */
+    public void loadTemplates(String dataDirectory) {
+        File folder = new File(dataDirectory, TEMPLATE_FOLDER);
+        emailTemplate = loadTemplate(new File(folder, "referral-email.txt"), emailTemplate);
+        ehrTemplate = loadTemplate(new File(folder, "referral-ehr.txt"), ehrTemplate);
+        referralFileTemplate = loadTemplate(new File(folder, "referral-file.txt"), referralFileTemplate);
+    }
 
-        } catch (IOException e) {
-            System.err.println("Error generating referral file: " + e.getMessage());
+    private static ReferralTemplate loadTemplate(File file, ReferralTemplate current) {
+        if (!file.isFile()) return current;
+        try {
+            return ReferralTemplate.compile(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8));
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println("Error reading template " + file + ", keeping the current layout: " + e.getMessage());
+            return current;
+        }
+    }
+
+    /**
+     * Keep the email and EHR audit trail in segment files in dataDirectory, continuing
+     * any trail already there. Until this is called only the newest records are kept.
+     */
+    public void setAuditDirectory(String dataDirectory) {
+        synchronized (emailCommunications) {
+            try {
+                emailCommunications.attach(dataDirectory);
+                ehrUpdates.attach(dataDirectory);
+            } catch (IOException e) {
+                System.err.println("Error opening audit trail in " + dataDirectory + ": " + e.getMessage());
+            }
         }
     }
 
     /**
-     * Get all email communications
+     * Get the most recent email communications (those still held in memory); use the
+     * paged overload or forEachEmailCommunication to read further back
      */
     public List<String> getEmailCommunications() {
-        return new ArrayList<>(emailCommunications);
+        return emailCommunications.memoryRecords();
+    }
+
+    /**
+     * Get up to limit email communications starting at number from (0 is the first ever recorded;
+     * reading starts at getFirstCommunicationNumber() if from is older than that)
+     */
+    public List<String> getEmailCommunications(long from, int limit) {
+        return emailCommunications.read(from, limit);
     }
 
     /**
-     * Get all EHR updates
+     * Stream every available email communication from number from onwards, oldest first
+     */
+    public void forEachEmailCommunication(long from, Consumer<String> action) {
+        emailCommunications.forEach(from, action);
+    }
+
+    /**
+     * Get the most recent EHR updates (those still held in memory)
      */
     public List<String> getEHRUpdates() {
-        return new ArrayList<>(ehrUpdates);
+        return ehrUpdates.memoryRecords();
+    }
+
+    /**
+     * Get up to limit EHR updates starting at number from; EHR update n belongs to
+     * the same referral as email communication n
+     */
+    public List<String> getEHRUpdates(long from, int limit) {
+        return ehrUpdates.read(from, limit);
+    }
+
+    public void forEachEHRUpdate(long from, Consumer<String> action) {
+        ehrUpdates.forEach(from, action);
     }
 
     /**
-     * Get referral queue
+     * Number of email/EHR record pairs recorded so far (the number the next pair will get)
      */
-    public List<Referral> getReferralQueue() {
-        return new ArrayList<>(referralQueue);
+    public long getCommunicationCount() {
+        return emailCommunications.size();
     }
 
     /**
-     * Clear audit trail (for testing purposes)
+     * Oldest record number that can still be read; older ones have been rotated out
+     */
+    public long getFirstCommunicationNumber() {
+        return emailCommunications.firstAvailable();
+    }
+
+    /**
+     * Referrals not yet being processed: those waiting for the pipeline, in the order it will
+     * take them, then those still in the backlog. Processed referrals are not listed; they
+     * are in the DataManager and their state is available from getState.
+     */
+    public List<Referral> getWaitingReferrals() {
+        List<Referral> queue = pipeline().waiting();
+        queue.addAll(backlog);
+        return queue;
+    }
+
+    /**
+     * Depth and waiting times of the referral queue, one entry per urgency class; the depth
+     * includes referrals still in the backlog
+     */
+    public List<QueueMetrics> getQueueMetrics() {
+        List<QueueMetrics> metrics = pipeline().queueMetrics();
+        int[] inBacklog = new int[metrics.size()];
+        for (Referral referral : backlog) {
+            inBacklog[ReferralScheduler.classOf(referral)]++;
+        }
+        List<QueueMetrics> result = new ArrayList<>(metrics.size());
+        for (int c = 0; c < metrics.size(); c++) {
+            result.add(metrics.get(c).plusWaiting(inBacklog[c]));
+        }
+        return result;
+    }
+
+    /**
+     * Clear audit trail (for testing purposes; this deletes its files too)
      */
     public void clearAuditTrail() {
-        emailCommunications.clear();
-        ehrUpdates.clear();
+        synchronized (emailCommunications) {
+            emailCommunications.clear();
+            ehrUpdates.clear();
+        }
     }
 }
 
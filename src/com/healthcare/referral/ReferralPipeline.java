@@ -0,0 +1,271 @@
+package com.healthcare.referral;
+
+import com.healthcare.model.Referral;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Staged referral processing: intake -> validate -> render email -> render EHR update -> persist.
+ * Each stage has its own worker threads and hands work on through a bounded queue, so a slow
+ * stage holds up the stages before it rather than letting work pile up in memory. The intake
+ * is a ReferralScheduler holding every referral not yet taken, so urgent referrals enter the
+ * stages ahead of routine ones however many are waiting. submit() never waits, and only
+ * returns false once the pipeline has been shut down. Persisting runs on one thread so the
+ * email and EHR records come out together and in the order their referrals finished rendering.
+ * A referral whose worker is interrupted, or that is still queued when the pipeline is shut
+ * down, is reported back as NEW so the caller can submit it again.
+ */
+final class ReferralPipeline {
+
+    /**
+     * One referral on its way through the stages
+     */
+    static final class Job {
+        final Referral referral;
+        String email;
+        String ehrUpdate;
+
+        Job(Referral referral) {
+            this.referral = referral;
+        }
+    }
+
+    private final ReferralScheduler intake;
+    private final BlockingQueue<Job> toEmail;
+    private final BlockingQueue<Job> toEhr;
+    private final BlockingQueue<Job> toPersist;
+    private final List<Thread> threads = new ArrayList<>();
+
+    private final Function<Referral, String> validator;
+    private final Function<Referral, String> emailRenderer;
+    private final Function<Referral, String> ehrRenderer;
+    private final Consumer<Job> persister;
+    private final StateListener listener;
+
+    private final Object idle = new Object();
+    private long inFlight; // guarded by idle
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean stopped;
+
+    /**
+     * Told when a referral is taken from the intake and when it leaves the pipeline
+     */
+    interface StateListener {
+        void moved(Referral referral, ReferralState state);
+    }
+
+    /**
+     * @param validator returns a reason to reject the referral, or null if it may proceed
+     */
+    ReferralPipeline(int workersPerStage, int queueCapacity, long agingMillis,
+                     Function<Referral, String> validator,
+                     Function<Referral, String> emailRenderer,
+                     Function<Referral, String> ehrRenderer,
+                     Consumer<Job> persister,
+                     StateListener listener) {
+        this.intake = new ReferralScheduler(agingMillis);
+        this.toEmail = new ArrayBlockingQueue<>(queueCapacity);
+        this.toEhr = new ArrayBlockingQueue<>(queueCapacity);
+        this.toPersist = new ArrayBlockingQueue<>(queueCapacity);
+        this.validator = validator;
+        this.emailRenderer = emailRenderer;
+        this.ehrRenderer = ehrRenderer;
+        this.persister = persister;
+        this.listener = listener;
+
+        int workers = Math.max(1, workersPerStage);
+        for (int i = 0; i < workers; i++) {
+            start("referral-validate-" + i, this::takeNext, this::validate);
+            start("referral-email-" + i, toEmail::take, this::renderEmail);
+            start("referral-ehr-" + i, toEhr::take, this::renderEhr);
+        }
+        start("referral-persist", toPersist::take, this::persist);
+    }
+
+    private interface Source {
+        Job take() throws InterruptedException;
+    }
+
+    private interface Stage {
+        void run(Job job) throws InterruptedException;
+    }
+
+    private void start(String name, Source input, Stage stage) {
+        Thread thread = new Thread(() -> {
+            while (!stopped) {
+                Job job;
+                try {
+                    job = input.take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                boolean handedOn = false; // passed to the next stage or finished
+                try {
+                    stage.run(job);
+                    handedOn = true;
+                } catch (InterruptedException e) {
+                    return;
+                } catch (RuntimeException e) {
+                    System.err.println("Referral " + job.referral.getReferralID() + " failed in " + name + ": " + e);
+                    failed.incrementAndGet();
+                    listener.moved(job.referral, ReferralState.FAILED);
+                    finished(job);
+                    handedOn = true;
+                } finally {
+                    if (!handedOn) {
+                        listener.moved(job.referral, ReferralState.NEW);
+                        finished(job);
+                    }
+                }
+            }
+        }, name);
+        thread.setDaemon(true);
+        threads.add(thread);
+        thread.start();
+    }
+
+    /**
+     * Queue a referral first queued at enqueuedAt (System.nanoTime()), without waiting.
+     * Returns false if the pipeline has been shut down.
+     */
+    boolean submit(Referral referral, long enqueuedAt) {
+        if (stopped) return false;
+        synchronized (idle) {
+            inFlight++;
+        }
+        if (intake.offer(referral, enqueuedAt)) return true;
+
+        synchronized (idle) {
+            inFlight--;
+            idle.notifyAll();
+        }
+        return false;
+    }
+
+    private Job takeNext() throws InterruptedException {
+        Referral referral = intake.take();
+        listener.moved(referral, ReferralState.IN_PROGRESS);
+        return new Job(referral);
+    }
+
+    private void validate(Job job) throws InterruptedException {
+        String problem = validator.apply(job.referral);
+        if (problem != null) {
+            System.err.println("Referral " + job.referral.getReferralID() + " rejected: " + problem);
+            rejected.incrementAndGet();
+            listener.moved(job.referral, ReferralState.REJECTED);
+            finished(job);
+            return;
+        }
+        toEmail.put(job);
+    }
+
+    private void renderEmail(Job job) throws InterruptedException {
+        job.email = emailRenderer.apply(job.referral);
+        toEhr.put(job);
+    }
+
+    private void renderEhr(Job job) throws InterruptedException {
+        job.ehrUpdate = ehrRenderer.apply(job.referral);
+        toPersist.put(job);
+    }
+
+    private void persist(Job job) {
+        persister.accept(job);
+        completed.incrementAndGet();
+        listener.moved(job.referral, ReferralState.PROCESSED);
+        finished(job);
+    }
+
+    private void finished(Job job) {
+        synchronized (idle) {
+            inFlight--;
+            idle.notifyAll();
+        }
+    }
+
+    /**
+     * Wait until every submitted referral has been persisted, rejected or has failed.
+     * Returns false if the timeout ran out first.
+     */
+    boolean awaitIdle(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        synchronized (idle) {
+            while (inFlight > 0) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) return false;
+                TimeUnit.NANOSECONDS.timedWait(idle, remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Stop the workers and report every referral still queued between stages as NEW
+     * (call awaitIdle first to let them finish instead)
+     */
+    void shutdown() {
+        stopped = true;
+        List<Referral> waiting = intake.close();
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (Thread thread : threads) {
+            if (thread == Thread.currentThread()) continue;
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+
+        List<Job> left = new ArrayList<>();
+        toEmail.drainTo(left);
+        toEhr.drainTo(left);
+        toPersist.drainTo(left);
+        for (Job job : left) {
+            listener.moved(job.referral, ReferralState.NEW);
+            finished(job);
+        }
+        for (Referral referral : waiting) {
+            listener.moved(referral, ReferralState.NEW);
+            synchronized (idle) {
+                inFlight--;
+                idle.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * Referrals waiting to enter the stages, in the order they will be taken
+     */
+    List<Referral> waiting() {
+        return intake.snapshot();
+    }
+
+    List<QueueMetrics> queueMetrics() {
+        return intake.metrics();
+    }
+
+    long completedCount() {
+        return completed.get();
+    }
+
+    long rejectedCount() {
+        return rejected.get();
+    }
+
+    long failedCount() {
+        return failed.get();
+    }
+}
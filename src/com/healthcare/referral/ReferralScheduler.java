@@ -0,0 +1,209 @@
+package com.healthcare.referral;
+
+import com.healthcare.model.CompactFields;
+import com.healthcare.model.Referral;
+import com.healthcare.model.Urgency;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Queue of every referral waiting for the pipeline, taken most urgent first. It is not
+ * bounded, so urgency decides the order however many referrals are waiting; the pipeline's
+ * stages limit how many are taken at a time. Each referral arrives with the time it was
+ * first queued (ReferralManager.addToQueue), so waits include any time spent being handed
+ * between pipelines.
+ *
+ * Each urgency class keeps its referrals ordered two ways: by referral date (oldest first,
+ * then arrival) and by arrival alone. take() picks a class by how long its longest-waiting
+ * referral has waited, less a handicap of one aging step per level below Urgent: an Urgent
+ * referral goes ahead of a Routine one unless the Routine one has been waiting a full step
+ * longer, so lower classes still get through under a steady stream of urgent work.
+ * Within the class the earliest referral date goes first, except that a referral which has
+ * waited a full aging step goes first regardless, so back-dated late arrivals cannot hold
+ * it back indefinitely. Referrals with an unknown urgency count as Routine.
+ */
+final class ReferralScheduler {
+    static final long DEFAULT_AGING_MILLIS = 60_000;
+
+    private static final Urgency[] CLASSES = Urgency.values(); // in priority order
+
+    private static final class Entry {
+        final Referral referral;
+        final int day;
+        final long seq;
+        final long enqueuedAt;
+
+        Entry(Referral referral, long seq, long enqueuedAt) {
+            int d = referral.getDateDay();
+            this.referral = referral;
+            this.day = d == CompactFields.NO_DAY ? Integer.MAX_VALUE : d; // undated last
+            this.seq = seq;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    private static final Comparator<Entry> ORDER =
+            Comparator.<Entry>comparingInt(e -> e.day).thenComparingLong(e -> e.seq);
+    private static final Comparator<Entry> ARRIVAL =
+            Comparator.<Entry>comparingLong(e -> e.enqueuedAt).thenComparingLong(e -> e.seq);
+
+    /**
+     * Waiting referrals of one urgency class; both sets hold the same entries
+     */
+    private static final class UrgencyClass {
+        final TreeSet<Entry> byDate = new TreeSet<>(ORDER);
+        final TreeSet<Entry> byArrival = new TreeSet<>(ARRIVAL);
+
+        void add(Entry entry) {
+            byDate.add(entry);
+            byArrival.add(entry);
+        }
+
+        void remove(Entry entry) {
+            byDate.remove(entry);
+            byArrival.remove(entry);
+        }
+    }
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final long agingNanos;
+    private final List<UrgencyClass> queues = new ArrayList<>();
+    private int size;
+    private long nextSeq;
+    private boolean closed;
+
+    // per class, guarded by lock
+    private final long[] enqueued = new long[CLASSES.length];
+    private final long[] dequeued = new long[CLASSES.length];
+    private final long[] totalWait = new long[CLASSES.length];
+    private final long[] maxWait = new long[CLASSES.length];
+
+    ReferralScheduler(long agingMillis) {
+        this.agingNanos = TimeUnit.MILLISECONDS.toNanos(agingMillis);
+        for (int i = 0; i < CLASSES.length; i++) {
+            queues.add(new UrgencyClass());
+        }
+    }
+
+    static int classOf(Referral referral) {
+        Urgency urgency = referral.getUrgencyCode();
+        return (urgency == null ? Urgency.ROUTINE : urgency).ordinal();
+    }
+
+    /**
+     * Add a referral first queued at enqueuedAt (a System.nanoTime() value). Returns false
+     * if the scheduler has been closed.
+     */
+    boolean offer(Referral referral, long enqueuedAt) {
+        int c = classOf(referral);
+        lock.lock();
+        try {
+            if (closed) return false;
+            queues.get(c).add(new Entry(referral, nextSeq++, enqueuedAt));
+            size++;
+            enqueued[c]++;
+            notEmpty.signal();
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Remove the next referral to process, waiting for one if the scheduler is empty
+     */
+    Referral take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            long now = System.nanoTime();
+            int best = -1;
+            long bestScore = 0;
+            for (int c = 0; c < CLASSES.length; c++) {
+                UrgencyClass queue = queues.get(c);
+                if (queue.byArrival.isEmpty()) continue;
+                long score = (now - queue.byArrival.first().enqueuedAt) - c * agingNanos;
+                if (best < 0 || score > bestScore) {
+                    best = c;
+                    bestScore = score;
+                }
+            }
+            UrgencyClass queue = queues.get(best);
+            Entry oldest = queue.byArrival.first();
+            Entry entry = now - oldest.enqueuedAt >= agingNanos ? oldest : queue.byDate.first();
+            queue.remove(entry);
+            size--;
+            long waited = now - entry.enqueuedAt;
+            dequeued[best]++;
+            totalWait[best] += waited;
+            maxWait[best] = Math.max(maxWait[best], waited);
+            return entry.referral;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Stop accepting referrals (offer() returns false from now on) and remove and return
+     * every one still waiting
+     */
+    List<Referral> close() {
+        lock.lock();
+        try {
+            closed = true;
+            List<Referral> list = new ArrayList<>(size);
+            for (UrgencyClass queue : queues) {
+                for (Entry entry : queue.byArrival) {
+                    list.add(entry.referral);
+                }
+                queue.byDate.clear();
+                queue.byArrival.clear();
+            }
+            size = 0;
+            return list;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waiting referrals, most urgent class first, each class by referral date
+     */
+    List<Referral> snapshot() {
+        lock.lock();
+        try {
+            List<Referral> list = new ArrayList<>(size);
+            for (UrgencyClass queue : queues) {
+                for (Entry entry : queue.byDate) {
+                    list.add(entry.referral);
+                }
+            }
+            return list;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    List<QueueMetrics> metrics() {
+        lock.lock();
+        try {
+            List<QueueMetrics> list = new ArrayList<>(CLASSES.length);
+            for (int c = 0; c < CLASSES.length; c++) {
+                list.add(new QueueMetrics(CLASSES[c], queues.get(c).byDate.size(), enqueued[c], dequeued[c],
+                        totalWait[c], maxWait[c]));
+            }
+            return list;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
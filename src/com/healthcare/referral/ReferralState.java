@@ -0,0 +1,49 @@
+package com.healthcare.referral;
+
+/**
+ * Where a referral is in ReferralManager's processing. This is separate from the referral's
+ * own status (Pending, Completed, ...), which belongs to the clinical workflow.
+ *
+ * NEW -> QUEUED -> IN_PROGRESS -> PROCESSED, REJECTED or FAILED. The last three are final
+ * for this pass through the pipeline: PROCESSED stays put however often the referral is added
+ * or processQueue is called, while REJECTED and FAILED go back to NEW when the referral is
+ * added again or processQueue retries it. QUEUED and IN_PROGRESS also go back to NEW when a
+ * pipeline is shut down or a worker is interrupted before the referral is done.
+ */
+public enum ReferralState {
+    /** Added (or sent back), waiting in the backlog for room in the pipeline */
+    NEW,
+    /** Waiting in the scheduler */
+    QUEUED,
+    /** Taken by a pipeline worker */
+    IN_PROGRESS,
+    /** Email and EHR update recorded */
+    PROCESSED,
+    /** Failed validation */
+    REJECTED,
+    /** A stage threw while rendering or recording it */
+    FAILED;
+
+    public boolean isFinal() {
+        return this == PROCESSED || this == REJECTED || this == FAILED;
+    }
+
+    /**
+     * Whether a referral in this state may move to next
+     */
+    public boolean canMoveTo(ReferralState next) {
+        switch (this) {
+            case NEW:
+                return next == QUEUED;
+            case QUEUED:
+                return next == IN_PROGRESS || next == NEW;
+            case IN_PROGRESS:
+                return next.isFinal() || next == NEW;
+            case REJECTED:
+            case FAILED:
+                return next == NEW;
+            default:
+                return false;
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.healthcare.referral;
+
+import com.healthcare.model.Referral;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Layout of a referral document (email, EHR update or referral file), parsed once into
+ * literal text and field segments. ${name} inserts a referral field ("null" if unset, as
+ * string concatenation would), ${today} the current ISO date and $$ a literal dollar sign.
+ *
+ * render() writes into a per-thread StringBuilder that is kept between calls, so rendering
+ * a referral costs one pass over the segments and the final String. The formatted date is
+ * worked out once per day rather than once per document.
+ */
+public final class ReferralTemplate {
+    private static final Map<String, Function<Referral, String>> FIELDS = new LinkedHashMap<>();
+
+    static {
+        FIELDS.put("referralID", Referral::getReferralID);
+        FIELDS.put("patientID", Referral::getPatientID);
+        FIELDS.put("referringClinicianID", Referral::getReferringClinicianID);
+        FIELDS.put("receivingClinicianID", Referral::getReceivingClinicianID);
+        FIELDS.put("referringFacility", Referral::getReferringFacility);
+        FIELDS.put("receivingFacility", Referral::getReceivingFacility);
+        FIELDS.put("date", Referral::getDate);
+        FIELDS.put("urgency", Referral::getUrgency);
+        FIELDS.put("referralReason", Referral::getReferralReason);
+        FIELDS.put("clinicalSummary", Referral::getClinicalSummary);
+        FIELDS.put("requestedInvestigations", Referral::getRequestedInvestigations);
+        FIELDS.put("appointmentID", Referral::getAppointmentID);
+        FIELDS.put("notes", Referral::getNotes);
+        FIELDS.put("status", Referral::getStatus);
+        FIELDS.put("createdDate", Referral::getCreatedDate);
+        FIELDS.put("lastUpdated", Referral::getLastUpdated);
+    }
+
+    private static final String TODAY = "today";
+    private static final int MAX_KEPT_BUFFER = 64 * 1024; // larger buffers are not kept between calls
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(512));
+
+    private interface Segment {
+        void appendTo(Referral referral, StringBuilder out);
+    }
+
+    private final String source;
+    private final Segment[] segments;
+
+    private ReferralTemplate(String source, List<Segment> segments) {
+        this.source = source;
+        this.segments = segments.toArray(new Segment[0]);
+    }
+
+    /**
+     * Parse a template. Throws IllegalArgumentException for an unknown field or an unclosed ${.
+     */
+    public static ReferralTemplate compile(String text) {
+        List<Segment> segments = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+        int i = 0;
+        while (i < text.length()) {
+            char c = text.charAt(i);
+            if (c != '$' || i + 1 >= text.length()) {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            char next = text.charAt(i + 1);
+            if (next == '$') {
+                literal.append('$');
+                i += 2;
+                continue;
+            }
+            if (next != '{') {
+                literal.append(c);
+                i++;
+                continue;
+            }
+            int end = text.indexOf('}', i + 2);
+            if (end < 0) throw new IllegalArgumentException("Unclosed ${ at " + i);
+            String name = text.substring(i + 2, end).trim();
+            if (literal.length() > 0) {
+                String value = literal.toString();
+                segments.add((referral, out) -> out.append(value));
+                literal.setLength(0);
+            }
+            segments.add(field(name));
+            i = end + 1;
+        }
+        if (literal.length() > 0) {
+            String value = literal.toString();
+            segments.add((referral, out) -> out.append(value));
+        }
+        return new ReferralTemplate(text, segments);
+    }
+
+    private static Segment field(String name) {
+        if (TODAY.equals(name)) {
+            return (referral, out) -> out.append(Today.iso());
+        }
+        Function<Referral, String> getter = FIELDS.get(name);
+        if (getter == null) {
+            throw new IllegalArgumentException("Unknown referral field ${" + name + "}; known fields: "
+                    + String.join(", ", fieldNames()));
+        }
+        return (referral, out) -> out.append(getter.apply(referral));
+    }
+
+    /**
+     * Names usable as ${name}
+     */
+    public static List<String> fieldNames() {
+        List<String> names = new ArrayList<>(FIELDS.keySet());
+        names.add(TODAY);
+        return Collections.unmodifiableList(names);
+    }
+
+    /**
+     * Append the document for referral to out
+     */
+    public void render(Referral referral, StringBuilder out) {
+        for (Segment segment : segments) {
+            segment.appendTo(referral, out);
+        }
+    }
+
+    public String render(Referral referral) {
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        render(referral, out);
+        String text = out.toString();
+        if (out.capacity() > MAX_KEPT_BUFFER) {
+            BUFFER.remove();
+        }
+        return text;
+    }
+
+    /**
+     * The template text this was compiled from
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Today's date as yyyy-MM-dd, reformatted only when the day changes
+     */
+    private static final class Today {
+        private static final class Cached {
+            final String text;
+            final long until; // epoch millis at which the next day starts
+
+            Cached(String text, long until) {
+                this.text = text;
+                this.until = until;
+            }
+        }
+
+        private static volatile Cached cached = new Cached("", Long.MIN_VALUE);
+
+        static String iso() {
+            Cached current = cached;
+            long now = System.currentTimeMillis();
+            if (now >= current.until || now < current.until - 86_400_000L * 2) { // day over, or clock moved back
+                ZoneId zone = ZoneId.systemDefault();
+                LocalDate today = LocalDate.now(zone);
+                long until = today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+                current = new Cached(today.format(DateTimeFormatter.ISO_DATE), until);
+                cached = current;
+            }
+            return current.text;
+        }
+    }
+}
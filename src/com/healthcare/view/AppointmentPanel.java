@@ -1,25 +1,38 @@
 package com.healthcare.view;
 
 import com.healthcare.controller.HealthcareController;
+import com.healthcare.data.EntityType;
 import com.healthcare.model.Appointment;
 
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.util.Collections;
 import java.util.List;
 
 public class AppointmentPanel extends JPanel {
 
+    // Table columns in display order; the form fields follow the same order (see formFields())
+    private static final List<ColumnBinding<Appointment>> COLUMNS = List.of(
+            ColumnBinding.of("Appointment ID", Appointment::getAppointmentID, Appointment::setAppointmentID),
+            ColumnBinding.of("Patient ID", Appointment::getPatientID, Appointment::setPatientID),
+            ColumnBinding.of("Clinician ID", Appointment::getClinicianID, Appointment::setClinicianID),
+            ColumnBinding.of("Facility ID", Appointment::getFacilityID, Appointment::setFacilityID),
+            ColumnBinding.of("Date", Appointment::getDate, Appointment::setDate),
+            ColumnBinding.of("Time", Appointment::getTime, Appointment::setTime),
+            ColumnBinding.of("Duration", Appointment::getDurationMinutes, Appointment::setDurationMinutes),
+            ColumnBinding.of("Type", Appointment::getAppointmentType, Appointment::setAppointmentType),
+            ColumnBinding.of("Status", Appointment::getStatus, Appointment::setStatus),
+            ColumnBinding.of("Reason", Appointment::getReason, Appointment::setReason),
+            ColumnBinding.of("Notes", Appointment::getNotes, Appointment::setNotes),
+            ColumnBinding.of("Created", Appointment::getCreatedDate, Appointment::setCreatedDate),
+            ColumnBinding.of("Last Modified", Appointment::getLastModified, Appointment::setLastModified)
+    );
+
     private final HealthcareController controller;
 
     private JTable table;
-    private DefaultTableModel tableModel;
+    private EntityTableModel<Appointment> tableModel;
 
     private JTextField appointmentIDField, patientIDField, clinicianIDField, facilityIDField;
     private JTextField dateField, timeField, durationField, typeField, statusField;
@@ -59,6 +72,7 @@ public class AppointmentPanel extends JPanel {
         panel.add(deleteBtn);
         panel.add(clearBtn);
         panel.add(refreshBtn);
+        panel.add(new SearchBar("Search by Appointment, patient or clinician ID, date (e.g. 2025-09) or status", query -> tableModel.filter(query)));
 
         addBtn.addActionListener(e -> onAdd());
         updateBtn.addActionListener(e -> onUpdate());
@@ -70,17 +84,20 @@ public class AppointmentPanel extends JPanel {
     }
 
     private JScrollPane buildTablePanel() {
-        String[] cols = {
-                "Appointment ID", "Patient ID", "Clinician ID", "Facility ID",
-                "Date", "Time", "Duration", "Type", "Status", "Reason", "Notes",
-                "Created", "Last Modified"
-        };
-
-        tableModel = new DefaultTableModel(cols, 0) {
-            @Override public boolean isCellEditable(int row, int col) { return false; }
-        };
+        tableModel = new EntityTableModel<Appointment>(EntityType.APPOINTMENT, controller::getRowCount, controller::getRowAt)
+                .searchWith(controller::searchAppointments)
+                .columns(COLUMNS)
+                .pageWith(controller::page, "dateTime", Appointment::getAppointmentID)
+                .sortable("Appointment ID", "appointmentID")
+                .sortable("Patient ID", "patientID")
+                .sortable("Clinician ID", "clinicianID")
+                .sortable("Date", "dateTime")
+                .sortable("Status", "status");
+        controller.addDataChangeListener(tableModel);
+        tableModel.refreshWhenShown(this);
 
         table = new JTable(tableModel);
+        tableModel.sortOnHeaderClick(table);
         table.setFillsViewportHeight(true);
         table.setRowHeight(24);
         table.setShowGrid(true);
@@ -98,6 +115,7 @@ public class AppointmentPanel extends JPanel {
         table.getSelectionModel().addListSelectionListener(this::onRowSelected);
 
         JScrollPane scrollPane = new JScrollPane(table);
+        tableModel.fetchOnScroll(scrollPane);
         scrollPane.getViewport().setBackground(Color.WHITE);
         scrollPane.setBorder(BorderFactory.createTitledBorder("Appointments"));
         return scrollPane;
@@ -213,34 +231,7 @@ public class AppointmentPanel extends JPanel {
     }
 
     public void refreshData() {
-        tableModel.setRowCount(0);
-
-        List<Appointment> list = null;
-        try { list = controller.getAllAppointments(); } catch (Exception ignored) {}
-        if (list == null) list = Collections.emptyList();
-
-        for (Appointment a : list) {
-            String id = getStrSmart(a, "getAppointmentID","getAppointmentId","getId","appointmentID","appointmentId","id");
-            String pid = getStrSmart(a, "getPatientID","getPatientId","patientID","patientId");
-            String cid = getStrSmart(a, "getClinicianID","getClinicianId","clinicianID","clinicianId");
-            String fid = getStrSmart(a, "getFacilityID","getFacilityId","facilityID","facilityId");
-
-            String date = getStrSmart(a, "getDate","getAppointmentDate","date","appointmentDate");
-            String time = getStrSmart(a, "getTime","getAppointmentTime","time","appointmentTime");
-
-            String dur = getStrSmart(a, "getDuration","getDurationMinutes","duration","durationMinutes");
-            String type = getStrSmart(a, "getType","getAppointmentType","type","appointmentType");
-            String status = getStrSmart(a, "getStatus","status");
-            String reason = getStrSmart(a, "getReason","reason");
-            String notes = getStrSmart(a, "getNotes","notes");
-
-            String created = getStrSmart(a, "getCreated","getCreatedAt","getCreatedDate","created","createdAt","createdDate");
-            String lastMod = getStrSmart(a, "getLastUpdated","getLastModified","updatedAt","lastUpdated","lastModified");
-
-            tableModel.addRow(new Object[]{
-                    id, pid, cid, fid, date, time, dur, type, status, reason, notes, created, lastMod
-            });
-        }
+        tableModel.reload();
 
         // ✅ NEW: no auto-select first row
         table.clearSelection();
@@ -253,7 +244,6 @@ public class AppointmentPanel extends JPanel {
         try {
             Appointment appt = buildAppointmentObject();
             controller.addAppointment(appt);
-            refreshData();
             clearFields();
             JOptionPane.showMessageDialog(this, "Appointment added successfully!", "Message", JOptionPane.INFORMATION_MESSAGE);
         } catch (Exception ex) {
@@ -275,12 +265,13 @@ public class AppointmentPanel extends JPanel {
                 return;
             }
 
-            controller.deleteAppointment(id);
-
             Appointment appt = buildAppointmentObject();
-            controller.addAppointment(appt);
+            if (!controller.updateAppointment(appt)) {
+                controller.deleteAppointment(id);
+                controller.addAppointment(appt);
+            }
 
-            refreshData();
+            clearFields();
             JOptionPane.showMessageDialog(this, "Appointment updated successfully!", "Message", JOptionPane.INFORMATION_MESSAGE);
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, "Update failed: " + ex.getMessage(), "Message", JOptionPane.ERROR_MESSAGE);
@@ -302,7 +293,6 @@ public class AppointmentPanel extends JPanel {
             }
 
             controller.deleteAppointment(id);
-            refreshData();
             clearFields();
             JOptionPane.showMessageDialog(this, "Appointment deleted successfully!", "Message", JOptionPane.INFORMATION_MESSAGE);
         } catch (Exception ex) {
@@ -311,60 +301,30 @@ public class AppointmentPanel extends JPanel {
     }
 
     private Appointment buildAppointmentObject() {
-        String[] args = new String[]{
-                appointmentIDField.getText().trim(),
-                patientIDField.getText().trim(),
-                clinicianIDField.getText().trim(),
-                facilityIDField.getText().trim(),
-                dateField.getText().trim(),
-                timeField.getText().trim(),
-                durationField.getText().trim(),
-                typeField.getText().trim(),
-                statusField.getText().trim(),
-                reasonField.getText().trim(),
-                notesField.getText().trim()
-        };
-
-        try {
-            for (Constructor<?> c : Appointment.class.getConstructors()) {
-                Class<?>[] p = c.getParameterTypes();
-                if (p.length != args.length) continue;
-
-                boolean allString = true;
-                for (Class<?> t : p) {
-                    if (t != String.class) { allString = false; break; }
-                }
-                if (!allString) continue;
-
-                return (Appointment) c.newInstance((Object[]) args);
-            }
-        } catch (Exception ignored) {}
-
-        try {
-            Appointment a = Appointment.class.getDeclaredConstructor().newInstance();
-            setIfExists(a, "appointmentID", args[0]);
-            setIfExists(a, "patientID", args[1]);
-            setIfExists(a, "clinicianID", args[2]);
-            setIfExists(a, "facilityID", args[3]);
-            setIfExists(a, "date", args[4]);
-            setIfExists(a, "time", args[5]);
-            setIfExists(a, "duration", args[6]);
-            setIfExists(a, "type", args[7]);
-            setIfExists(a, "status", args[8]);
-            setIfExists(a, "reason", args[9]);
-            setIfExists(a, "notes", args[10]);
-            return a;
-        } catch (Exception ignored) {}
-
-        throw new RuntimeException("Appointment constructor not matched. Please check Appointment.java constructors/fields.");
+        Appointment appointment = new Appointment();
+        JTextField[] fields = formFields();
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            COLUMNS.get(i).set(appointment, fields[i].getText().trim());
+        }
+        return appointment;
     }
 
-    private void setIfExists(Object obj, String fieldName, String value) {
-        try {
-            Field f = obj.getClass().getDeclaredField(fieldName);
-            f.setAccessible(true);
-            f.set(obj, value);
-        } catch (Exception ignored) {}
+    private JTextField[] formFields() {
+        return new JTextField[] {
+                appointmentIDField,
+                patientIDField,
+                clinicianIDField,
+                facilityIDField,
+                dateField,
+                timeField,
+                durationField,
+                typeField,
+                statusField,
+                reasonField,
+                notesField,
+                createdField,
+                lastModifiedField
+        };
     }
 
     private void clearFields() {
@@ -410,40 +370,4 @@ public class AppointmentPanel extends JPanel {
         button.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
         button.setFont(button.getFont().deriveFont(Font.BOLD, 12f));
     }
-
-    private String getStrSmart(Object obj, String... names) {
-        if (obj == null) return "";
-        for (String n : names) {
-            Object v = null;
-
-            if (n != null && n.startsWith("get")) v = invokeNoArg(obj, n);
-            if (v == null) v = readField(obj, n);
-
-            if (v != null) return v.toString();
-        }
-        return "";
-    }
-
-    private Object invokeNoArg(Object obj, String method) {
-        try {
-            Method m = obj.getClass().getMethod(method);
-            return m.invoke(obj);
-        } catch (Exception ignored) {}
-        return null;
-    }
-
-    private Object readField(Object obj, String fieldName) {
-        if (fieldName == null || fieldName.isEmpty()) return null;
-        Class<?> c = obj.getClass();
-        while (c != null) {
-            try {
-                Field f = c.getDeclaredField(fieldName);
-                f.setAccessible(true);
-                return f.get(obj);
-            } catch (Exception ignored) {
-                c = c.getSuperclass();
-            }
-        }
-        return null;
-    }
 }
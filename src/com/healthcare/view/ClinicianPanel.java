@@ -1,19 +1,18 @@
 package com.healthcare.view;
 
 import com.healthcare.controller.HealthcareController;
+import com.healthcare.data.EntityType;
 import com.healthcare.model.Clinician;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
-import java.util.List;
 
 public class ClinicianPanel extends JPanel {
 
     private final HealthcareController controller;
     private JTable table;
-    private DefaultTableModel tableModel;
+    private EntityTableModel<Clinician> tableModel;
 
     private JTextField clinicianIDField, firstNameField, lastNameField, qualificationField;
     private JTextField specialtyField, gmcNumberField, workplaceField, workplaceTypeField;
@@ -36,15 +35,22 @@ public class ClinicianPanel extends JPanel {
         add(buttonPanel, BorderLayout.NORTH);
 
         // ===== Table =====
-        String[] columns = {
-                "Clinician ID", "First Name", "Last Name", "Qualification",
-                "Specialty", "GMC Number", "Workplace", "Workplace Type",
-                "Employment Status", "Start Date", "Email", "Phone"
-        };
-
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override public boolean isCellEditable(int row, int column) { return false; }
-        };
+        tableModel = new EntityTableModel<Clinician>(EntityType.CLINICIAN, controller::getRowCount, controller::getRowAt)
+                .searchWith(controller::searchClinicians)
+                .column("Clinician ID", Clinician::getClinicianID)
+                .column("First Name", Clinician::getFirstName)
+                .column("Last Name", Clinician::getLastName)
+                .column("Qualification", Clinician::getQualification)
+                .column("Specialty", Clinician::getSpecialty)
+                .column("GMC Number", Clinician::getGmcNumber)
+                .column("Workplace", Clinician::getWorkplace)
+                .column("Workplace Type", Clinician::getWorkplaceType)
+                .column("Employment Status", Clinician::getEmploymentStatus)
+                .column("Start Date", Clinician::getStartDate)
+                .column("Email", Clinician::getEmail)
+                .column("Phone", Clinician::getPhone);
+        controller.addDataChangeListener(tableModel);
+        tableModel.refreshWhenShown(this);
 
         table = new JTable(tableModel);
         table.setFillsViewportHeight(true);
@@ -160,6 +166,7 @@ public class ClinicianPanel extends JPanel {
         panel.add(deleteBtn);
         panel.add(clearBtn);
         panel.add(refreshBtn);
+        panel.add(new SearchBar("Search by Clinician ID, name or specialty", query -> tableModel.filter(query)));
 
         return panel;
     }
@@ -197,7 +204,6 @@ public class ClinicianPanel extends JPanel {
             Clinician c = createClinicianFromForm();
             if (c != null) {
                 controller.addClinician(c);
-                refreshData();
                 clearForm();
                 JOptionPane.showMessageDialog(this, "Clinician added successfully!");
             }
@@ -214,9 +220,12 @@ public class ClinicianPanel extends JPanel {
         }
         try {
             String id = (String) tableModel.getValueAt(row, 0);
-            controller.deleteClinician(id);
-            controller.addClinician(createClinicianFromForm());
-            refreshData();
+            Clinician updated = createClinicianFromForm();
+            if (!id.equals(updated.getClinicianID()) || !controller.updateClinician(updated)) {
+                // ID changed (or record gone): replace under the new ID
+                controller.deleteClinician(id);
+                controller.addClinician(updated);
+            }
             clearForm();
             JOptionPane.showMessageDialog(this, "Clinician updated!");
         } catch (Exception e) {
@@ -233,7 +242,6 @@ public class ClinicianPanel extends JPanel {
         if (JOptionPane.showConfirmDialog(this, "Delete this clinician?", "Confirm",
                 JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
             controller.deleteClinician((String) tableModel.getValueAt(row, 0));
-            refreshData();
             clearForm();
         }
     }
@@ -293,16 +301,6 @@ public class ClinicianPanel extends JPanel {
     }
 
     public void refreshData() {
-        tableModel.setRowCount(0);
-        List<Clinician> list = controller.getAllClinicians();
-        for (Clinician c : list) {
-            tableModel.addRow(new Object[]{
-                    c.getClinicianID(), c.getFirstName(), c.getLastName(),
-                    c.getQualification(), c.getSpecialty(), c.getGmcNumber(),
-                    c.getWorkplace(), c.getWorkplaceType(),
-                    c.getEmploymentStatus(), c.getStartDate(),
-                    c.getEmail(), c.getPhone()
-            });
-        }
+        tableModel.reload();
     }
 }
@@ -0,0 +1,41 @@
+package com.healthcare.view;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * One table column bound to a model property through its getter and setter.
+ * Panels keep their bindings in a static list, so accessors are resolved once at compile
+ * time and reading a cell or filling a model object from the form is a plain method call.
+ */
+final class ColumnBinding<T> {
+    private final String name;
+    private final Function<T, String> getter;
+    private final BiConsumer<T, String> setter;
+
+    private ColumnBinding(String name, Function<T, String> getter, BiConsumer<T, String> setter) {
+        this.name = name;
+        this.getter = getter;
+        this.setter = setter;
+    }
+
+    static <T> ColumnBinding<T> of(String name, Function<T, String> getter, BiConsumer<T, String> setter) {
+        return new ColumnBinding<>(name, getter, setter);
+    }
+
+    String getName() {
+        return name;
+    }
+
+    /**
+     * Property value, or "" when it is null
+     */
+    String get(T row) {
+        String value = getter.apply(row);
+        return value == null ? "" : value;
+    }
+
+    void set(T row, String value) {
+        setter.accept(row, value);
+    }
+}
@@ -0,0 +1,534 @@
+package com.healthcare.view;
+
+import com.healthcare.data.DataChangeEvent;
+import com.healthcare.data.DataChangeListener;
+import com.healthcare.data.EntityType;
+import com.healthcare.data.Page;
+
+import javax.swing.JComponent;
+import javax.swing.JScrollPane;
+import javax.swing.JTable;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+import javax.swing.table.AbstractTableModel;
+import javax.swing.table.TableColumn;
+import javax.swing.table.TableColumnModel;
+import java.awt.Point;
+import java.awt.Rectangle;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Read-only table model that reads cells straight from the entity rows instead of copying
+ * every row into Object[]s. The unfiltered, unpaged view holds no rows at all: it keeps the
+ * row count and reads each row it is asked for by position (DataManager.getRowAt), so only
+ * the rows on screen are touched.
+ *
+ * Registered as a DataChangeListener it updates the count on each add, update or delete of
+ * its entity type and fires an event for just that row, so the table repaints one row
+ * instead of rebuilding and nothing is copied. Events from other threads are handled on the EDT.
+ * Once bound with refreshWhenShown, changes that arrive while the owning tab is hidden
+ * only mark the model stale; it is reloaded once when the tab is shown again.
+ *
+ * With a search function set, filter() swaps the rows for the matches of a query. The search
+ * runs on a SwingWorker and the matches are appended in chunks, so the table shows the first
+ * rows while the rest are still arriving. While a filter is active, change events re-run it.
+ *
+ * With a pager set (pageWith), the unfiltered view is read a page at a time from a sorted
+ * index instead of as the whole list, always on a SwingWorker: the next page is fetched once
+ * the viewport (see fetchOnScroll) comes near the end of what is loaded. Clicking a sortable
+ * column header re-reads the first page in that column's order; nothing is sorted on the EDT.
+ * A change event re-reads only the window from the first visible row on, starting at the
+ * cursor of the row above it; changed rows above the window are dropped by ID, and if one
+ * may have moved up there, that part is re-read once it is scrolled back into view.
+ * Events that arrive while a page is being read are handled together once it is in.
+ */
+class EntityTableModel<T> extends AbstractTableModel implements DataChangeListener {
+    private static final int SEARCH_CHUNK = 500;
+    private static final int PAGE_SIZE = 200;
+    private static final int PREFETCH_ROWS = 50;
+
+    /**
+     * Reads one row by position (HealthcareController::getRowAt)
+     */
+    interface RowReader<T> {
+        T getRowAt(EntityType type, int position);
+    }
+
+    /**
+     * Reads one page of rows in sort order (HealthcareController::page)
+     */
+    interface Pager<T> {
+        Page<T> page(EntityType type, String sortKey, boolean descending, String cursor, int limit);
+    }
+
+    private final EntityType entityType;
+    private final ToIntFunction<EntityType> rowCount;
+    private final RowReader<T> rowReader;
+    private final List<String> names = new ArrayList<>();
+    private final List<Function<T, ?>> getters = new ArrayList<>();
+    private List<T> rows = Collections.emptyList(); // search matches or loaded pages
+    private boolean positional; // rows are read from the store by position instead
+    private int positionalCount;
+    private JComponent owner;
+    private boolean stale;
+    private Function<String, List<T>> search;
+    private String query;
+    private SwingWorker<Void, List<T>> searchWorker;
+    private Pager<T> pager;
+    private Function<T, String> idOf;
+    private final Map<Integer, String> sortKeys = new HashMap<>();
+    private String sortKey;
+    private boolean descending;
+    private final List<String> cursors = new ArrayList<>(); // paged view: cursor after each loaded row
+    private String nextCursor;
+    private SwingWorker<Page<T>, Void> pageWorker;
+    private final Set<String> changedIds = new HashSet<>(); // changed while a page was being read
+    private final Set<String> movedIds = new HashSet<>(); // added or updated, so possibly above the window
+    private int staleAbove; // rows above this may be missing a changed row
+    private JTable table;
+
+    EntityTableModel(EntityType entityType, ToIntFunction<EntityType> rowCount, RowReader<T> rowReader) {
+        this.entityType = entityType;
+        this.rowCount = rowCount;
+        this.rowReader = rowReader;
+    }
+
+    /**
+     * Append a column read with getter (null values are shown as empty cells)
+     */
+    EntityTableModel<T> column(String name, Function<T, ?> getter) {
+        names.add(name);
+        getters.add(getter);
+        return this;
+    }
+
+    /**
+     * Append one column per binding, in order
+     */
+    EntityTableModel<T> columns(List<ColumnBinding<T>> bindings) {
+        for (ColumnBinding<T> binding : bindings) {
+            column(binding.getName(), binding::get);
+        }
+        return this;
+    }
+
+    /**
+     * Let the named column be sorted by a sort key of the pager
+     */
+    EntityTableModel<T> sortable(String column, String key) {
+        int index = names.indexOf(column);
+        if (index < 0) throw new IllegalArgumentException("No column " + column);
+        sortKeys.put(index, key);
+        return this;
+    }
+
+    /**
+     * Read the unfiltered rows page by page through pager, initially in defaultSortKey order.
+     * idOf gives the ID that change events refer to.
+     */
+    EntityTableModel<T> pageWith(Pager<T> pager, String defaultSortKey, Function<T, String> idOf) {
+        this.pager = pager;
+        this.sortKey = defaultSortKey;
+        this.idOf = idOf;
+        return this;
+    }
+
+    /**
+     * Sort by a column when its header is clicked; a second click reverses the order
+     */
+    void sortOnHeaderClick(JTable table) {
+        this.table = table;
+        table.getTableHeader().addMouseListener(new MouseAdapter() {
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                int column = table.convertColumnIndexToModel(table.columnAtPoint(e.getPoint()));
+                if (column >= 0) sortBy(column);
+            }
+        });
+    }
+
+    void sortBy(int column) {
+        String key = sortKeys.get(column);
+        if (key == null || pager == null) return;
+        descending = key.equals(sortKey) && !descending;
+        sortKey = key;
+        showSortArrow();
+        reload();
+    }
+
+    /**
+     * Put the sort arrow in the header by renaming the columns in place, which keeps their widths
+     */
+    private void showSortArrow() {
+        if (table == null) return;
+        TableColumnModel columns = table.getColumnModel();
+        for (int i = 0; i < columns.getColumnCount(); i++) {
+            TableColumn column = columns.getColumn(i);
+            column.setHeaderValue(getColumnName(column.getModelIndex()));
+        }
+        table.getTableHeader().repaint();
+    }
+
+    /**
+     * Fetch further pages as the table in scrollPane is scrolled towards the end of the
+     * loaded rows (paged view only)
+     */
+    void fetchOnScroll(JScrollPane scrollPane) {
+        table = (JTable) scrollPane.getViewport().getView();
+        scrollPane.getViewport().addChangeListener(e -> viewportMoved());
+    }
+
+    /**
+     * Skip change events while owner is not on screen and catch up when it is shown
+     */
+    EntityTableModel<T> refreshWhenShown(JComponent owner) {
+        this.owner = owner;
+        owner.addHierarchyListener(e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0 && owner.isShowing() && stale) {
+                reload();
+            }
+        });
+        return this;
+    }
+
+    /**
+     * Function used by filter() to find the rows matching a query
+     */
+    EntityTableModel<T> searchWith(Function<String, List<T>> search) {
+        this.search = search;
+        return this;
+    }
+
+    /**
+     * Show only the rows matching query (blank shows every row again). Must be called on the EDT.
+     */
+    void filter(String query) {
+        String trimmed = query == null ? "" : query.trim();
+        this.query = trimmed.isEmpty() || search == null ? null : trimmed;
+        reload();
+    }
+
+    /**
+     * Re-read the whole list (Refresh button, after a load), or re-run the active filter
+     */
+    void reload() {
+        stale = false;
+        if (searchWorker != null) {
+            searchWorker.cancel(false);
+            searchWorker = null;
+        }
+        if (pageWorker != null) {
+            pageWorker.cancel(false);
+            pageWorker = null;
+        }
+        changedIds.clear();
+        movedIds.clear();
+        staleAbove = 0;
+        if (query != null) {
+            startSearch(query);
+            return;
+        }
+        if (pager != null) {
+            readPage(0, null, PAGE_SIZE, true);
+            return;
+        }
+        rows = Collections.emptyList();
+        positional = true;
+        positionalCount = rowCount.applyAsInt(entityType);
+        fireTableDataChanged();
+    }
+
+    /**
+     * Read count rows after cursor in the background (one index walk, not a sort) and put them
+     * in place of the loaded rows from start on. wholeTable replaces every row, as after a
+     * sort; otherwise rows up to start and their selection are left alone.
+     */
+    private void readPage(int start, String cursor, int count, boolean wholeTable) {
+        String key = sortKey;
+        boolean desc = descending;
+        SwingWorker<Page<T>, Void> worker = new SwingWorker<Page<T>, Void>() {
+            @Override
+            protected Page<T> doInBackground() {
+                return pager.page(entityType, key, desc, cursor, count);
+            }
+
+            @Override
+            protected void done() {
+                if (pageWorker != this) return;
+                pageWorker = null;
+                try {
+                    showPage(start, get(), wholeTable);
+                } catch (InterruptedException | ExecutionException e) {
+                    System.err.println("Error reading page: " + e);
+                }
+                if (!changedIds.isEmpty()) {
+                    refreshWindow();
+                } else {
+                    viewportMoved(); // the new rows may still not reach the bottom of the viewport
+                }
+            }
+        };
+        pageWorker = worker;
+        worker.execute();
+    }
+
+    private void showPage(int start, Page<T> page, boolean wholeTable) {
+        List<T> pageRows = page.getRows();
+        nextCursor = page.getNextCursor();
+        if (wholeTable) {
+            rows = new ArrayList<>(pageRows);
+            cursors.clear();
+            for (int i = 0; i < pageRows.size(); i++) {
+                cursors.add(page.getCursor(i));
+            }
+            fireTableDataChanged();
+            return;
+        }
+
+        int before = rows.size();
+        start = Math.min(start, before);
+        rows.subList(start, before).clear();
+        cursors.subList(start, cursors.size()).clear();
+        rows.addAll(pageRows);
+        for (int i = 0; i < pageRows.size(); i++) {
+            cursors.add(page.getCursor(i));
+        }
+
+        int after = rows.size();
+        if (Math.min(before, after) > start) fireTableRowsUpdated(start, Math.min(before, after) - 1);
+        if (after > before) {
+            fireTableRowsInserted(before, after - 1);
+        } else if (after < before) {
+            fireTableRowsDeleted(after, before - 1);
+        }
+    }
+
+    /**
+     * Fetch the next page once the viewport nears the end of the loaded rows, and re-read from
+     * the top once it shows rows that may be missing a changed row
+     */
+    private void viewportMoved() {
+        if (pager == null || query != null || table == null || pageWorker != null) return;
+        if (staleAbove > 0 && firstVisibleRow() < staleAbove) {
+            staleAbove = 0;
+            readPage(0, null, Math.max(PAGE_SIZE, lastVisibleRow() + PREFETCH_ROWS), false);
+            return;
+        }
+        if (nextCursor != null && lastVisibleRow() >= rows.size() - PREFETCH_ROWS) {
+            readPage(rows.size(), nextCursor, PAGE_SIZE, false);
+        }
+    }
+
+    /**
+     * Drop the changed rows above the first visible row and re-read the window from there
+     */
+    private void refreshWindow() {
+        Set<String> changed = new HashSet<>(changedIds);
+        Set<String> moved = new HashSet<>(movedIds);
+        changedIds.clear();
+        movedIds.clear();
+        if (rows.isEmpty() || cursors.size() != rows.size()) {
+            readPage(0, null, PAGE_SIZE, true);
+            return;
+        }
+
+        int first = Math.min(firstVisibleRow(), rows.size());
+        for (int i = first - 1; i >= 0; i--) {
+            if (changed.contains(idOf.apply(rows.get(i)))) {
+                rows.remove(i);
+                cursors.remove(i);
+                fireTableRowsDeleted(i, i);
+                first--;
+            }
+        }
+        if (first > 0 && !moved.isEmpty()) {
+            staleAbove = Math.max(staleAbove, first); // an added or moved row may now sort up there
+        }
+        String cursor = first == 0 ? null : cursors.get(first - 1);
+        readPage(first, cursor, Math.max(PAGE_SIZE, visibleRowCount() + PREFETCH_ROWS), false);
+    }
+
+    private int firstVisibleRow() {
+        if (table == null) return 0;
+        int row = table.rowAtPoint(table.getVisibleRect().getLocation());
+        return Math.max(0, row);
+    }
+
+    private int lastVisibleRow() {
+        if (table == null) return rows.size() - 1;
+        Rectangle visible = table.getVisibleRect();
+        if (visible.isEmpty()) return -1; // not laid out or not showing yet
+        int row = table.rowAtPoint(new Point(visible.x, visible.y + visible.height - 1));
+        return row < 0 ? rows.size() - 1 : row;
+    }
+
+    private int visibleRowCount() {
+        if (table == null) return 0;
+        return table.getVisibleRect().height / Math.max(1, table.getRowHeight()) + 1;
+    }
+
+    private void startSearch(String text) {
+        SwingWorker<Void, List<T>> worker = new SwingWorker<Void, List<T>>() {
+            private boolean first = true;
+
+            @Override
+            protected Void doInBackground() {
+                List<T> matches = search.apply(text);
+                for (int from = 0; from < matches.size() && !isCancelled(); from += SEARCH_CHUNK) {
+                    publish(matches.subList(from, Math.min(matches.size(), from + SEARCH_CHUNK)));
+                }
+                return null;
+            }
+
+            @Override
+            protected void process(List<List<T>> chunks) {
+                if (searchWorker != this) return;
+                for (List<T> chunk : chunks) {
+                    append(chunk);
+                }
+            }
+
+            @Override
+            protected void done() {
+                if (searchWorker != this) return;
+                searchWorker = null;
+                if (first) { // no matches
+                    rows = Collections.emptyList();
+                    positional = false;
+                    fireTableDataChanged();
+                }
+            }
+
+            private void append(List<T> chunk) {
+                if (first) { // keep the old rows on screen until the first matches are in
+                    first = false;
+                    rows = new ArrayList<>(chunk);
+                    positional = false;
+                    fireTableDataChanged();
+                    return;
+                }
+                int start = rows.size();
+                rows.addAll(chunk);
+                fireTableRowsInserted(start, rows.size() - 1);
+            }
+        };
+        searchWorker = worker;
+        worker.execute();
+    }
+
+    /**
+     * Row shown at row, or null if it was deleted and the table has not caught up yet
+     */
+    T getRow(int row) {
+        return positional ? rowReader.getRowAt(entityType, row) : rows.get(row);
+    }
+
+    @Override
+    public int getRowCount() {
+        return positional ? positionalCount : rows.size();
+    }
+
+    @Override
+    public int getColumnCount() {
+        return names.size();
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        String key = sortKeys.get(column);
+        if (pager != null && key != null && key.equals(sortKey)) {
+            return names.get(column) + (descending ? " \u25BC" : " \u25B2");
+        }
+        return names.get(column);
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        T entity = getRow(row);
+        if (entity == null) return "";
+        Object value = getters.get(column).apply(entity);
+        return value == null ? "" : value;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return false;
+    }
+
+    @Override
+    public void dataChanged(DataChangeEvent event) {
+        if (event.getEntityType() != entityType) return;
+        if (SwingUtilities.isEventDispatchThread()) {
+            apply(event);
+        } else {
+            SwingUtilities.invokeLater(() -> apply(event));
+        }
+    }
+
+    private void apply(DataChangeEvent event) {
+        if (owner != null && !owner.isShowing()) {
+            stale = true;
+            return;
+        }
+        if (query != null) { // row positions in a filtered view do not match the store
+            reload();
+            return;
+        }
+        if (pager != null) { // nor do they in a sorted one; re-read the visible window
+            if (event.getKind() == DataChangeEvent.Kind.RELOADED) {
+                reload();
+                return;
+            }
+            changedIds.add(event.getId());
+            if (event.getKind() != DataChangeEvent.Kind.DELETED) movedIds.add(event.getId());
+            if (pageWorker == null) refreshWindow(); // otherwise once the page being read is in
+            return;
+        }
+        if (!positional) {
+            reload();
+            return;
+        }
+        int before = positionalCount;
+        int after = rowCount.applyAsInt(entityType);
+        positionalCount = after;
+
+        int row = event.getRow();
+        // Events queued from another thread may already be covered by the count we just read;
+        // fall back to a full refresh whenever it does not match the single-row change
+        switch (event.getKind()) {
+            case ADDED:
+                if (after == before + 1 && row >= 0 && row < after) {
+                    fireTableRowsInserted(row, row);
+                    return;
+                }
+                break;
+            case UPDATED:
+                if (after == before && row >= 0 && row < after) {
+                    fireTableRowsUpdated(row, row);
+                    return;
+                }
+                break;
+            case DELETED:
+                if (after == before - 1 && row >= 0 && row < before) {
+                    fireTableRowsDeleted(row, row);
+                    return;
+                }
+                break;
+            default:
+                break;
+        }
+        fireTableDataChanged();
+    }
+}
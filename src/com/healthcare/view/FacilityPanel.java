@@ -1,19 +1,18 @@
 package com.healthcare.view;
 
 import com.healthcare.controller.HealthcareController;
+import com.healthcare.data.EntityType;
 import com.healthcare.model.Facility;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
-import java.util.List;
 
 public class FacilityPanel extends JPanel {
 
     private final HealthcareController controller;
     private JTable table;
-    private DefaultTableModel tableModel;
+    private EntityTableModel<Facility> tableModel;
 
     private JTextField facilityIDField, nameField, typeField, addressField, postcodeField;
     private JTextField phoneField, emailField, openingHoursField, managerField, servicesField, capacityField;
@@ -33,14 +32,21 @@ public class FacilityPanel extends JPanel {
         buttonPanel.setBackground(new Color(245, 247, 250));
         add(buttonPanel, BorderLayout.NORTH);
 
-        String[] columns = {
-                "Facility ID", "Name", "Type", "Address", "Postcode", "Phone", "Email",
-                "Opening Hours", "Manager", "Services", "Capacity"
-        };
-
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override public boolean isCellEditable(int row, int column) { return false; }
-        };
+        tableModel = new EntityTableModel<Facility>(EntityType.FACILITY, controller::getRowCount, controller::getRowAt)
+                .searchWith(controller::searchFacilities)
+                .column("Facility ID", Facility::getFacilityID)
+                .column("Name", Facility::getName)
+                .column("Type", Facility::getType)
+                .column("Address", Facility::getAddress)
+                .column("Postcode", Facility::getPostcode)
+                .column("Phone", Facility::getPhone)
+                .column("Email", Facility::getEmail)
+                .column("Opening Hours", Facility::getOpeningHours)
+                .column("Manager", Facility::getManagerName)
+                .column("Services", Facility::getServices)
+                .column("Capacity", Facility::getCapacity);
+        controller.addDataChangeListener(tableModel);
+        tableModel.refreshWhenShown(this);
 
         table = new JTable(tableModel);
         table.setFillsViewportHeight(true);
@@ -154,6 +160,7 @@ public class FacilityPanel extends JPanel {
         panel.add(deleteBtn);
         panel.add(clearBtn);
         panel.add(refreshBtn);
+        panel.add(new SearchBar("Search by Facility ID, name, type or postcode", query -> tableModel.filter(query)));
 
         return panel;
     }
@@ -190,7 +197,6 @@ public class FacilityPanel extends JPanel {
             Facility f = createFacilityFromForm();
             if (f != null) {
                 controller.addFacility(f);
-                refreshData();
                 clearForm();
                 JOptionPane.showMessageDialog(this, "Facility added!");
             }
@@ -207,9 +213,12 @@ public class FacilityPanel extends JPanel {
         }
         try {
             String id = (String) tableModel.getValueAt(row, 0);
-            controller.deleteFacility(id);
-            controller.addFacility(createFacilityFromForm());
-            refreshData();
+            Facility updated = createFacilityFromForm();
+            if (!id.equals(updated.getFacilityID()) || !controller.updateFacility(updated)) {
+                // ID changed (or record gone): replace under the new ID
+                controller.deleteFacility(id);
+                controller.addFacility(updated);
+            }
             clearForm();
             JOptionPane.showMessageDialog(this, "Facility updated!");
         } catch (Exception e) {
@@ -226,7 +235,6 @@ public class FacilityPanel extends JPanel {
         if (JOptionPane.showConfirmDialog(this, "Delete this facility?", "Confirm",
                 JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
             controller.deleteFacility((String) tableModel.getValueAt(row, 0));
-            refreshData();
             clearForm();
         }
     }
@@ -283,16 +291,6 @@ public class FacilityPanel extends JPanel {
     }
 
     public void refreshData() {
-        tableModel.setRowCount(0);
-        List<Facility> list = controller.getAllFacilities();
-        for (Facility f : list) {
-            tableModel.addRow(new Object[]{
-                    f.getFacilityID(), f.getName(), f.getType(),
-                    f.getAddress(), f.getPostcode(),
-                    f.getPhone(), f.getEmail(),
-                    f.getOpeningHours(), f.getManagerName(),
-                    f.getServices(), f.getCapacity()
-            });
-        }
+        tableModel.reload();
     }
 }
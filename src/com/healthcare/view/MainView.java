@@ -1,9 +1,14 @@
 package com.healthcare.view;
 
 import com.healthcare.controller.HealthcareController;
+import com.healthcare.data.EntityType;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 /**
  * Main View class - Main GUI window with tabs for different entities
@@ -21,6 +26,12 @@ public class MainView extends JFrame {
     private PrescriptionPanel prescriptionPanel;
     private ReferralPanel referralPanel;
     private StaffPanel staffPanel;
+    private final List<LazyTab> lazyTabs = new ArrayList<>();
+
+    private JLabel statusLabel;
+    private JProgressBar loadProgressBar;
+    private JMenuItem loadMenuItem;
+    private boolean loading;
 
     public MainView(HealthcareController controller) {
         this.controller = controller;
@@ -50,23 +61,16 @@ public class MainView extends JFrame {
         tabbedPane.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
         tabbedPane.setBackground(new Color(245, 247, 250));
 
-        // Panels
-        patientPanel = new PatientPanel(controller);
-        clinicianPanel = new ClinicianPanel(controller);
-        facilityPanel = new FacilityPanel(controller);
-        appointmentPanel = new AppointmentPanel(controller);
-        prescriptionPanel = new PrescriptionPanel(controller);
-        referralPanel = new ReferralPanel(controller);
-        staffPanel = new StaffPanel(controller);
-
-        // Add tabs
-        tabbedPane.addTab("Patients", patientPanel);
-        tabbedPane.addTab("Clinicians", clinicianPanel);
-        tabbedPane.addTab("Facilities", facilityPanel);
-        tabbedPane.addTab("Appointments", appointmentPanel);
-        tabbedPane.addTab("Prescriptions", prescriptionPanel);
-        tabbedPane.addTab("Referrals", referralPanel);
-        tabbedPane.addTab("Staff", staffPanel);
+        // Panels are built the first time their tab is selected
+        addLazyTab("Patients", () -> patientPanel = new PatientPanel(controller), () -> patientPanel.refreshData());
+        addLazyTab("Clinicians", () -> clinicianPanel = new ClinicianPanel(controller), () -> clinicianPanel.refreshData());
+        addLazyTab("Facilities", () -> facilityPanel = new FacilityPanel(controller), () -> facilityPanel.refreshData());
+        addLazyTab("Appointments", () -> appointmentPanel = new AppointmentPanel(controller), () -> appointmentPanel.refreshData());
+        addLazyTab("Prescriptions", () -> prescriptionPanel = new PrescriptionPanel(controller), () -> prescriptionPanel.refreshData());
+        addLazyTab("Referrals", () -> referralPanel = new ReferralPanel(controller), () -> referralPanel.refreshData());
+        addLazyTab("Staff", () -> staffPanel = new StaffPanel(controller), () -> staffPanel.refreshData());
+        tabbedPane.addChangeListener(e -> showTab(tabbedPane.getSelectedIndex()));
+        showTab(tabbedPane.getSelectedIndex());
 
         add(tabbedPane, BorderLayout.CENTER);
 
@@ -74,6 +78,44 @@ public class MainView extends JFrame {
         add(buildStatusBar(), BorderLayout.SOUTH);
     }
 
+    private void addLazyTab(String title, Supplier<JComponent> factory, Runnable refresh) {
+        JPanel placeholder = new JPanel();
+        placeholder.setBackground(new Color(245, 247, 250));
+        lazyTabs.add(new LazyTab(factory, refresh));
+        tabbedPane.addTab(title, placeholder);
+    }
+
+    /**
+     * Build the tab's panel on first use, or refresh it if data was reloaded while it was hidden
+     */
+    private void showTab(int index) {
+        if (index < 0) return;
+        LazyTab tab = lazyTabs.get(index);
+        if (!tab.built) {
+            tab.built = true;
+            tab.dirty = false;
+            tabbedPane.setComponentAt(index, tab.factory.get()); // panels load their table when built
+        } else if (tab.dirty) {
+            tab.dirty = false;
+            tab.refresh.run();
+        }
+    }
+
+    /**
+     * A tab whose panel is created on first selection
+     */
+    private static final class LazyTab {
+        final Supplier<JComponent> factory;
+        final Runnable refresh;
+        boolean built;
+        boolean dirty;
+
+        LazyTab(Supplier<JComponent> factory, Runnable refresh) {
+            this.factory = factory;
+            this.refresh = refresh;
+        }
+    }
+
     private JPanel buildHeader() {
         // Professional blue
         Color headerBg = new Color(21, 101, 192);
@@ -110,10 +152,16 @@ public class MainView extends JFrame {
         statusBar.setBorder(BorderFactory.createMatteBorder(1, 0, 0, 0, new Color(230, 230, 230)));
         statusBar.setBackground(Color.WHITE);
 
-        JLabel statusLabel = new JLabel("Ready");
+        statusLabel = new JLabel("Ready");
         statusLabel.setForeground(new Color(110, 110, 110));
         statusBar.add(statusLabel);
 
+        // One step per entity type; only shown while a load is running
+        loadProgressBar = new JProgressBar(0, EntityType.values().length);
+        loadProgressBar.setStringPainted(true);
+        loadProgressBar.setVisible(false);
+        statusBar.add(loadProgressBar);
+
         return statusBar;
     }
 
@@ -122,7 +170,7 @@ public class MainView extends JFrame {
 
         JMenu fileMenu = new JMenu("File");
 
-        JMenuItem loadMenuItem = new JMenuItem("Load Data");
+        loadMenuItem = new JMenuItem("Load Data");
         loadMenuItem.addActionListener(e -> loadData());
         fileMenu.add(loadMenuItem);
 
@@ -143,19 +191,101 @@ public class MainView extends JFrame {
         int result = fileChooser.showOpenDialog(this);
         if (result == JFileChooser.APPROVE_OPTION) {
             String dataDirectory = fileChooser.getSelectedFile().getAbsolutePath();
-            controller.loadData(dataDirectory);
-            refreshAllPanels();
-            JOptionPane.showMessageDialog(this, "Data loaded successfully!");
+            loadDataInBackground(dataDirectory, true);
         }
     }
 
+    /**
+     * Load the data directory on a SwingWorker so the window stays responsive.
+     * The status bar shows rows/s for each file as it finishes, and each table fills in
+     * as soon as its entity type is loaded. Must be called on the EDT.
+     */
+    public void loadDataInBackground(String dataDirectory, boolean confirmWhenDone) {
+        if (loading) return;
+        loading = true;
+        loadMenuItem.setEnabled(false);
+        loadProgressBar.setValue(0);
+        loadProgressBar.setString(null);
+        loadProgressBar.setVisible(true);
+        statusLabel.setText("Loading data from " + dataDirectory + "...");
+
+        new SwingWorker<Void, LoadStep>() {
+            @Override
+            protected Void doInBackground() {
+                controller.loadData(dataDirectory, (type, rows, millis, done, total) ->
+                        publish(new LoadStep(type, rows, millis, done)));
+                return null;
+            }
+
+            @Override
+            protected void process(List<LoadStep> steps) {
+                LoadStep last = steps.get(steps.size() - 1);
+                loadProgressBar.setValue(last.done);
+                statusLabel.setText(last.describe());
+            }
+
+            @Override
+            protected void done() {
+                loading = false;
+                loadMenuItem.setEnabled(true);
+                loadProgressBar.setVisible(false);
+                try {
+                    get();
+                    refreshAllPanels();
+                    statusLabel.setText("Ready");
+                    if (confirmWhenDone) {
+                        JOptionPane.showMessageDialog(MainView.this, "Data loaded successfully!");
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException e) {
+                    System.err.println("Error loading data: " + e.getCause());
+                    statusLabel.setText("Load failed");
+                    JOptionPane.showMessageDialog(MainView.this,
+                            "Error loading data: " + e.getCause().getMessage(),
+                            "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+
+    /**
+     * One finished entity type, as published from the load worker
+     */
+    private static final class LoadStep {
+        final EntityType type;
+        final int rows;
+        final long millis;
+        final int done;
+
+        LoadStep(EntityType type, int rows, long millis, int done) {
+            this.type = type;
+            this.rows = rows;
+            this.millis = millis;
+            this.done = done;
+        }
+
+        String describe() {
+            long rowsPerSecond = rows * 1000L / Math.max(1, millis);
+            return "Loaded " + type.getLabel() + ": " + rows + " rows in " + millis
+                    + " ms (" + rowsPerSecond + " rows/s)";
+        }
+    }
+
+    /**
+     * Refresh the visible panel now; other built panels are refreshed when next selected
+     */
     public void refreshAllPanels() {
-        if (patientPanel != null) patientPanel.refreshData();
-        if (clinicianPanel != null) clinicianPanel.refreshData();
-        if (facilityPanel != null) facilityPanel.refreshData();
-        if (appointmentPanel != null) appointmentPanel.refreshData();
-        if (prescriptionPanel != null) prescriptionPanel.refreshData();
-        if (referralPanel != null) referralPanel.refreshData();
-        if (staffPanel != null) staffPanel.refreshData();
+        int selected = tabbedPane.getSelectedIndex();
+        for (int i = 0; i < lazyTabs.size(); i++) {
+            LazyTab tab = lazyTabs.get(i);
+            if (!tab.built) continue;
+            if (i == selected) {
+                tab.dirty = false;
+                tab.refresh.run();
+            } else {
+                tab.dirty = true;
+            }
+        }
     }
 }
@@ -1,12 +1,11 @@
 package com.healthcare.view;
 
 import com.healthcare.controller.HealthcareController;
+import com.healthcare.data.EntityType;
 import com.healthcare.model.Patient;
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
-import java.util.List;
 
 /**
  * Panel for Patient management (CRUD operations)
@@ -14,7 +13,7 @@ import java.util.List;
 public class PatientPanel extends JPanel {
     private HealthcareController controller;
     private JTable table;
-    private DefaultTableModel tableModel;
+    private EntityTableModel<Patient> tableModel;
     private JTextField patientIDField, firstNameField, lastNameField, dobField, genderField;
     private JTextField nhsNumberField, emailField, phoneField, addressField, postcodeField;
     private JTextField emergencyContactNameField, emergencyContactPhoneField, registrationDateField, gpSurgeryField;
@@ -22,6 +21,7 @@ public class PatientPanel extends JPanel {
     public PatientPanel(HealthcareController controller) {
         this.controller = controller;
         initializePanel();
+        refreshData();
     }
 
     private void initializePanel() {
@@ -32,16 +32,33 @@ public class PatientPanel extends JPanel {
         setBackground(new Color(245, 247, 250));
 
         // Table
-        String[] columns = {"Patient ID", "First Name", "Last Name", "DOB", "Gender", 
-                          "NHS Number", "Email", "Phone", "Address", "Postcode", 
-                          "Emergency Contact", "Emergency Phone", "Registration Date", "GP Surgery"};
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override
-            public boolean isCellEditable(int row, int column) {
-                return false;
-            }
-        };
+        tableModel = new EntityTableModel<Patient>(EntityType.PATIENT, controller::getRowCount, controller::getRowAt)
+                .searchWith(controller::searchPatients)
+                .column("Patient ID", Patient::getPatientID)
+                .column("First Name", Patient::getFirstName)
+                .column("Last Name", Patient::getLastName)
+                .column("DOB", Patient::getDateOfBirth)
+                .column("Gender", Patient::getGender)
+                .column("NHS Number", Patient::getNhsNumber)
+                .column("Email", Patient::getEmail)
+                .column("Phone", Patient::getPhone)
+                .column("Address", Patient::getAddress)
+                .column("Postcode", Patient::getPostcode)
+                .column("Emergency Contact", Patient::getEmergencyContactName)
+                .column("Emergency Phone", Patient::getEmergencyContactPhone)
+                .column("Registration Date", Patient::getRegistrationDate)
+                .column("GP Surgery", Patient::getGpSurgery)
+                .pageWith(controller::page, "lastName", Patient::getPatientID)
+                .sortable("Patient ID", "patientID")
+                .sortable("First Name", "firstName")
+                .sortable("Last Name", "lastName")
+                .sortable("DOB", "dateOfBirth")
+                .sortable("NHS Number", "nhsNumber")
+                .sortable("Registration Date", "registrationDate");
+        controller.addDataChangeListener(tableModel);
+        tableModel.refreshWhenShown(this);
         table = new JTable(tableModel);
+        tableModel.sortOnHeaderClick(table);
         table.setFillsViewportHeight(true);
         table.setRowHeight(24);
         table.setShowGrid(true);
@@ -63,6 +80,7 @@ public class PatientPanel extends JPanel {
         header.setFont(header.getFont().deriveFont(Font.BOLD, 13f));
 
         JScrollPane scrollPane = new JScrollPane(table);
+        tableModel.fetchOnScroll(scrollPane);
         scrollPane.getViewport().setBackground(Color.WHITE);
         scrollPane.setBorder(BorderFactory.createTitledBorder("Patients"));
         add(scrollPane, BorderLayout.CENTER);
@@ -205,6 +223,7 @@ public class PatientPanel extends JPanel {
         JButton refreshButton = createSecondaryButton("Refresh");
         refreshButton.addActionListener(e -> refreshData());
         panel.add(refreshButton);
+        panel.add(new SearchBar("Search by Patient ID, first or last name, NHS number or postcode", query -> tableModel.filter(query)));
 
         return panel;
     }
@@ -244,7 +263,6 @@ public class PatientPanel extends JPanel {
             Patient patient = createPatientFromForm();
             if (patient != null) {
                 controller.addPatient(patient);
-                refreshData();
                 clearForm();
                 JOptionPane.showMessageDialog(this, "Patient added successfully!");
             }
@@ -265,9 +283,11 @@ public class PatientPanel extends JPanel {
             String patientID = (String) tableModel.getValueAt(selectedRow, 0);
             Patient patient = createPatientFromForm();
             if (patient != null) {
-                controller.deletePatient(patientID);
-                controller.addPatient(patient);
-                refreshData();
+                if (!patientID.equals(patient.getPatientID()) || !controller.updatePatient(patient)) {
+                    // ID changed (or record gone): replace under the new ID
+                    controller.deletePatient(patientID);
+                    controller.addPatient(patient);
+                }
                 clearForm();
                 JOptionPane.showMessageDialog(this, "Patient updated successfully!");
             }
@@ -291,7 +311,6 @@ public class PatientPanel extends JPanel {
         if (confirm == JOptionPane.YES_OPTION) {
             String patientID = (String) tableModel.getValueAt(selectedRow, 0);
             controller.deletePatient(patientID);
-            refreshData();
             clearForm();
             JOptionPane.showMessageDialog(this, "Patient deleted successfully!");
         }
@@ -359,26 +378,7 @@ public class PatientPanel extends JPanel {
     }
 
     public void refreshData() {
-        tableModel.setRowCount(0);
-        List<Patient> patients = controller.getAllPatients();
-        for (Patient patient : patients) {
-            tableModel.addRow(new Object[]{
-                patient.getPatientID(),
-                patient.getFirstName(),
-                patient.getLastName(),
-                patient.getDateOfBirth(),
-                patient.getGender(),
-                patient.getNhsNumber(),
-                patient.getEmail(),
-                patient.getPhone(),
-                patient.getAddress(),
-                patient.getPostcode(),
-                patient.getEmergencyContactName(),
-                patient.getEmergencyContactPhone(),
-                patient.getRegistrationDate(),
-                patient.getGpSurgery()
-            });
-        }
+        tableModel.reload();
     }
 }
 
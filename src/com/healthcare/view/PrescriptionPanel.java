@@ -1,25 +1,40 @@
 package com.healthcare.view;
 
 import com.healthcare.controller.HealthcareController;
+import com.healthcare.data.EntityType;
 import com.healthcare.model.Prescription;
 
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.util.Collections;
 import java.util.List;
 
 public class PrescriptionPanel extends JPanel {
 
+    // Table columns in display order; the form fields follow the same order (see formFields())
+    private static final List<ColumnBinding<Prescription>> COLUMNS = List.of(
+            ColumnBinding.of("Prescription ID", Prescription::getPrescriptionID, Prescription::setPrescriptionID),
+            ColumnBinding.of("Patient ID", Prescription::getPatientID, Prescription::setPatientID),
+            ColumnBinding.of("Clinician ID", Prescription::getClinicianID, Prescription::setClinicianID),
+            ColumnBinding.of("Appointment ID", Prescription::getAppointmentID, Prescription::setAppointmentID),
+            ColumnBinding.of("Medication", Prescription::getMedication, Prescription::setMedication),
+            ColumnBinding.of("Dosage", Prescription::getDosage, Prescription::setDosage),
+            ColumnBinding.of("Frequency", Prescription::getFrequency, Prescription::setFrequency),
+            ColumnBinding.of("Duration Days", Prescription::getDurationDays, Prescription::setDurationDays),
+            ColumnBinding.of("Quantity", Prescription::getQuantity, Prescription::setQuantity),
+            ColumnBinding.of("Pharmacy", Prescription::getPharmacy, Prescription::setPharmacy),
+            ColumnBinding.of("Date Prescribed", Prescription::getDatePrescribed, Prescription::setDatePrescribed),
+            ColumnBinding.of("Issue Date", Prescription::getIssueDate, Prescription::setIssueDate),
+            ColumnBinding.of("Collection Date", Prescription::getCollectionDate, Prescription::setCollectionDate),
+            ColumnBinding.of("Collection Status", Prescription::getCollectionStatus, Prescription::setCollectionStatus),
+            ColumnBinding.of("Notes", Prescription::getNotes, Prescription::setNotes)
+    );
+
     private final HealthcareController controller;
 
     private JTable table;
-    private DefaultTableModel tableModel;
+    private EntityTableModel<Prescription> tableModel;
 
     private JTextField prescriptionIDField;
     private JTextField patientIDField;
@@ -75,6 +90,7 @@ public class PrescriptionPanel extends JPanel {
         panel.add(deleteBtn);
         panel.add(clearBtn);
         panel.add(refreshBtn);
+        panel.add(new SearchBar("Search by Prescription or patient ID, medication or collection status", query -> tableModel.filter(query)));
 
         addBtn.addActionListener(e -> onAdd());
         updateBtn.addActionListener(e -> onUpdate());
@@ -86,17 +102,11 @@ public class PrescriptionPanel extends JPanel {
     }
 
     private JScrollPane buildTablePanel() {
-        String[] cols = {
-                "Prescription ID", "Patient ID", "Clinician ID", "Appointment ID",
-                "Medication", "Dosage", "Frequency",
-                "Duration Days", "Quantity", "Pharmacy",
-                "Date Prescribed", "Issue Date", "Collection Date", "Collection Status",
-                "Notes"
-        };
-
-        tableModel = new DefaultTableModel(cols, 0) {
-            @Override public boolean isCellEditable(int r, int c) { return false; }
-        };
+        tableModel = new EntityTableModel<Prescription>(EntityType.PRESCRIPTION, controller::getRowCount, controller::getRowAt)
+                .searchWith(controller::searchPrescriptions)
+                .columns(COLUMNS);
+        controller.addDataChangeListener(tableModel);
+        tableModel.refreshWhenShown(this);
 
         table = new JTable(tableModel);
         table.setFillsViewportHeight(true);
@@ -234,45 +244,7 @@ public class PrescriptionPanel extends JPanel {
     }
 
     public void refreshData() {
-        tableModel.setRowCount(0);
-
-        List<Prescription> list = getListFromController(controller,
-                new String[]{"getPrescriptions","getAllPrescriptions","getPrescriptionList","getPrescriptionsList","getAllPrescriptions"},
-                new String[]{"getDataManager","getData","getStore"},
-                new String[]{"getPrescriptions","getAllPrescriptions","getPrescriptionList","getPrescriptionsList"}
-        );
-
-        if (list == null) list = Collections.emptyList();
-
-        for (Prescription p : list) {
-            String rxId = getStrSmart(p, "getPrescriptionID","getPrescriptionId","getId","prescriptionID","prescriptionId","id");
-            String pid  = getStrSmart(p, "getPatientID","getPatientId","patientID","patientId","patient");
-            String cid  = getStrSmart(p, "getClinicianID","getClinicianId","clinicianID","clinicianId","clinician");
-            String appt = getStrSmart(p, "getAppointmentID","getAppointmentId","appointmentID","appointmentId","appointment");
-
-            String med  = getStrSmart(p, "getMedication","getMedicine","getDrugName","medication","medicine","drugName");
-            String dose = getStrSmart(p, "getDosage","getDose","dosage","dose");
-            String freq = getStrSmart(p, "getFrequency","frequency");
-
-            String dur  = getStrSmart(p, "getDurationDays","getDuration","durationDays","duration");
-            String qty  = getStrSmart(p, "getQuantity","quantity","qty","getQty");
-            String pharm= getStrSmart(p, "getPharmacy","pharmacy","getPharmacyName","pharmacyName");
-
-            String dp   = getStrSmart(p, "getDatePrescribed","getPrescribedDate","datePrescribed","prescribedDate");
-            String issue= getStrSmart(p, "getIssueDate","issueDate");
-            String colD = getStrSmart(p, "getCollectionDate","collectionDate");
-            String colS = getStrSmart(p, "getCollectionStatus","collectionStatus");
-
-            String notes= getStrSmart(p, "getNotes","getComment","getRemarks","notes","comment","remarks");
-
-            tableModel.addRow(new Object[]{
-                    rxId, pid, cid, appt,
-                    med, dose, freq,
-                    dur, qty, pharm,
-                    dp, issue, colD, colS,
-                    notes
-            });
-        }
+        tableModel.reload();
 
         // ✅ IMPORTANT: no auto select first row
         table.clearSelection();
@@ -283,10 +255,8 @@ public class PrescriptionPanel extends JPanel {
     private void onAdd() {
         try {
             Prescription obj = buildPrescriptionObject();
-            Method add = controller.getClass().getMethod("addPrescription", Prescription.class);
-            add.invoke(controller, obj);
+            controller.addPrescription(obj);
 
-            refreshData();
             clearFields();
             JOptionPane.showMessageDialog(this, "Prescription added successfully!", "Message", JOptionPane.INFORMATION_MESSAGE);
         } catch (Exception ex) {
@@ -308,14 +278,13 @@ public class PrescriptionPanel extends JPanel {
                 return;
             }
 
-            Method del = controller.getClass().getMethod("deletePrescription", String.class);
-            del.invoke(controller, id);
-
             Prescription obj = buildPrescriptionObject();
-            Method add = controller.getClass().getMethod("addPrescription", Prescription.class);
-            add.invoke(controller, obj);
+            if (!controller.updatePrescription(obj)) {
+                controller.deletePrescription(id);
+                controller.addPrescription(obj);
+            }
 
-            refreshData();
+            clearFields();
             JOptionPane.showMessageDialog(this, "Prescription updated successfully!", "Message", JOptionPane.INFORMATION_MESSAGE);
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, "Update failed: " + ex.getMessage(), "Message", JOptionPane.ERROR_MESSAGE);
@@ -336,10 +305,8 @@ public class PrescriptionPanel extends JPanel {
                 return;
             }
 
-            Method del = controller.getClass().getMethod("deletePrescription", String.class);
-            del.invoke(controller, id);
+            controller.deletePrescription(id);
 
-            refreshData();
             clearFields();
             JOptionPane.showMessageDialog(this, "Prescription deleted successfully!", "Message", JOptionPane.INFORMATION_MESSAGE);
         } catch (Exception ex) {
@@ -347,89 +314,33 @@ public class PrescriptionPanel extends JPanel {
         }
     }
 
-    private Prescription buildPrescriptionObject() throws Exception {
-        String[] a = new String[] {
-                prescriptionIDField.getText().trim(),
-                patientIDField.getText().trim(),
-                clinicianIDField.getText().trim(),
-                appointmentIDField.getText().trim(),
-                medicationField.getText().trim(),
-                dosageField.getText().trim(),
-                frequencyField.getText().trim(),
-                durationDaysField.getText().trim(),
-                quantityField.getText().trim(),
-                pharmacyField.getText().trim(),
-                datePrescribedField.getText().trim(),
-                issueDateField.getText().trim(),
-                collectionDateField.getText().trim(),
-                collectionStatusField.getText().trim(),
-                notesField.getText().trim()
-        };
-
-        // 1) try constructor with all String params
-        for (Constructor<?> c : Prescription.class.getConstructors()) {
-            Class<?>[] p = c.getParameterTypes();
-            if (p.length != a.length) continue;
-            boolean allString = true;
-            for (Class<?> t : p) {
-                if (t != String.class) { allString = false; break; }
-            }
-            if (allString) return (Prescription) c.newInstance((Object[]) a);
+    private Prescription buildPrescriptionObject() {
+        Prescription prescription = new Prescription();
+        JTextField[] fields = formFields();
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            COLUMNS.get(i).set(prescription, fields[i].getText().trim());
         }
-
-        // 2) default ctor + set fields/setters
-        Prescription obj = Prescription.class.getDeclaredConstructor().newInstance();
-
-        smartSet(obj, new String[]{"prescriptionID","prescriptionId","id"}, a[0]);
-        smartSet(obj, new String[]{"patientID","patientId","patient"}, a[1]);
-        smartSet(obj, new String[]{"clinicianID","clinicianId","clinician"}, a[2]);
-        smartSet(obj, new String[]{"appointmentID","appointmentId","appointment"}, a[3]);
-
-        smartSet(obj, new String[]{"medication","medicine","drugName"}, a[4]);
-        smartSet(obj, new String[]{"dosage","dose"}, a[5]);
-        smartSet(obj, new String[]{"frequency"}, a[6]);
-
-        smartSet(obj, new String[]{"durationDays","duration"}, a[7]);
-        smartSet(obj, new String[]{"quantity","qty"}, a[8]);
-        smartSet(obj, new String[]{"pharmacy","pharmacyName"}, a[9]);
-
-        smartSet(obj, new String[]{"datePrescribed","prescribedDate"}, a[10]);
-        smartSet(obj, new String[]{"issueDate"}, a[11]);
-        smartSet(obj, new String[]{"collectionDate"}, a[12]);
-        smartSet(obj, new String[]{"collectionStatus"}, a[13]);
-
-        smartSet(obj, new String[]{"notes","comment","remarks"}, a[14]);
-
-        return obj;
+        return prescription;
     }
 
-    private void smartSet(Object obj, String[] possibleNames, String value) {
-        if (obj == null) return;
-
-        // setters
-        for (String n : possibleNames) {
-            String setter = "set" + Character.toUpperCase(n.charAt(0)) + n.substring(1);
-            try {
-                Method m = obj.getClass().getMethod(setter, String.class);
-                m.invoke(obj, value);
-                return;
-            } catch (Exception ignored) {}
-        }
-
-        // fields
-        for (String n : possibleNames) {
-            Class<?> c = obj.getClass();
-            while (c != null) {
-                try {
-                    Field f = c.getDeclaredField(n);
-                    f.setAccessible(true);
-                    f.set(obj, value);
-                    return;
-                } catch (Exception ignored) {
-                    c = c.getSuperclass();
-                }
-            }
-        }
+    private JTextField[] formFields() {
+        return new JTextField[] {
+                prescriptionIDField,
+                patientIDField,
+                clinicianIDField,
+                appointmentIDField,
+                medicationField,
+                dosageField,
+                frequencyField,
+                durationDaysField,
+                quantityField,
+                pharmacyField,
+                datePrescribedField,
+                issueDateField,
+                collectionDateField,
+                collectionStatusField,
+                notesField
+        };
     }
 
     private void clearFields() {
@@ -482,86 +393,4 @@ public class PrescriptionPanel extends JPanel {
         button.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
         button.setFont(button.getFont().deriveFont(Font.BOLD, 12f));
     }
-
-    // -------- SMART GETTERS (TABLE) --------
-
-    private String getStrSmart(Object obj, String... names) {
-        if (obj == null) return "";
-        for (String n : names) {
-            Object v = null;
-
-            if (n != null && n.startsWith("get")) v = invokeNoArg(obj, n);
-            if (v == null) v = readField(obj, n);
-
-            if (v != null && !(v instanceof String) && !(v instanceof Number) && !(v instanceof Boolean)) {
-                Object nestedId = invokeNoArg(v, "getId");
-                if (nestedId != null) return nestedId.toString();
-                return v.toString();
-            }
-            if (v != null) return v.toString();
-        }
-        return "";
-    }
-
-    private Object invokeNoArg(Object obj, String method) {
-        try {
-            Method m = obj.getClass().getMethod(method);
-            return m.invoke(obj);
-        } catch (Exception ignored) {}
-        return null;
-    }
-
-    private Object readField(Object obj, String fieldName) {
-        if (fieldName == null || fieldName.isEmpty()) return null;
-        Class<?> c = obj.getClass();
-        while (c != null) {
-            try {
-                Field f = c.getDeclaredField(fieldName);
-                f.setAccessible(true);
-                return f.get(obj);
-            } catch (Exception ignored) {
-                c = c.getSuperclass();
-            }
-        }
-        return null;
-    }
-
-    @SuppressWarnings("unchecked")
-    private <T> List<T> getListFromController(Object controllerObj,
-                                              String[] directMethods,
-                                              String[] midGetterMethods,
-                                              String[] dataMethods) {
-        if (controllerObj == null) return Collections.emptyList();
-
-        List<T> direct = (List<T>) invokeFirstList(controllerObj, directMethods);
-        if (direct != null) return direct;
-
-        Object dataObj = invokeFirstObj(controllerObj, midGetterMethods);
-        if (dataObj != null) {
-            List<T> nested = (List<T>) invokeFirstList(dataObj, dataMethods);
-            if (nested != null) return nested;
-        }
-        return Collections.emptyList();
-    }
-
-    private Object invokeFirstObj(Object obj, String[] methodNames) {
-        for (String m : methodNames) {
-            try {
-                Method mm = obj.getClass().getMethod(m);
-                return mm.invoke(obj);
-            } catch (Exception ignored) {}
-        }
-        return null;
-    }
-
-    private Object invokeFirstList(Object obj, String[] methodNames) {
-        for (String m : methodNames) {
-            try {
-                Method mm = obj.getClass().getMethod(m);
-                Object out = mm.invoke(obj);
-                if (out instanceof List) return out;
-            } catch (Exception ignored) {}
-        }
-        return null;
-    }
 }
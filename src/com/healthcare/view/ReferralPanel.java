@@ -1,25 +1,41 @@
 package com.healthcare.view;
 
 import com.healthcare.controller.HealthcareController;
+import com.healthcare.data.EntityType;
 import com.healthcare.model.Referral;
 
 import javax.swing.*;
 import javax.swing.event.ListSelectionEvent;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
-import java.lang.reflect.Constructor;
-import java.lang.reflect.Field;
-import java.lang.reflect.Method;
-import java.util.Collections;
 import java.util.List;
 
 public class ReferralPanel extends JPanel {
 
+    // Table columns in display order; the form fields follow the same order (see formFields())
+    private static final List<ColumnBinding<Referral>> COLUMNS = List.of(
+            ColumnBinding.of("Referral ID", Referral::getReferralID, Referral::setReferralID),
+            ColumnBinding.of("Patient ID", Referral::getPatientID, Referral::setPatientID),
+            ColumnBinding.of("Referring Clinician ID", Referral::getReferringClinicianID, Referral::setReferringClinicianID),
+            ColumnBinding.of("Receiving Clinician ID", Referral::getReceivingClinicianID, Referral::setReceivingClinicianID),
+            ColumnBinding.of("Referring Facility", Referral::getReferringFacility, Referral::setReferringFacility),
+            ColumnBinding.of("Receiving Facility", Referral::getReceivingFacility, Referral::setReceivingFacility),
+            ColumnBinding.of("Date", Referral::getDate, Referral::setDate),
+            ColumnBinding.of("Urgency", Referral::getUrgency, Referral::setUrgency),
+            ColumnBinding.of("Referral Reason", Referral::getReferralReason, Referral::setReferralReason),
+            ColumnBinding.of("Clinical Summary", Referral::getClinicalSummary, Referral::setClinicalSummary),
+            ColumnBinding.of("Investigations", Referral::getRequestedInvestigations, Referral::setRequestedInvestigations),
+            ColumnBinding.of("Appointment ID", Referral::getAppointmentID, Referral::setAppointmentID),
+            ColumnBinding.of("Notes", Referral::getNotes, Referral::setNotes),
+            ColumnBinding.of("Status", Referral::getStatus, Referral::setStatus),
+            ColumnBinding.of("Created Date", Referral::getCreatedDate, Referral::setCreatedDate),
+            ColumnBinding.of("Last Updated", Referral::getLastUpdated, Referral::setLastUpdated)
+    );
+
     private final HealthcareController controller;
 
     private JTable table;
-    private DefaultTableModel tableModel;
+    private EntityTableModel<Referral> tableModel;
 
     private JTextField referralIDField;
     private JTextField patientIDField;
@@ -78,6 +94,7 @@ public class ReferralPanel extends JPanel {
         panel.add(deleteBtn);
         panel.add(clearBtn);
         panel.add(refreshBtn);
+        panel.add(new SearchBar("Search by Referral or patient ID, urgency or status", query -> tableModel.filter(query)));
 
         addBtn.addActionListener(e -> onAdd());
         updateBtn.addActionListener(e -> onUpdate());
@@ -89,19 +106,11 @@ public class ReferralPanel extends JPanel {
     }
 
     private JScrollPane buildTablePanel() {
-        String[] cols = {
-                "Referral ID", "Patient ID",
-                "Referring Clinician ID", "Receiving Clinician ID",
-                "Referring Facility", "Receiving Facility",
-                "Date", "Urgency",
-                "Referral Reason", "Clinical Summary", "Investigations",
-                "Appointment ID", "Notes", "Status",
-                "Created Date", "Last Updated"
-        };
-
-        tableModel = new DefaultTableModel(cols, 0) {
-            @Override public boolean isCellEditable(int r, int c) { return false; }
-        };
+        tableModel = new EntityTableModel<Referral>(EntityType.REFERRAL, controller::getRowCount, controller::getRowAt)
+                .searchWith(controller::searchReferrals)
+                .columns(COLUMNS);
+        controller.addDataChangeListener(tableModel);
+        tableModel.refreshWhenShown(this);
 
         table = new JTable(tableModel);
         table.setFillsViewportHeight(true);
@@ -249,51 +258,7 @@ public class ReferralPanel extends JPanel {
     }
 
     public void refreshData() {
-        tableModel.setRowCount(0);
-
-        List<Referral> list = getListFromController(controller,
-                new String[]{"getReferrals","getAllReferrals","getReferralList","getReferralsList","getAllReferrals"},
-                new String[]{"getDataManager","getData","getStore"},
-                new String[]{"getReferrals","getAllReferrals","getReferralList","getReferralsList"}
-        );
-
-        if (list == null) list = Collections.emptyList();
-
-        for (Referral r : list) {
-            String rid = getStrSmart(r, "getReferralID","getReferralId","getId","referralID","referralId","id");
-            String pid = getStrSmart(r, "getPatientID","getPatientId","patientID","patientId","patient");
-
-            String refCid = getStrSmart(r, "getReferringClinicianID","getReferringClinicianId","referringClinicianID","referringClinicianId");
-            String recCid = getStrSmart(r, "getReceivingClinicianID","getReceivingClinicianId","receivingClinicianID","receivingClinicianId");
-
-            String refFac = getStrSmart(r, "getReferringFacility","getFromFacility","getFromFacilityId","referringFacility","fromFacility","fromFacilityId");
-            String recFac = getStrSmart(r, "getReceivingFacility","getToFacility","getToFacilityId","receivingFacility","toFacility","toFacilityId");
-
-            String date = getStrSmart(r, "getDate","getReferralDate","date","referralDate");
-            String urg  = getStrSmart(r, "getUrgency","getPriority","urgency","priority");
-
-            String reason = getStrSmart(r, "getReferralReason","getReason","referralReason","reason");
-            String cs     = getStrSmart(r, "getClinicalSummary","clinicalSummary","getSummary","summary");
-
-            String inv = getStrSmart(r,
-                    "getInvestigations","getInvestigation","getTests","getInvestigationsDone",
-                    "investigations","investigation","tests","investigationDetails","testResults",
-                    "getInvestigationDetails","getTestResults"
-            );
-
-            String appt = getStrSmart(r, "getAppointmentID","getAppointmentId","appointmentID","appointmentId","appointment");
-            String notes= getStrSmart(r, "getNotes","getComment","getRemarks","notes","comment","remarks");
-            String status = getStrSmart(r, "getStatus","status");
-
-            String created = getStrSmart(r, "getCreatedDate","getCreated","getCreatedAt","createdDate","created","createdAt");
-            String updated = getStrSmart(r, "getLastUpdated","getLastModified","getUpdatedAt","lastUpdated","lastModified","updatedAt");
-
-            tableModel.addRow(new Object[]{
-                    rid, pid, refCid, recCid, refFac, recFac,
-                    date, urg, reason, cs, inv,
-                    appt, notes, status, created, updated
-            });
-        }
+        tableModel.reload();
 
         // ✅ IMPORTANT: no auto select first row
         table.clearSelection();
@@ -304,10 +269,8 @@ public class ReferralPanel extends JPanel {
     private void onAdd() {
         try {
             Referral obj = buildReferralObject();
-            Method add = controller.getClass().getMethod("addReferral", Referral.class);
-            add.invoke(controller, obj);
+            controller.addReferral(obj);
 
-            refreshData();
             clearFields();
             JOptionPane.showMessageDialog(this, "Referral added successfully!", "Message", JOptionPane.INFORMATION_MESSAGE);
         } catch (Exception ex) {
@@ -329,14 +292,13 @@ public class ReferralPanel extends JPanel {
                 return;
             }
 
-            Method del = controller.getClass().getMethod("deleteReferral", String.class);
-            del.invoke(controller, id);
-
             Referral obj = buildReferralObject();
-            Method add = controller.getClass().getMethod("addReferral", Referral.class);
-            add.invoke(controller, obj);
+            if (!controller.updateReferral(obj)) {
+                controller.deleteReferral(id);
+                controller.addReferral(obj);
+            }
 
-            refreshData();
+            clearFields();
             JOptionPane.showMessageDialog(this, "Referral updated successfully!", "Message", JOptionPane.INFORMATION_MESSAGE);
         } catch (Exception ex) {
             JOptionPane.showMessageDialog(this, "Update failed: " + ex.getMessage(), "Message", JOptionPane.ERROR_MESSAGE);
@@ -357,10 +319,8 @@ public class ReferralPanel extends JPanel {
                 return;
             }
 
-            Method del = controller.getClass().getMethod("deleteReferral", String.class);
-            del.invoke(controller, id);
+            controller.deleteReferral(id);
 
-            refreshData();
             clearFields();
             JOptionPane.showMessageDialog(this, "Referral deleted successfully!", "Message", JOptionPane.INFORMATION_MESSAGE);
         } catch (Exception ex) {
@@ -368,63 +328,34 @@ public class ReferralPanel extends JPanel {
         }
     }
 
-    private String[] collectArgs() {
-        return new String[] {
-                referralIDField.getText().trim(),
-                patientIDField.getText().trim(),
-                referringClinicianIDField.getText().trim(),
-                receivingClinicianIDField.getText().trim(),
-                referringFacilityField.getText().trim(),
-                receivingFacilityField.getText().trim(),
-                dateField.getText().trim(),
-                urgencyField.getText().trim(),
-                referralReasonField.getText().trim(),
-                clinicalSummaryField.getText().trim(),
-                investigationsField.getText().trim(),
-                appointmentIDField.getText().trim(),
-                notesField.getText().trim(),
-                statusField.getText().trim()
-        };
-    }
-
-    private Referral buildReferralObject() throws Exception {
-        String[] a = collectArgs();
-
-        for (Constructor<?> c : Referral.class.getConstructors()) {
-            Class<?>[] p = c.getParameterTypes();
-            if (p.length != a.length) continue;
-
-            boolean allString = true;
-            for (Class<?> t : p) {
-                if (t != String.class) { allString = false; break; }
-            }
-            if (allString) return (Referral) c.newInstance((Object[]) a);
+    private Referral buildReferralObject() {
+        Referral referral = new Referral();
+        JTextField[] fields = formFields();
+        for (int i = 0; i < COLUMNS.size(); i++) {
+            COLUMNS.get(i).set(referral, fields[i].getText().trim());
         }
-
-        Referral r = Referral.class.getDeclaredConstructor().newInstance();
-        setIfExists(r, "referralID", a[0]);
-        setIfExists(r, "patientID", a[1]);
-        setIfExists(r, "referringClinicianID", a[2]);
-        setIfExists(r, "receivingClinicianID", a[3]);
-        setIfExists(r, "referringFacility", a[4]);
-        setIfExists(r, "receivingFacility", a[5]);
-        setIfExists(r, "date", a[6]);
-        setIfExists(r, "urgency", a[7]);
-        setIfExists(r, "referralReason", a[8]);
-        setIfExists(r, "clinicalSummary", a[9]);
-        setIfExists(r, "investigations", a[10]);
-        setIfExists(r, "appointmentID", a[11]);
-        setIfExists(r, "notes", a[12]);
-        setIfExists(r, "status", a[13]);
-        return r;
+        return referral;
     }
 
-    private void setIfExists(Object obj, String fieldName, String value) {
-        try {
-            Field f = obj.getClass().getDeclaredField(fieldName);
-            f.setAccessible(true);
-            f.set(obj, value);
-        } catch (Exception ignored) {}
+    private JTextField[] formFields() {
+        return new JTextField[] {
+                referralIDField,
+                patientIDField,
+                referringClinicianIDField,
+                receivingClinicianIDField,
+                referringFacilityField,
+                receivingFacilityField,
+                dateField,
+                urgencyField,
+                referralReasonField,
+                clinicalSummaryField,
+                investigationsField,
+                appointmentIDField,
+                notesField,
+                statusField,
+                createdDateField,
+                lastUpdatedField
+        };
     }
 
     private void clearFields() {
@@ -474,87 +405,4 @@ public class ReferralPanel extends JPanel {
         button.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
         button.setFont(button.getFont().deriveFont(Font.BOLD, 12f));
     }
-
-    // ---------- SMART GETTERS for table ----------
-
-    private String getStrSmart(Object obj, String... names) {
-        if (obj == null) return "";
-        for (String n : names) {
-            Object v = null;
-
-            if (n != null && n.startsWith("get")) v = invokeNoArg(obj, n);
-            if (v == null) v = readField(obj, n);
-
-            if (v != null && !(v instanceof String) && !(v instanceof Number) && !(v instanceof Boolean)) {
-                Object nestedId = invokeNoArg(v, "getId");
-                if (nestedId != null) return nestedId.toString();
-                return v.toString();
-            }
-
-            if (v != null) return v.toString();
-        }
-        return "";
-    }
-
-    private Object invokeNoArg(Object obj, String method) {
-        try {
-            Method m = obj.getClass().getMethod(method);
-            return m.invoke(obj);
-        } catch (Exception ignored) {}
-        return null;
-    }
-
-    private Object readField(Object obj, String fieldName) {
-        if (fieldName == null || fieldName.isEmpty()) return null;
-        Class<?> c = obj.getClass();
-        while (c != null) {
-            try {
-                Field f = c.getDeclaredField(fieldName);
-                f.setAccessible(true);
-                return f.get(obj);
-            } catch (Exception ignored) {
-                c = c.getSuperclass();
-            }
-        }
-        return null;
-    }
-
-    @SuppressWarnings("unchecked")
-    private <T> List<T> getListFromController(Object controllerObj,
-                                              String[] directMethods,
-                                              String[] midGetterMethods,
-                                              String[] dataMethods) {
-        if (controllerObj == null) return Collections.emptyList();
-
-        List<T> direct = (List<T>) invokeFirstList(controllerObj, directMethods);
-        if (direct != null) return direct;
-
-        Object dataObj = invokeFirstObj(controllerObj, midGetterMethods);
-        if (dataObj != null) {
-            List<T> nested = (List<T>) invokeFirstList(dataObj, dataMethods);
-            if (nested != null) return nested;
-        }
-        return Collections.emptyList();
-    }
-
-    private Object invokeFirstObj(Object obj, String[] methodNames) {
-        for (String m : methodNames) {
-            try {
-                Method mm = obj.getClass().getMethod(m);
-                return mm.invoke(obj);
-            } catch (Exception ignored) {}
-        }
-        return null;
-    }
-
-    private Object invokeFirstList(Object obj, String[] methodNames) {
-        for (String m : methodNames) {
-            try {
-                Method mm = obj.getClass().getMethod(m);
-                Object out = mm.invoke(obj);
-                if (out instanceof List) return out;
-            } catch (Exception ignored) {}
-        }
-        return null;
-    }
 }
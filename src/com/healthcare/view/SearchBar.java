@@ -0,0 +1,58 @@
+package com.healthcare.view;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+import java.awt.*;
+import java.util.function.Consumer;
+
+/**
+ * Search field for a panel's button row. The query is passed on once typing has paused
+ * for DEBOUNCE_MILLIS, so a burst of keystrokes costs one search instead of one per key.
+ */
+class SearchBar extends JPanel {
+    private static final int DEBOUNCE_MILLIS = 250;
+
+    private final JTextField field = new JTextField(18);
+    private final Timer debounce;
+
+    /**
+     * @param hint     tooltip naming the fields searched
+     * @param onSearch called on the EDT with the current text
+     */
+    SearchBar(String hint, Consumer<String> onSearch) {
+        super(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        setOpaque(false);
+
+        debounce = new Timer(DEBOUNCE_MILLIS, e -> onSearch.accept(field.getText()));
+        debounce.setRepeats(false);
+
+        field.setToolTipText(hint);
+        field.getDocument().addDocumentListener(new DocumentListener() {
+            @Override
+            public void insertUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void removeUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+
+            @Override
+            public void changedUpdate(DocumentEvent e) {
+                debounce.restart();
+            }
+        });
+        // Enter searches without waiting; Escape clears the field and so the filter
+        field.addActionListener(e -> {
+            debounce.stop();
+            onSearch.accept(field.getText());
+        });
+        field.registerKeyboardAction(e -> field.setText(""),
+                KeyStroke.getKeyStroke("ESCAPE"), JComponent.WHEN_FOCUSED);
+
+        add(new JLabel("Search:"));
+        add(field);
+    }
+}
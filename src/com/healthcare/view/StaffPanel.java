@@ -1,19 +1,18 @@
 package com.healthcare.view;
 
 import com.healthcare.controller.HealthcareController;
+import com.healthcare.data.EntityType;
 import com.healthcare.model.Staff;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.JTableHeader;
 import java.awt.*;
-import java.util.List;
 
 public class StaffPanel extends JPanel {
 
     private final HealthcareController controller;
     private JTable table;
-    private DefaultTableModel tableModel;
+    private EntityTableModel<Staff> tableModel;
 
     private JTextField staffIDField, firstNameField, lastNameField, roleField, departmentField;
     private JTextField facilityIDField, emailField, phoneField, employmentStatusField;
@@ -34,14 +33,22 @@ public class StaffPanel extends JPanel {
         buttonPanel.setBackground(new Color(245, 247, 250));
         add(buttonPanel, BorderLayout.NORTH);
 
-        String[] columns = {
-                "Staff ID", "First Name", "Last Name", "Role", "Department", "Facility ID",
-                "Email", "Phone", "Employment Status", "Start Date", "Line Manager", "Access Level"
-        };
-
-        tableModel = new DefaultTableModel(columns, 0) {
-            @Override public boolean isCellEditable(int row, int column) { return false; }
-        };
+        tableModel = new EntityTableModel<Staff>(EntityType.STAFF, controller::getRowCount, controller::getRowAt)
+                .searchWith(controller::searchStaff)
+                .column("Staff ID", Staff::getStaffID)
+                .column("First Name", Staff::getFirstName)
+                .column("Last Name", Staff::getLastName)
+                .column("Role", Staff::getRole)
+                .column("Department", Staff::getDepartment)
+                .column("Facility ID", Staff::getFacilityID)
+                .column("Email", Staff::getEmail)
+                .column("Phone", Staff::getPhone)
+                .column("Employment Status", Staff::getEmploymentStatus)
+                .column("Start Date", Staff::getStartDate)
+                .column("Line Manager", Staff::getLineManager)
+                .column("Access Level", Staff::getAccessLevel);
+        controller.addDataChangeListener(tableModel);
+        tableModel.refreshWhenShown(this);
 
         table = new JTable(tableModel);
         table.setFillsViewportHeight(true);
@@ -154,6 +161,7 @@ public class StaffPanel extends JPanel {
         panel.add(deleteBtn);
         panel.add(clearBtn);
         panel.add(refreshBtn);
+        panel.add(new SearchBar("Search by Staff ID, name, role or department", query -> tableModel.filter(query)));
 
         return panel;
     }
@@ -190,7 +198,6 @@ public class StaffPanel extends JPanel {
             Staff s = createStaffFromForm();
             if (s != null) {
                 controller.addStaff(s);
-                refreshData();
                 clearForm();
                 JOptionPane.showMessageDialog(this, "Staff added!");
             }
@@ -207,9 +214,12 @@ public class StaffPanel extends JPanel {
         }
         try {
             String id = (String) tableModel.getValueAt(row, 0);
-            controller.deleteStaff(id);
-            controller.addStaff(createStaffFromForm());
-            refreshData();
+            Staff updated = createStaffFromForm();
+            if (!id.equals(updated.getStaffID()) || !controller.updateStaff(updated)) {
+                // ID changed (or record gone): replace under the new ID
+                controller.deleteStaff(id);
+                controller.addStaff(updated);
+            }
             clearForm();
             JOptionPane.showMessageDialog(this, "Staff updated!");
         } catch (Exception e) {
@@ -226,7 +236,6 @@ public class StaffPanel extends JPanel {
         if (JOptionPane.showConfirmDialog(this, "Delete this staff member?", "Confirm",
                 JOptionPane.YES_NO_OPTION) == JOptionPane.YES_OPTION) {
             controller.deleteStaff((String) tableModel.getValueAt(row, 0));
-            refreshData();
             clearForm();
         }
     }
@@ -286,16 +295,6 @@ public class StaffPanel extends JPanel {
     }
 
     public void refreshData() {
-        tableModel.setRowCount(0);
-        List<Staff> list = controller.getAllStaff();
-        for (Staff s : list) {
-            tableModel.addRow(new Object[]{
-                    s.getStaffID(), s.getFirstName(), s.getLastName(),
-                    s.getRole(), s.getDepartment(), s.getFacilityID(),
-                    s.getEmail(), s.getPhone(),
-                    s.getEmploymentStatus(), s.getStartDate(),
-                    s.getLineManager(), s.getAccessLevel()
-            });
-        }
+        tableModel.reload();
     }
 }